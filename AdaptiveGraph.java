@@ -0,0 +1,543 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for a graph that picks its representation row by row as edges arrive, so it suits both
+ * sparse road graphs and near-complete conflict graphs without choosing between EdgeArrayGraph
+ * and NodeEdgeGraph up front. Each node's outgoing and incoming edges are an AdaptiveRow, a sorted
+ * int array while the node has few edges and a bitset once its degree passes one in 32 of the
+ * nodes. Edge weights are kept apart in an EdgeWeightMap. The index of a removed node keeps empty
+ * rows and no label until a new node reuses it.
+ */
+public class AdaptiveGraph implements IGraph {
+    String name;
+    ArrayList<AdaptiveRow> nextRows; // ids each node has edges to
+    ArrayList<AdaptiveRow> prevRows; // ids that have edges to each node
+    EdgeWeightMap weights; // only edges given a weight are stored, the rest read as the default
+    long edgeCount;
+    long modCount;
+    ArrayList<GraphListener> listeners;
+    HashMap<String, Integer> stringToIndex;
+    ArrayList<String> indexToString; // null at the indices of removed nodes
+    IntList freeIndices; // indices of removed nodes, reused before new ones are handed out
+
+    /**
+     * Constructor for density-adaptive graph
+     *
+     * @param name name of graph
+     */
+    public AdaptiveGraph(String name) {
+        this.name = name;
+        this.nextRows = new ArrayList<>();
+        this.prevRows = new ArrayList<>();
+        this.weights = new EdgeWeightMap();
+        this.listeners = new ArrayList<>();
+        this.stringToIndex = new HashMap<String, Integer>();
+        this.indexToString = new ArrayList<String>();
+        this.freeIndices = new IntList(4);
+    }
+
+    /**
+     * Method to add a new node with the given description. An exception will
+     * be thrown if the description already names a node in the graph
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already
+     * associated with a node in the graph
+     */
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        if (this.stringToIndex.containsKey(descr)) {
+            throw new NodeNameExistsException(descr);
+        }
+        this.addNodeUnchecked(descr);
+    }
+
+    /**
+     * Internal method for adding a node without checking whether it exists. The index of a
+     * removed node is reused if there is one, since its rows are already empty
+     *
+     * @param descr description of node to add
+     * @return the index of the new node
+     */
+    private int addNodeUnchecked(String descr) {
+        int index;
+        if (this.freeIndices.size() > 0) {
+            index = this.freeIndices.removeLast();
+            this.indexToString.set(index, descr);
+        } else {
+            index = this.indexToString.size();
+            this.indexToString.add(descr);
+            this.nextRows.add(new AdaptiveRow());
+            this.prevRows.add(new AdaptiveRow());
+        }
+        this.stringToIndex.put(descr, index);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeAdded(index);
+        }
+        return index;
+    }
+
+    /**
+     * Helper method to get the index of a node, adding the node if there is none with that name
+     *
+     * @param descr description of the node
+     * @return the index of the node
+     */
+    private int getOrAddNode(String descr) {
+        Integer index = this.stringToIndex.get(descr);
+        return index == null ? this.addNodeUnchecked(descr) : index;
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given
+     * descriptions. If descr1 and descr2 are not already
+     * valid node labels in the graph, those nodes are also created.
+     * If the edge already exists, no changes are made
+     * (and no exceptions or warnings are raised)
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     *
+     * Runtime:
+     *      Amortized expected O(1) once the rows are bitsets, O(D) Where D is the degree of the
+     *      two nodes while they are arrays, which is at most N / 32 for N nodes
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        int index1 = this.getOrAddNode(descr1);
+        int index2 = this.getOrAddNode(descr2);
+        this.setEdge(index1, index2);
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given
+     * descriptions. This is equivalent to adding two directed edges, one from
+     * descr1 to descr2, and another from descr2 to descr1.
+     * If descr1 and descr2 are not already valid node labels in the graph,
+     * those nodes are also created.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        int index1 = this.getOrAddNode(descr1);
+        int index2 = this.getOrAddNode(descr2);
+        this.setEdge(index1, index2);
+        this.setEdge(index2, index1);
+    }
+
+    /**
+     * Helper method to add an edge to the rows at both its ends, telling the listeners if it is new
+     *
+     * @param index1 index of the source node
+     * @param index2 index of the target node
+     */
+    private void setEdge(int index1, int index2) {
+        int nodeCount = this.indexToString.size();
+        if (this.nextRows.get(index1).add(index2, nodeCount)) {
+            this.prevRows.get(index2).add(index1, nodeCount);
+            this.edgeCount++;
+            this.modCount++;
+            for (GraphListener listener : this.listeners) {
+                listener.edgeAdded(index1, index2);
+            }
+        }
+    }
+
+    /**
+     * Method to add a directed edge with a travel cost between the nodes associated
+     * with the given descriptions, creating the nodes if needed.
+     * If the edge already exists its cost is replaced
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edge
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        IGraph.checkWeight(weight);
+        int index1 = this.getOrAddNode(descr1);
+        int index2 = this.getOrAddNode(descr2);
+        this.setEdge(index1, index2);
+        this.weights.put(index1, index2, weight);
+        this.modCount++;
+    }
+
+    /**
+     * Method to add an undirected edge with the same travel cost both ways between
+     * the nodes associated with the given descriptions, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edges
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    /**
+     * Method to add directed edges between existing nodes by index, skipping edges already
+     * present and repeats within the batch
+     *
+     * @param from index of the source node of each edge
+     * @param to index of the target node of each edge
+     * @throws IllegalArgumentException if the arrays differ in length or an index is not a node
+     *
+     * Runtime:
+     *      O(B log B) Where B is the size of the batch, plus the cost of each insert
+     *      Sorting the batch fills each outgoing row in increasing order, so array rows only append
+     */
+    @Override
+    public void addEdges(int[] from, int[] to) {
+        EdgeBatch.check(from, to, null, this);
+        for (long key : EdgeBatch.sortedKeys(from, to)) {
+            this.setEdge(EdgeBatch.source(key), EdgeBatch.target(key));
+        }
+    }
+
+    /**
+     * Method to add directed edges with travel costs between existing nodes by index, replacing
+     * the cost of edges already present. An edge repeated within the batch ends with its last cost
+     *
+     * @param from index of the source node of each edge
+     * @param to index of the target node of each edge
+     * @param weights the non-negative cost of each edge
+     * @throws IllegalArgumentException if the arrays differ in length, an index is not a node or
+     *      a weight is negative, infinite or NaN
+     */
+    @Override
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        EdgeBatch.check(from, to, weights, this);
+        this.addEdges(from, to);
+        for (int i = 0; i < from.length; i++) {
+            this.weights.put(from[i], to[i], weights[i]);
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Method to remove a node and every edge to or from it. Its index is freed for the next node
+     * added, with its label gone from stringToIndex and indexToString
+     *
+     * @param descr the description of the node to remove
+     * @return true if the node was removed, false if there is no such node
+     *
+     * Runtime:
+     *      O(D * D') at worst Where D is the number of edges to or from the node and D' the
+     *      largest degree of a neighbor whose row is still an array
+     */
+    @Override
+    public boolean removeNode(String descr) {
+        Integer boxed = this.stringToIndex.remove(descr);
+        if (boxed == null) {
+            return false;
+        }
+        int index = boxed;
+        int nodeCount = this.indexToString.size();
+        AdaptiveRow next = this.nextRows.get(index);
+        next.forEach(to -> {
+            this.prevRows.get(to).remove(index, nodeCount);
+            this.edgeRemoved(index, to);
+        });
+        next.clear();
+        AdaptiveRow prev = this.prevRows.get(index);
+        prev.forEach(from -> {
+            // a self edge was already removed with the outgoing edges
+            if (from != index) {
+                this.nextRows.get(from).remove(index, nodeCount);
+                this.edgeRemoved(from, index);
+            }
+        });
+        prev.clear();
+        this.indexToString.set(index, null);
+        this.freeIndices.add(index);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeRemoved(index);
+        }
+        return true;
+    }
+
+    /**
+     * Method to remove a directed edge between the nodes associated with the given descriptions
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if the edge was removed, false if there is no such edge
+     */
+    @Override
+    public boolean removeEdge(String descr1, String descr2) {
+        Integer index1 = this.stringToIndex.get(descr1);
+        Integer index2 = this.stringToIndex.get(descr2);
+        int nodeCount = this.indexToString.size();
+        if (index1 == null || index2 == null || !this.nextRows.get(index1).remove(index2, nodeCount)) {
+            return false;
+        }
+        this.prevRows.get(index2).remove(index1, nodeCount);
+        this.edgeRemoved(index1, index2);
+        return true;
+    }
+
+    /**
+     * Helper method to forget the weight of a removed edge and tell the listeners
+     *
+     * @param from index of the source node of the edge
+     * @param to index of the target node of the edge
+     */
+    private void edgeRemoved(int from, int to) {
+        this.weights.remove(from, to);
+        this.edgeCount--;
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.edgeRemoved(from, to);
+        }
+    }
+
+    /**
+     * Method to drop the indices of removed nodes at the end of the index range, fit every row
+     * to the form and size it needs now, and rebuild the weight map without its tombstones
+     *
+     * Runtime:
+     *      O(N * N / 64 + W) at worst Where N is the number of nodes and W the number of weights
+     */
+    @Override
+    public void compact() {
+        int size = this.indexToString.size();
+        while (size > 0 && this.indexToString.get(size - 1) == null) {
+            size--;
+        }
+        if (size < this.indexToString.size()) {
+            this.indexToString.subList(size, this.indexToString.size()).clear();
+            this.nextRows.subList(size, this.nextRows.size()).clear();
+            this.prevRows.subList(size, this.prevRows.size()).clear();
+            IntList kept = new IntList(this.freeIndices.size());
+            for (int i = 0; i < this.freeIndices.size(); i++) {
+                if (this.freeIndices.get(i) < size) {
+                    kept.add(this.freeIndices.get(i));
+                }
+            }
+            this.freeIndices = kept;
+            this.modCount++;
+        }
+        for (int i = 0; i < size; i++) {
+            this.nextRows.get(i).adapt(size);
+            this.nextRows.get(i).trim();
+            this.prevRows.get(i).adapt(size);
+            this.prevRows.get(i).trim();
+        }
+        this.indexToString.trimToSize();
+        this.nextRows.trimToSize();
+        this.prevRows.trimToSize();
+        this.weights.compact();
+    }
+
+    /**
+     * Method to get the fraction of all possible edges, self edges included, that are present
+     *
+     * @return number of edges over the square of the number of nodes, or 0 for an empty graph
+     */
+    public double density() {
+        long nodes = this.stringToIndex.size();
+        return nodes == 0 ? 0 : (double) this.edgeCount / (nodes * nodes);
+    }
+
+    /**
+     * Method to count the nodes whose outgoing edges are currently held as a bitset
+     *
+     * @return number of dense outgoing rows
+     */
+    public int denseRowCount() {
+        int count = 0;
+        for (AdaptiveRow row : this.nextRows) {
+            if (row.isDense()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     *
+     * Runtime:
+     *      O(N log D) at worst Where N is the number of nodes and D the largest degree
+     */
+    @Override
+    public int countSelfEdges() {
+        int count = 0;
+        for (int i = 0; i < this.nextRows.size(); i++) {
+            if (this.nextRows.get(i).contains(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     *
+     * Runtime:
+     *      O(log D) Rows hold no duplicates, so only the row size and any self edge are needed
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int index = this.stringToIndex.get(fromNodeLabel);
+        AdaptiveRow row = this.nextRows.get(index);
+        int others = row.size() - (row.contains(index) ? 1 : 0);
+        return others == this.stringToIndex.size() - 1;
+    }
+
+    /**
+     * Method to get a list of all nodes in the graph that the chosen node has connections to
+     *
+     * @param node string name of node in graph to check for neighbors of
+     * @return a list of strings corresponding to all neighbors of node
+     */
+    @Override
+    public LinkedList<String> getNeighbors(String node) {
+        LinkedList<String> neighbors = new LinkedList<>();
+        this.forEachNeighbor(this.stringToIndex.get(node), i -> neighbors.add(this.indexToString.get(i)));
+        return neighbors;
+    }
+
+    /**
+     * Method to return a hashset of the string names of all nodes in graph
+     *
+     * @return hashset of name strings
+     */
+    @Override
+    public HashSet<String> getAllNodes() {
+        return new HashSet<>(this.stringToIndex.keySet());
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      Expected O(1) for a bitset row, O(log D) for an array row
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        Integer index1 = this.stringToIndex.get(descr1);
+        Integer index2 = this.stringToIndex.get(descr2);
+        return index1 != null && index2 != null && this.nextRows.get(index1).contains(index2);
+    }
+
+    /**
+     * Method to get the number of node indices in the graph
+     *
+     * @return one more than the largest index, counting those of removed nodes not yet reused
+     */
+    @Override
+    public int nodeCount() {
+        return this.indexToString.size();
+    }
+
+    /**
+     * Method to get the index of the node with a name
+     *
+     * @param label name of the node
+     * @return the index of the node, or -1 if there is no such node
+     */
+    @Override
+    public int idOf(String label) {
+        Integer index = this.stringToIndex.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Method to get the name of the node at an index
+     *
+     * @param id index of the node
+     * @return the name of the node, or null if it was removed
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.indexToString.get(id);
+    }
+
+    /**
+     * Method to visit the indices of all nodes that a node has connections to, in increasing order
+     *
+     * @param id index of node in graph to check for neighbors of
+     * @param action called with the index of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.nextRows.get(id).forEach(action);
+    }
+
+    /**
+     * Method to visit the indices and edge weights of all nodes that a node has connections to
+     *
+     * @param id index of node in graph to check for neighbors of
+     * @param action called with the index of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        this.nextRows.get(id).forEach(i -> action.accept(i, this.weights.get(id, i)));
+    }
+
+    /**
+     * Method to visit the indices of all nodes that have connections to a node, in increasing order
+     *
+     * @param id index of node in graph to check for predecessors of
+     * @param action called with the index of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        this.prevRows.get(id).forEach(action);
+    }
+
+    /**
+     * Method to get the number of modifications made to the graph so far
+     *
+     * @return a count incremented by every node or edge added or removed and every weight set
+     */
+    @Override
+    public long modCount() {
+        return this.modCount;
+    }
+
+    /**
+     * Method to register a listener for added and removed nodes and edges
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Method to stop notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+        this.listeners.remove(listener);
+    }
+}
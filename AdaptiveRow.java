@@ -0,0 +1,200 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for one row of an AdaptiveGraph, the ids a node has edges to or from. A row starts as a
+ * sorted int array, four bytes per id. Once a row holds at least one id in 32 of the graph, a
+ * bitset with one bit per node is no larger, and it switches to one; it switches back once it
+ * falls below one id in 64, so a row near the threshold does not flip on every change. Either
+ * way the ids are visited in increasing order.
+ */
+final class AdaptiveRow {
+    // below this many ids a row stays an array, however small the graph
+    static final int MIN_DENSE = 64;
+    private static final int[] EMPTY = new int[0];
+
+    int[] ids; // sorted ids while the row is sparse, null while it is dense
+    long[] bits; // one bit per id while the row is dense, null while it is sparse
+    int size;
+
+    /**
+     * Constructor for an empty sparse row
+     */
+    AdaptiveRow() {
+        this.ids = EMPTY;
+    }
+
+    /**
+     * Checks whether the row is held as a bitset
+     *
+     * @return true if the row is a bitset, false if it is a sorted array
+     */
+    boolean isDense() {
+        return this.bits != null;
+    }
+
+    /**
+     * Gets the number of ids in the row
+     *
+     * @return number of ids
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether an id is in the row
+     *
+     * @param id the id to look for
+     * @return true if the id is in the row, otherwise false
+     *
+     * Runtime:
+     *      O(1) for a bitset, O(log D) for an array Where D is the size of the row
+     */
+    boolean contains(int id) {
+        if (this.bits != null) {
+            int word = id >>> 6;
+            return word < this.bits.length && (this.bits[word] & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+    }
+
+    /**
+     * Adds an id to the row, switching to a bitset if the row has become dense
+     *
+     * @param id the id to add
+     * @param nodeCount number of node ids in the graph
+     * @return true if the id was added, false if it was already there
+     *
+     * Runtime:
+     *      Amortized O(1) for a bitset, O(D) for an array Where D is the size of the row,
+     *      which is below N / 32 while the row stays an array
+     */
+    boolean add(int id, int nodeCount) {
+        if (this.bits != null) {
+            int word = id >>> 6;
+            if (word >= this.bits.length) {
+                this.bits = Arrays.copyOf(this.bits, Math.max(word + 1, this.bits.length * 2));
+            }
+            if ((this.bits[word] & (1L << id)) != 0) {
+                return false;
+            }
+            this.bits[word] |= 1L << id;
+        } else {
+            int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, Math.max(4, this.size * 2));
+            }
+            System.arraycopy(this.ids, position, this.ids, position + 1, this.size - position);
+            this.ids[position] = id;
+        }
+        this.size++;
+        this.adapt(nodeCount);
+        return true;
+    }
+
+    /**
+     * Removes an id from the row, switching back to an array if the row has become sparse
+     *
+     * @param id the id to remove
+     * @param nodeCount number of node ids in the graph
+     * @return true if the id was removed, false if it was not there
+     */
+    boolean remove(int id, int nodeCount) {
+        if (this.bits != null) {
+            if (!this.contains(id)) {
+                return false;
+            }
+            this.bits[id >>> 6] &= ~(1L << id);
+        } else {
+            int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+        }
+        this.size--;
+        this.adapt(nodeCount);
+        return true;
+    }
+
+    /**
+     * Empties the row and gives back its storage
+     */
+    void clear() {
+        this.ids = EMPTY;
+        this.bits = null;
+        this.size = 0;
+    }
+
+    /**
+     * Switches the row to whichever form suits its size, leaving it alone between the two thresholds
+     *
+     * @param nodeCount number of node ids in the graph
+     */
+    void adapt(int nodeCount) {
+        if (this.bits == null) {
+            if (this.size >= MIN_DENSE && this.size * 32L >= nodeCount) {
+                long[] dense = new long[(Math.max(nodeCount, this.ids[this.size - 1] + 1) + 63) >>> 6];
+                for (int i = 0; i < this.size; i++) {
+                    dense[this.ids[i] >>> 6] |= 1L << this.ids[i];
+                }
+                this.bits = dense;
+                this.ids = null;
+            }
+        } else if (this.size < MIN_DENSE / 2 || this.size * 64L < nodeCount) {
+            int[] sparse = new int[Math.max(4, this.size)];
+            int i = 0;
+            for (int word = 0; word < this.bits.length; word++) {
+                for (long w = this.bits[word]; w != 0; w &= w - 1) {
+                    sparse[i++] = (word << 6) + Long.numberOfTrailingZeros(w);
+                }
+            }
+            this.ids = sparse;
+            this.bits = null;
+        }
+    }
+
+    /**
+     * Releases the unused end of the row's storage
+     */
+    void trim() {
+        if (this.bits != null) {
+            int words = this.bits.length;
+            while (words > 0 && this.bits[words - 1] == 0) {
+                words--;
+            }
+            this.bits = Arrays.copyOf(this.bits, words);
+        } else if (this.size < this.ids.length) {
+            this.ids = this.size == 0 ? EMPTY : Arrays.copyOf(this.ids, this.size);
+        }
+    }
+
+    /**
+     * Calls action with every id in the row in increasing order
+     *
+     * @param action called once per id
+     *
+     * Runtime:
+     *      O(D) for an array, O(N / 64 + D) for a bitset Where D is the size of the row
+     */
+    void forEach(IntConsumer action) {
+        if (this.bits != null) {
+            for (int word = 0; word < this.bits.length; word++) {
+                for (long w = this.bits[word]; w != 0; w &= w - 1) {
+                    action.accept((word << 6) + Long.numberOfTrailingZeros(w));
+                }
+            }
+        } else {
+            for (int i = 0; i < this.size; i++) {
+                action.accept(this.ids[i]);
+            }
+        }
+    }
+}
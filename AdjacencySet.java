@@ -0,0 +1,311 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for the neighbor ids of one node. Ids are kept in insertion order in a
+ * plain array for iteration, with an open-addressing hash table beside it so
+ * that membership checks take constant time no matter how large the node's degree.
+ * Edge weights live in a parallel double array that is only allocated once some
+ * edge is given a weight other than the default of 1. Removing an id leaves a tombstone
+ * in its place so the hash table stays valid, and the set compacts itself once
+ * tombstones fill half of it.
+ */
+public class AdjacencySet {
+    // below this size a linear scan is as fast as hashing, so no table is kept
+    private static final int HASH_THRESHOLD = 8;
+    private static final int TOMBSTONE = -1; // ids are never negative, so this never matches one
+
+    int[] items;
+    double[] weights; // null while every weight is the default
+    int size; // positions used in items, including tombstones
+    int removed; // tombstones among the used positions
+    int[] table; // holds the position in items + 1 so that 0 can mean an empty slot
+
+    /**
+     * Constructor for an empty set
+     */
+    public AdjacencySet() {
+        this.items = new int[2];
+        this.weights = null;
+        this.size = 0;
+        this.removed = 0;
+        this.table = null;
+    }
+
+    /**
+     * Method to get the number of ids in the set
+     *
+     * @return size of the set
+     */
+    public int size() {
+        return this.size - this.removed;
+    }
+
+    /**
+     * Method to get the id at a position in insertion order
+     *
+     * @param index position of the id
+     * @return the id stored there, or a negative tombstone if it was removed
+     */
+    public int get(int index) {
+        return this.items[index];
+    }
+
+    /**
+     * Method to get the weight of the edge at a position in insertion order
+     *
+     * @param index position of the edge
+     * @return the weight stored there
+     */
+    public double weightAt(int index) {
+        return this.weights == null ? IGraph.DEFAULT_WEIGHT : this.weights[index];
+    }
+
+    /**
+     * Method to check whether an id is in the set
+     *
+     * @param id the id to look for
+     * @return true if the set contains id, otherwise false
+     *
+     * Runtime:
+     *      Expected O(1)
+     *      Probes the hash table, or scans at most HASH_THRESHOLD items when it is small
+     */
+    public boolean contains(int id) {
+        return this.indexOf(id) >= 0;
+    }
+
+    /**
+     * Method to find the position of an id in insertion order
+     *
+     * @param id the id to look for
+     * @return the position of id, or -1 if it is not in the set
+     */
+    public int indexOf(int id) {
+        if (this.table == null) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.items[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = this.table.length - 1;
+        for (int slot = hash(id) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.items[this.table[slot] - 1] == id) {
+                return this.table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to add an id to the end of the set if it is not already present
+     *
+     * @param id the id to add
+     * @return true if the id was added, false if it was already present
+     *
+     * Runtime:
+     *      Amortized expected O(1)
+     */
+    public boolean add(int id) {
+        if (this.contains(id)) {
+            return false;
+        }
+        this.append(id, IGraph.DEFAULT_WEIGHT);
+        return true;
+    }
+
+    /**
+     * Method to add an id with an edge weight, or to replace the weight if the id is already present
+     *
+     * @param id the id to add
+     * @param weight the weight of the edge to id
+     * @return true if the id was added, false if it was already present
+     */
+    public boolean put(int id, double weight) {
+        int index = this.indexOf(id);
+        if (index < 0) {
+            this.append(id, weight);
+            return true;
+        }
+        this.setWeight(index, weight);
+        return false;
+    }
+
+    /**
+     * Method to remove an id from the set, leaving a tombstone at its position
+     *
+     * @param id the id to remove
+     * @return true if the id was removed, false if it was not present
+     *
+     * Runtime:
+     *      Amortized expected O(1)
+     *      The set is compacted once tombstones fill half of it, which is paid for by the removals
+     */
+    public boolean remove(int id) {
+        int index = this.indexOf(id);
+        if (index < 0) {
+            return false;
+        }
+        this.items[index] = TOMBSTONE;
+        this.removed++;
+        if (this.removed * 2 > this.size) {
+            this.compact();
+        }
+        return true;
+    }
+
+    /**
+     * Method to squeeze out tombstones and trim the arrays to the ids left, keeping their order
+     *
+     * Runtime:
+     *      O(S) Where S is the number of used positions
+     */
+    public void compact() {
+        int live = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.items[i] != TOMBSTONE) {
+                this.items[live] = this.items[i];
+                if (this.weights != null) {
+                    this.weights[live] = this.weights[i];
+                }
+                live++;
+            }
+        }
+        this.items = Arrays.copyOf(this.items, Math.max(2, live));
+        if (this.weights != null) {
+            this.weights = Arrays.copyOf(this.weights, this.items.length);
+        }
+        this.size = live;
+        this.removed = 0;
+        this.table = null;
+        if (this.size > HASH_THRESHOLD) {
+            this.rebuildTable(this.size);
+        }
+    }
+
+    /**
+     * Method to make room for more ids up front, so that adding them later copies
+     * the arrays and rebuilds the hash table at most once. The arrays at least double when
+     * they grow, so many small batches stay amortized constant time per id
+     *
+     * @param extra number of ids about to be added
+     */
+    public void ensureCapacity(int extra) {
+        int needed = this.size + extra;
+        if (needed > this.items.length) {
+            this.items = Arrays.copyOf(this.items, Math.max(needed, this.items.length * 2));
+            if (this.weights != null) {
+                this.weights = Arrays.copyOf(this.weights, this.items.length);
+            }
+        }
+        if (needed > HASH_THRESHOLD && (this.table == null || needed * 2 > this.table.length)) {
+            this.rebuildTable(needed);
+        }
+    }
+
+    /**
+     * Method to call an action with every id in insertion order
+     *
+     * @param action called once per id
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.items[i] != TOMBSTONE) {
+                action.accept(this.items[i]);
+            }
+        }
+    }
+
+    /**
+     * Method to call an action with every id and its edge weight in insertion order
+     *
+     * @param action called once per id
+     */
+    public void forEachWeighted(WeightedEdgeConsumer action) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.items[i] != TOMBSTONE) {
+                action.accept(this.items[i], this.weightAt(i));
+            }
+        }
+    }
+
+    /**
+     * Helper method to store an id known not to be present at the end of the set
+     *
+     * @param id the id to store
+     * @param weight the weight of the edge to id
+     */
+    private void append(int id, double weight) {
+        if (this.size == this.items.length) {
+            this.items = Arrays.copyOf(this.items, this.items.length * 2);
+            if (this.weights != null) {
+                this.weights = Arrays.copyOf(this.weights, this.items.length);
+            }
+        }
+        this.items[this.size++] = id;
+        this.setWeight(this.size - 1, weight);
+        if (this.table != null && this.size * 2 <= this.table.length) {
+            this.insertIntoTable(this.size - 1);
+        } else if (this.size > HASH_THRESHOLD) {
+            this.rebuildTable(this.size);
+        }
+    }
+
+    /**
+     * Helper method to set the weight at a position, allocating the weight array on first use
+     *
+     * @param index position of the edge
+     * @param weight the new weight
+     */
+    private void setWeight(int index, double weight) {
+        if (this.weights == null) {
+            if (weight == IGraph.DEFAULT_WEIGHT) {
+                return;
+            }
+            this.weights = new double[this.items.length];
+            Arrays.fill(this.weights, IGraph.DEFAULT_WEIGHT);
+        }
+        this.weights[index] = weight;
+    }
+
+    /**
+     * Helper method to rebuild the hash table with room for a number of ids at a load of at most one half
+     *
+     * @param capacity number of ids the table must hold, at least the size of the set
+     */
+    private void rebuildTable(int capacity) {
+        this.table = new int[Integer.highestOneBit(capacity * 4 - 1)];
+        for (int i = 0; i < this.size; i++) {
+            this.insertIntoTable(i);
+        }
+    }
+
+    /**
+     * Helper method to place a position in the first free slot of its id's probe sequence
+     *
+     * @param index position in items of the id to place
+     */
+    private void insertIntoTable(int index) {
+        int mask = this.table.length - 1;
+        int slot = hash(this.items[index]) & mask;
+        while (this.table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = index + 1;
+    }
+
+    /**
+     * Helper method to spread the bits of an id so that sequential ids do not cluster
+     *
+     * @param id the id to hash
+     * @return the mixed hash
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,147 @@
+package sol;
+
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for two-coloring a conflict graph in a single breadth-first pass over int node ids.
+ * Conflicts are treated as symmetric, so both outgoing and incoming edges of a node are
+ * followed. Each node is colored once when it is discovered and each edge is looked at a
+ * constant number of times, so the whole pass is O(V + E). When two neighbors end up with
+ * the same color, their breadth-first tree paths back to a common ancestor close an odd
+ * cycle, which is reported as the reason no schedule exists.
+ */
+public class BipartiteColoring implements IntConsumer {
+    public static final byte UNCOLORED = 0;
+    public static final byte FIRST = 1;
+    public static final byte SECOND = 2;
+
+    IGraph graph;
+    byte[] color;
+    int[] parent;
+    int[] depth;
+    int[] queue;
+    int head;
+    int tail;
+    int current;
+    int conflictFrom = -1;
+    int conflictTo = -1;
+    AtomicBoolean stop; // when shared between passes, set once any of them fails
+
+    /**
+     * Constructor for a coloring pass that writes into the given arrays, all indexed by node id.
+     *     Several passes may share the arrays as long as they color disjoint components
+     *
+     * @param graph the graph to color
+     * @param color color of each node, UNCOLORED until it is reached
+     * @param parent the node each node was discovered from
+     * @param depth breadth-first depth of each node below the start of its component
+     * @param queueCapacity the most nodes this pass will color
+     */
+    BipartiteColoring(IGraph graph, byte[] color, int[] parent, int[] depth, int queueCapacity) {
+        this.graph = graph;
+        this.color = color;
+        this.parent = parent;
+        this.depth = depth;
+        this.queue = new int[queueCapacity];
+    }
+
+    /**
+     * Method to two-color every node of a graph
+     *
+     * @param graph the graph to color
+     * @return the color of each node id, either FIRST or SECOND
+     * @throws OddCycleException if no two-coloring exists, holding an odd cycle as proof
+     */
+    public static byte[] color(IGraph graph) throws OddCycleException {
+        int nodeCount = graph.nodeCount();
+        BipartiteColoring pass = new BipartiteColoring(graph, new byte[nodeCount], new int[nodeCount],
+                new int[nodeCount], nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            if (pass.color[node] == UNCOLORED) {
+                pass.colorComponent(node);
+            }
+        }
+        return pass.color;
+    }
+
+    /**
+     * Method to color every node connected to a start node, giving the start FIRST
+     *
+     * @param start id of an uncolored node
+     * @return the number of nodes colored, or -1 if the pass was stopped part way
+     * @throws OddCycleException if the component has an odd cycle
+     */
+    int colorComponent(int start) throws OddCycleException {
+        this.head = 0;
+        this.tail = 0;
+        this.color[start] = FIRST;
+        this.parent[start] = start;
+        this.depth[start] = 0;
+        this.queue[this.tail++] = start;
+        while (this.head < this.tail) {
+            if ((this.head & 0xFF) == 0 && this.stop != null && this.stop.get()) {
+                return -1;
+            }
+            this.current = this.queue[this.head++];
+            this.graph.forEachNeighbor(this.current, this);
+            this.graph.forEachPredecessor(this.current, this);
+            if (this.conflictFrom >= 0) {
+                throw new OddCycleException(this.oddCycle());
+            }
+        }
+        return this.tail;
+    }
+
+    /**
+     * Colors an undiscovered neighbor of the current node the opposite way,
+     * or records a conflict if a discovered one has the same color
+     *
+     * @param neighbor id of the neighbor
+     */
+    @Override
+    public void accept(int neighbor) {
+        byte neighborColor = this.color[neighbor];
+        if (neighborColor == UNCOLORED) {
+            this.color[neighbor] = (byte) (FIRST + SECOND - this.color[this.current]);
+            this.parent[neighbor] = this.current;
+            this.depth[neighbor] = this.depth[this.current] + 1;
+            this.queue[this.tail++] = neighbor;
+        } else if (neighborColor == this.color[this.current] && this.conflictFrom < 0) {
+            this.conflictFrom = this.current;
+            this.conflictTo = neighbor;
+        }
+    }
+
+    /**
+     * Helper method to build the odd cycle closed by the recorded conflict edge.
+     *     Both ends have the same color, so their depths have the same parity, and the
+     *     two tree paths up to their lowest common ancestor plus the edge have odd length
+     *
+     * @return labels from one end of the conflict up to the common ancestor and back down to the other end
+     */
+    private LinkedList<String> oddCycle() {
+        LinkedList<String> up = new LinkedList<>();
+        LinkedList<String> down = new LinkedList<>();
+        int a = this.conflictFrom;
+        int b = this.conflictTo;
+        while (this.depth[a] > this.depth[b]) {
+            up.addLast(this.graph.labelOf(a));
+            a = this.parent[a];
+        }
+        while (this.depth[b] > this.depth[a]) {
+            down.addFirst(this.graph.labelOf(b));
+            b = this.parent[b];
+        }
+        while (a != b) {
+            up.addLast(this.graph.labelOf(a));
+            down.addFirst(this.graph.labelOf(b));
+            a = this.parent[a];
+            b = this.parent[b];
+        }
+        up.addLast(this.graph.labelOf(a));
+        up.addAll(down);
+        return up;
+    }
+}
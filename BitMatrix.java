@@ -0,0 +1,261 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Class for a square matrix of booleans packed 64 to a long word.
+ * Rows and columns grow together as nodes are added, with the backing storage
+ * doubled whenever it runs out so that growth is amortized constant per node.
+ */
+public class BitMatrix {
+    private static final int INITIAL_CAPACITY = 64;
+
+    long[][] rows;
+    int size;
+    int wordsPerRow;
+
+    /**
+     * Constructor for an empty matrix
+     */
+    public BitMatrix() {
+        this.rows = new long[0][];
+        this.size = 0;
+        this.wordsPerRow = 0;
+    }
+
+    /**
+     * Method to get the number of rows (and columns) currently in the matrix
+     *
+     * @return the side length of the matrix
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to add one row and one column, both filled with false
+     *
+     * @return the index of the new row and column
+     *
+     * Runtime:
+     *      Amortized O(N / 64) Where N is the number of rows
+     *      Only allocates the new row unless the column capacity is exceeded, in which case
+     *      every row is copied into one twice as wide
+     */
+    public int grow() {
+        return this.grow(1);
+    }
+
+    /**
+     * Method to add a number of rows and columns, all filled with false
+     *
+     * @param count number of rows and columns to add
+     * @return the index of the first new row and column
+     *
+     * Runtime:
+     *      O((N + C)^2 / 64) at worst Where N is the number of rows and C the count, but the
+     *      existing rows are copied at most once however many are added
+     */
+    public int grow(int count) {
+        int needed = this.size + count;
+        if (needed > this.rows.length) {
+            int newCapacity = Math.max(INITIAL_CAPACITY, this.rows.length * 2);
+            while (newCapacity < needed) {
+                newCapacity *= 2;
+            }
+            this.rows = Arrays.copyOf(this.rows, newCapacity);
+            this.wordsPerRow = wordsFor(newCapacity);
+            for (int i = 0; i < this.size; i++) {
+                this.rows[i] = Arrays.copyOf(this.rows[i], this.wordsPerRow);
+            }
+        }
+        for (int i = this.size; i < needed; i++) {
+            this.rows[i] = new long[this.wordsPerRow];
+        }
+        int first = this.size;
+        this.size = needed;
+        return first;
+    }
+
+    /**
+     * Method to check a single cell of the matrix
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return true if the cell is set, otherwise false
+     */
+    public boolean get(int row, int col) {
+        return (this.rows[row][col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Method to set a single cell of the matrix
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return true if the cell was previously unset, otherwise false
+     */
+    public boolean set(int row, int col) {
+        long[] words = this.rows[row];
+        long mask = 1L << col;
+        if ((words[col >>> 6] & mask) != 0) {
+            return false;
+        }
+        words[col >>> 6] |= mask;
+        return true;
+    }
+
+    /**
+     * Method to clear a single cell of the matrix
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return true if the cell was previously set, otherwise false
+     */
+    public boolean clear(int row, int col) {
+        long[] words = this.rows[row];
+        long mask = 1L << col;
+        if ((words[col >>> 6] & mask) == 0) {
+            return false;
+        }
+        words[col >>> 6] &= ~mask;
+        return true;
+    }
+
+    /**
+     * Method to clear every cell of a row
+     *
+     * @param row the row to clear
+     */
+    public void clearRow(int row) {
+        Arrays.fill(this.rows[row], 0L);
+    }
+
+    /**
+     * Method to drop the last rows and columns, which must already be clear, narrowing
+     * the storage once it is four times larger than needed
+     *
+     * @param newSize the number of rows and columns to keep
+     *
+     * Runtime:
+     *      O(N * N / 64) Where N is the new size, only when the storage is narrowed
+     */
+    public void truncate(int newSize) {
+        Arrays.fill(this.rows, newSize, this.size, null);
+        this.size = newSize;
+        int newCapacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, newSize) * 2 - 1));
+        if (newCapacity * 4 <= this.rows.length) {
+            this.rows = Arrays.copyOf(this.rows, newCapacity);
+            this.wordsPerRow = wordsFor(newCapacity);
+            for (int i = 0; i < this.size; i++) {
+                this.rows[i] = Arrays.copyOf(this.rows[i], this.wordsPerRow);
+            }
+        }
+    }
+
+    /**
+     * Method to find the next set cell in a row at or after a given column
+     *
+     * @param row the row to search
+     * @param fromCol the first column to consider
+     * @return the column of the next set cell, or -1 if there is none
+     */
+    public int nextSetBit(int row, int fromCol) {
+        if (fromCol >= this.size) {
+            return -1;
+        }
+        long[] words = this.rows[row];
+        int wordIndex = fromCol >>> 6;
+        long word = words[wordIndex] & (-1L << fromCol);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex >= this.wordsPerRow) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Method to find the next set cell in a column at or after a given row
+     *
+     * @param col the column to search
+     * @param fromRow the first row to consider
+     * @return the row of the next set cell, or -1 if there is none
+     *
+     * Runtime:
+     *      O(N) Where N is the number of rows
+     *      One bit test per row, all in the same word of each row
+     */
+    public int nextSetRow(int col, int fromRow) {
+        int wordIndex = col >>> 6;
+        long mask = 1L << col;
+        for (int row = fromRow; row < this.size; row++) {
+            if ((this.rows[row][wordIndex] & mask) != 0) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to count the set cells in a row
+     *
+     * @param row the row to count
+     * @return the number of set cells in that row
+     */
+    public int rowCardinality(int row) {
+        int count = 0;
+        for (long word : this.rows[row]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether every cell in a row is set, ignoring one column
+     *
+     * @param row the row to check
+     * @param skipCol a column whose value does not matter
+     * @return true if every other cell in the row is set, otherwise false
+     *
+     * Runtime:
+     *      O(N / 64) Where N is the number of rows
+     *      Compares whole words against an all-ones mask instead of single cells
+     */
+    public boolean rowIsFullExcept(int row, int skipCol) {
+        long[] words = this.rows[row];
+        int fullWords = this.size >>> 6;
+        for (int i = 0; i < fullWords; i++) {
+            long word = words[i];
+            if (i == skipCol >>> 6) {
+                word |= 1L << skipCol;
+            }
+            if (word != -1L) {
+                return false;
+            }
+        }
+        int remaining = this.size & 63;
+        if (remaining == 0) {
+            return true;
+        }
+        long mask = (1L << remaining) - 1;
+        long word = words[fullWords];
+        if (fullWords == skipCol >>> 6) {
+            word |= 1L << skipCol;
+        }
+        return (word & mask) == mask;
+    }
+
+    /**
+     * Helper method to get the number of words needed to hold a number of bits
+     *
+     * @param bits number of bits
+     * @return number of longs required
+     */
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
@@ -0,0 +1,147 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Class for a split of a graph's nodes into components, stored as one component id per node id.
+ * Weak components ignore edge direction, so two nodes in different weak components have no
+ * route between them either way. Strong components are numbered in reverse topological order
+ * of the condensation, so every edge leads to a component with the same or a lower id, and no
+ * route can lead from a component to one with a higher id. Either way a route query between
+ * two nodes can sometimes be rejected with two array reads. Ids left by removed nodes belong
+ * to no component.
+ */
+public class Components {
+    int[] componentOf;
+    int[] sizes;
+    boolean strong;
+    long graphVersion;
+    int[] start; // built on first use, start of each component's members, with one extra trailing entry
+    int[] members;
+
+    /**
+     * Constructor for a split that has already been labeled
+     *
+     * @param componentOf the component of each node id, numbered from 0, or -1 for ids with no node
+     * @param count the number of components
+     * @param strong true for strong components in reverse topological order, false for weak components
+     * @param graphVersion modCount of the graph when it was split
+     */
+    Components(int[] componentOf, int count, boolean strong, long graphVersion) {
+        this.componentOf = componentOf;
+        this.sizes = new int[count];
+        for (int component : componentOf) {
+            if (component >= 0) {
+                this.sizes[component]++;
+            }
+        }
+        this.strong = strong;
+        this.graphVersion = graphVersion;
+    }
+
+    /**
+     * Method to get the number of components
+     *
+     * @return number of components
+     */
+    public int count() {
+        return this.sizes.length;
+    }
+
+    /**
+     * Method to get the component of a node
+     *
+     * @param id id of the node
+     * @return id of its component, or -1 if no node has that id
+     */
+    public int componentOf(int id) {
+        return this.componentOf[id];
+    }
+
+    /**
+     * Method to get the number of nodes in a component
+     *
+     * @param component id of the component
+     * @return number of nodes in it
+     */
+    public int sizeOf(int component) {
+        return this.sizes[component];
+    }
+
+    /**
+     * Method to check whether these are strong components
+     *
+     * @return true for strong components, false for weak components
+     */
+    public boolean isStrong() {
+        return this.strong;
+    }
+
+    /**
+     * Method to check whether the split still describes a graph, which it does as long
+     *     as the graph has not been changed since
+     *
+     * @param graph the graph that was split
+     * @return true if the graph is unchanged, otherwise false
+     */
+    public boolean isCurrent(IGraph graph) {
+        return graph.modCount() == this.graphVersion;
+    }
+
+    /**
+     * Method to check whether the components alone rule out any route from one node to another
+     *
+     * @param from id of the node the route would start from
+     * @param to id of the node the route would reach
+     * @return true if no route can exist, false if one may exist
+     */
+    public boolean separates(int from, int to) {
+        int fromComponent = this.componentOf[from];
+        int toComponent = this.componentOf[to];
+        return this.strong ? toComponent > fromComponent : toComponent != fromComponent;
+    }
+
+    /**
+     * Method to list node ids grouped by component. The members of component c are
+     *     members()[memberStart()[c]] up to but not including members()[memberStart()[c + 1]]
+     *
+     * @return node ids in order of component, each component's nodes in increasing id order
+     */
+    public int[] members() {
+        this.group();
+        return this.members;
+    }
+
+    /**
+     * Method to get where each component's nodes begin in members()
+     *
+     * @return the offset of each component, with one extra trailing entry for the number of nodes
+     */
+    public int[] memberStart() {
+        this.group();
+        return this.start;
+    }
+
+    /**
+     * Helper method to group node ids by component with a counting sort, once
+     */
+    private synchronized void group() {
+        if (this.members != null) {
+            return;
+        }
+        int count = this.sizes.length;
+        int[] start = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            start[c + 1] = start[c] + this.sizes[c];
+        }
+        int[] members = new int[start[count]];
+        int[] next = Arrays.copyOf(start, count);
+        for (int node = 0; node < this.componentOf.length; node++) {
+            if (this.componentOf[node] >= 0) {
+                members[next[this.componentOf[node]]++] = node;
+            }
+        }
+        this.start = start;
+        this.members = members;
+    }
+}
@@ -0,0 +1,724 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for a graph that many threads can add nodes and edges to while others read it, with no
+ * global lock. Labels are registered in a ConcurrentHashMap, so finding an existing node is a
+ * lock-free get, and new nodes are given dense ids and placed in a chunked directory. Each node
+ * keeps its outgoing and incoming ids in append-only rows: a writer takes only the lock of the
+ * one row it appends to, and publishes each append by bumping the row's volatile size after
+ * the id is stored. Readers load the size first and then never look past it, so they see a
+ * consistent prefix of the row without ever blocking.
+ * A node only becomes visible through nodeCount and idOf once every lower id is visible too,
+ * and an edge is only added once both its ends are visible, so any id a reader is handed is
+ * below nodeCount. Traversals that need one fixed view of a graph being written should run
+ * on freeze().
+ */
+public class ConcurrentGraph implements IGraph {
+    // each directory chunk holds 1 << CHUNK_BITS nodes
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    public String name;
+    ConcurrentHashMap<String, Node> allNodes;
+    volatile AtomicReferenceArray<AtomicReferenceArray<Node>> directory;
+    AtomicInteger nextId; // ids handed out, some possibly not yet visible
+    AtomicInteger published; // every id below this is in the directory and visible
+    AtomicLong modCount;
+    CopyOnWriteArrayList<GraphListener> listeners;
+
+    // ---------------------------------------------
+    // the Node class
+    static class Node {
+        final String descr; // a descriptive name for the node
+        final int id; // position of the node in the directory
+        final Row nextNodes = new Row(); // ids of the nodes that this node can get to
+        final Row prevNodes = new Row(); // ids of the nodes that can get to this node
+
+        Node(String descr, int id) {
+            this.descr = descr;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Helper class for the neighbor ids of one node, written under its own lock and read
+     *     without one. Like AdjacencySet it keeps ids in insertion order with an open-addressing
+     *     table of positions beside them, but every array is replaced rather than modified
+     *     when it grows, and the size is written last so readers never see a half-added id
+     */
+    static class Row {
+        // below this size a linear scan is as fast as hashing, so no table is kept
+        private static final int HASH_THRESHOLD = 8;
+
+        volatile int[] items = new int[2];
+        volatile double[] weights; // null while every weight is the default
+        volatile int[] table; // holds the position in items + 1 so that 0 can mean an empty slot
+        volatile int size;
+
+        /**
+         * Method to get the number of ids in the row
+         *
+         * @return size of the row
+         */
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * Method to find the position of an id, safe to call while another thread appends
+         *
+         * @param id the id to look for
+         * @return the position of id, or -1 if it is not in the row
+         */
+        int indexOf(int id) {
+            int size = this.size;
+            int[] items = this.items;
+            int[] table = this.table;
+            if (table == null) {
+                for (int i = 0; i < size; i++) {
+                    if (items[i] == id) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int mask = table.length - 1;
+            for (int slot = hash(id) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                int index = table[slot] - 1;
+                // positions past the size read above belong to appends still in progress
+                if (index < size && items[index] == id) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Method to add an id to the end of the row if it is not already present
+         *
+         * @param id the id to add
+         * @return true if the id was added, false if it was already present
+         */
+        synchronized boolean add(int id) {
+            if (this.indexOf(id) >= 0) {
+                return false;
+            }
+            this.append(id, IGraph.DEFAULT_WEIGHT);
+            return true;
+        }
+
+        /**
+         * Method to add an id with an edge weight, or to replace the weight if the id is already present
+         *
+         * @param id the id to add
+         * @param weight the weight of the edge to id
+         * @return true if the id was added, false if it was already present
+         */
+        synchronized boolean put(int id, double weight) {
+            int index = this.indexOf(id);
+            if (index < 0) {
+                this.append(id, weight);
+                return true;
+            }
+            this.setWeight(index, weight);
+            return false;
+        }
+
+        /**
+         * Method to call an action with every id added before the call started
+         *
+         * @param action called once per id
+         */
+        void forEach(IntConsumer action) {
+            int size = this.size;
+            int[] items = this.items;
+            for (int i = 0; i < size; i++) {
+                action.accept(items[i]);
+            }
+        }
+
+        /**
+         * Method to call an action with every id and its edge weight added before the call started
+         *
+         * @param action called once per id
+         */
+        void forEachWeighted(WeightedEdgeConsumer action) {
+            int size = this.size;
+            int[] items = this.items;
+            double[] weights = this.weights;
+            for (int i = 0; i < size; i++) {
+                action.accept(items[i], weights == null ? IGraph.DEFAULT_WEIGHT : weights[i]);
+            }
+        }
+
+        /**
+         * Helper method to store an id known not to be present at the end of the row.
+         *     Must hold the row's lock
+         *
+         * @param id the id to store
+         * @param weight the weight of the edge to id
+         */
+        private void append(int id, double weight) {
+            int size = this.size;
+            int[] items = this.items;
+            if (size == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+                if (this.weights != null) {
+                    this.weights = Arrays.copyOf(this.weights, items.length);
+                }
+            }
+            items[size] = id;
+            this.items = items;
+            if (weight != IGraph.DEFAULT_WEIGHT || this.weights != null) {
+                this.setWeight(size, weight);
+            }
+            int[] table = this.table;
+            if (table != null && (size + 1) * 2 <= table.length) {
+                insertIntoTable(table, items, size);
+            } else if (size + 1 > HASH_THRESHOLD) {
+                table = new int[Integer.highestOneBit((size + 1) * 4 - 1)];
+                for (int i = 0; i <= size; i++) {
+                    insertIntoTable(table, items, i);
+                }
+                this.table = table;
+            }
+            this.size = size + 1;
+        }
+
+        /**
+         * Helper method to set the weight at a position, allocating the weight array on first use.
+         *     Must hold the row's lock
+         *
+         * @param index position of the edge
+         * @param weight the new weight
+         */
+        private void setWeight(int index, double weight) {
+            double[] weights = this.weights;
+            if (weights == null) {
+                if (weight == IGraph.DEFAULT_WEIGHT) {
+                    return;
+                }
+                weights = new double[this.items.length];
+                Arrays.fill(weights, IGraph.DEFAULT_WEIGHT);
+            }
+            weights[index] = weight;
+            this.weights = weights;
+        }
+
+        /**
+         * Helper method to place a position in the first free slot of its id's probe sequence
+         *
+         * @param table the table to place it in
+         * @param items the ids the table indexes
+         * @param index position in items of the id to place
+         */
+        private static void insertIntoTable(int[] table, int[] items, int index) {
+            int mask = table.length - 1;
+            int slot = hash(items[index]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = index + 1;
+        }
+
+        /**
+         * Helper method to spread the bits of an id so that sequential ids do not cluster
+         *
+         * @param id the id to hash
+         * @return the mixed hash
+         */
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Constructor for concurrent graph
+     *
+     * @param name name of graph
+     */
+    public ConcurrentGraph(String name) {
+        this.name = name;
+        this.allNodes = new ConcurrentHashMap<>();
+        this.directory = new AtomicReferenceArray<>(16);
+        this.nextId = new AtomicInteger();
+        this.published = new AtomicInteger();
+        this.modCount = new AtomicLong();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Method to add a new node with the given description. If several threads add
+     *     the same description at once, exactly one of them succeeds
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already
+     * associated with a node in the graph
+     */
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        if (this.allNodes.containsKey(descr) || this.getOrAddNode(descr, true) == null) {
+            throw new NodeNameExistsException(descr);
+        }
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given
+     * descriptions, creating the nodes if needed. If the edge already exists,
+     * no changes are made
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     *
+     * Runtime:
+     *      Amortized expected O(1)
+     *      Only the two rows being appended to are locked, one after the other
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        Node node1 = this.getOrAddNode(descr1, false);
+        Node node2 = this.getOrAddNode(descr2, false);
+        if (node1.nextNodes.add(node2.id)) {
+            node2.prevNodes.add(node1.id);
+            this.edgeAdded(node1, node2);
+        }
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given
+     * descriptions, as two directed edges, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.addDirectedEdge(descr1, descr2);
+        this.addDirectedEdge(descr2, descr1);
+    }
+
+    /**
+     * Method to add a directed edge with a travel cost between the nodes associated
+     * with the given descriptions, creating the nodes if needed.
+     * If the edge already exists its cost is replaced
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edge
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        IGraph.checkWeight(weight);
+        Node node1 = this.getOrAddNode(descr1, false);
+        Node node2 = this.getOrAddNode(descr2, false);
+        if (node1.nextNodes.put(node2.id, weight)) {
+            node2.prevNodes.add(node1.id);
+            this.edgeAdded(node1, node2);
+        } else {
+            this.modCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Method to add an undirected edge with the same travel cost both ways between
+     * the nodes associated with the given descriptions, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edges
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    /**
+     * Method to add every label that does not already name a node and get the id of each.
+     * Labels added by other writers at the same time get the id those writers created
+     *
+     * @param labels the descriptions of the nodes
+     * @return the id of each label, in the iteration order of labels
+     */
+    @Override
+    public int[] addNodes(Collection<String> labels) {
+        int[] ids = new int[labels.size()];
+        int i = 0;
+        for (String label : labels) {
+            ids[i++] = this.getOrAddNode(label, false).id;
+        }
+        return ids;
+    }
+
+    /**
+     * Method to add directed edges between existing nodes by id, skipping edges already present.
+     * Edges are added one at a time, so readers may see part of the batch
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @throws IllegalArgumentException if the arrays differ in length or an id is not a node
+     */
+    @Override
+    public void addEdges(int[] from, int[] to) {
+        EdgeBatch.check(from, to, null, this);
+        for (int i = 0; i < from.length; i++) {
+            Node node1 = this.nodeAt(from[i]);
+            Node node2 = this.nodeAt(to[i]);
+            if (node1.nextNodes.add(node2.id)) {
+                node2.prevNodes.add(node1.id);
+                this.edgeAdded(node1, node2);
+            }
+        }
+    }
+
+    /**
+     * Method to add directed edges with travel costs between existing nodes by id, replacing the
+     * cost of edges already present. Edges are added one at a time, so readers may see part of the batch
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @param weights the non-negative cost of each edge
+     * @throws IllegalArgumentException if the arrays differ in length, an id is not a node or
+     *      a weight is negative, infinite or NaN
+     */
+    @Override
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        EdgeBatch.check(from, to, weights, this);
+        for (int i = 0; i < from.length; i++) {
+            Node node1 = this.nodeAt(from[i]);
+            Node node2 = this.nodeAt(to[i]);
+            if (node1.nextNodes.put(node2.id, weights[i])) {
+                node2.prevNodes.add(node1.id);
+                this.edgeAdded(node1, node2);
+            } else {
+                this.modCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     *
+     * Runtime:
+     *      O(N) Where N is the number of Nodes
+     */
+    @Override
+    public int countSelfEdges() {
+        int count = 0;
+        int nodeCount = this.nodeCount();
+        for (int id = 0; id < nodeCount; id++) {
+            if (this.nodeAt(id).nextNodes.indexOf(id) >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     *
+     * Runtime:
+     *      Expected O(1)
+     *      Rows hold no duplicates, so the row size less any self edge is the number of other nodes reached
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        Node node = this.allNodes.get(fromNodeLabel);
+        int nodeCount = this.nodeCount();
+        int others = node.nextNodes.size();
+        if (node.nextNodes.indexOf(node.id) >= 0) {
+            others--;
+        }
+        return others == nodeCount - 1;
+    }
+
+    /**
+     * Method to return a list of all neighboring nodes as strings to a node, without blocking
+     *
+     * @param fromNode node to check for outgoing connections from
+     * @return a list of strings corresponding to the neighbors of fromNode
+     */
+    @Override
+    public LinkedList<String> getNeighbors(String fromNode) {
+        LinkedList<String> neighbors = new LinkedList<>();
+        this.allNodes.get(fromNode).nextNodes.forEach(id -> neighbors.add(this.labelOf(id)));
+        return neighbors;
+    }
+
+    /**
+     * Method to return the name strings of all visible nodes in the graph, without blocking
+     *
+     * @return a hashset of all node name strings
+     */
+    @Override
+    public HashSet<String> getAllNodes() {
+        int nodeCount = this.nodeCount();
+        HashSet<String> allNodesSet = new HashSet<>(nodeCount * 2);
+        for (int id = 0; id < nodeCount; id++) {
+            allNodesSet.add(this.labelOf(id));
+        }
+        return allNodesSet;
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      Expected O(1)
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        Node node1 = this.allNodes.get(descr1);
+        Node node2 = this.allNodes.get(descr2);
+        return node1 != null && node2 != null && node1.nextNodes.indexOf(node2.id) >= 0;
+    }
+
+    /**
+     * Method to get the number of visible nodes in the graph
+     *
+     * @return number of nodes, which is also one more than the largest visible node id
+     */
+    @Override
+    public int nodeCount() {
+        return this.published.get();
+    }
+
+    /**
+     * Method to get the id of the node with a name
+     *
+     * @param label name of the node
+     * @return the id of the node, or -1 if there is no such node or it is not visible yet
+     */
+    @Override
+    public int idOf(String label) {
+        Node node = this.allNodes.get(label);
+        return node == null || node.id >= this.published.get() ? -1 : node.id;
+    }
+
+    /**
+     * Method to get the name of the node with an id
+     *
+     * @param id id of the node
+     * @return the name of the node
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.nodeAt(id).descr;
+    }
+
+    /**
+     * Method to visit the ids of all outgoing connections from a node, without blocking
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.nodeAt(id).nextNodes.forEach(action);
+    }
+
+    /**
+     * Method to visit the ids and edge weights of all outgoing connections from a node, without blocking
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        this.nodeAt(id).nextNodes.forEachWeighted(action);
+    }
+
+    /**
+     * Method to visit the ids of all incoming connections to a node, without blocking
+     *
+     * @param id id of node to check for incoming connections to
+     * @param action called with the id of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        this.nodeAt(id).prevNodes.forEach(action);
+    }
+
+    /**
+     * Method to get the number of modifications made to the graph so far
+     *
+     * @return a count incremented by every node added, edge added and weight set
+     */
+    @Override
+    public long modCount() {
+        return this.modCount.get();
+    }
+
+    /**
+     * Method to register a listener for added nodes and edges. Listeners are called on
+     *     whichever thread made the change, possibly several at once
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Method to stop notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Helper method to get the node for a label, registering it if it is new. The node is
+     *     only returned once it and every lower id are visible to readers
+     *
+     * @param descr the label of the node
+     * @param mustCreate true to return null instead of a node another call registered
+     * @return the node, or null if mustCreate is set and the node already existed
+     */
+    private Node getOrAddNode(String descr, boolean mustCreate) {
+        Node node = this.allNodes.get(descr);
+        boolean created = false;
+        if (node == null) {
+            Node[] registered = new Node[1];
+            node = this.allNodes.computeIfAbsent(descr, key -> registered[0] = this.register(key));
+            created = registered[0] != null;
+        }
+        if (node.id >= this.published.get()) {
+            this.awaitPublished(node.id);
+        }
+        if (created) {
+            this.modCount.incrementAndGet();
+            for (GraphListener listener : this.listeners) {
+                listener.nodeAdded(node.id);
+            }
+        } else if (mustCreate) {
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Helper method to give a new label the next id and place it in the directory.
+     *     Called at most once per label, from inside computeIfAbsent
+     *
+     * @param descr the label of the new node
+     * @return the new node
+     */
+    private Node register(String descr) {
+        Node node = new Node(descr, this.nextId.getAndIncrement());
+        int chunk = node.id >>> CHUNK_BITS;
+        AtomicReferenceArray<AtomicReferenceArray<Node>> directory = this.directory;
+        if (chunk >= directory.length() || directory.get(chunk) == null) {
+            directory = this.growDirectory(chunk);
+        }
+        directory.get(chunk).set(node.id & CHUNK_MASK, node);
+        return node;
+    }
+
+    /**
+     * Helper method to make sure the directory has a chunk at some index
+     *
+     * @param chunk index of the chunk needed
+     * @return the directory holding that chunk
+     */
+    private synchronized AtomicReferenceArray<AtomicReferenceArray<Node>> growDirectory(int chunk) {
+        AtomicReferenceArray<AtomicReferenceArray<Node>> directory = this.directory;
+        if (chunk >= directory.length()) {
+            AtomicReferenceArray<AtomicReferenceArray<Node>> larger =
+                    new AtomicReferenceArray<>(Math.max(chunk + 1, directory.length() * 2));
+            for (int i = 0; i < directory.length(); i++) {
+                larger.set(i, directory.get(i));
+            }
+            directory = larger;
+        }
+        if (directory.get(chunk) == null) {
+            directory.set(chunk, new AtomicReferenceArray<>(1 << CHUNK_BITS));
+        }
+        this.directory = directory;
+        return directory;
+    }
+
+    /**
+     * Helper method to wait until an id is visible, moving the visible count past every
+     *     id whose node is already in the directory. Any thread may move it, so a node is
+     *     never held back by more than the registrations of lower ids still in flight
+     *
+     * @param id the id that must become visible
+     */
+    private void awaitPublished(int id) {
+        while (true) {
+            int count = this.published.get();
+            if (count > id) {
+                return;
+            }
+            if (this.slotFilled(count)) {
+                this.published.compareAndSet(count, count + 1);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Helper method to check whether the directory holds a node for an id yet
+     *
+     * @param id the id to check
+     * @return true if the node has been placed, otherwise false
+     */
+    private boolean slotFilled(int id) {
+        AtomicReferenceArray<AtomicReferenceArray<Node>> directory = this.directory;
+        int chunk = id >>> CHUNK_BITS;
+        return chunk < directory.length() && directory.get(chunk) != null
+                && directory.get(chunk).get(id & CHUNK_MASK) != null;
+    }
+
+    /**
+     * Helper method to get the node with a visible id
+     *
+     * @param id id of the node
+     * @return the node
+     */
+    private Node nodeAt(int id) {
+        return this.directory.get(id >>> CHUNK_BITS).get(id & CHUNK_MASK);
+    }
+
+    /**
+     * Helper method to record that a new edge was added and tell the listeners
+     *
+     * @param from source node of the edge
+     * @param to target node of the edge
+     */
+    private void edgeAdded(Node from, Node to) {
+        this.modCount.incrementAndGet();
+        for (GraphListener listener : this.listeners) {
+            listener.edgeAdded(from.id, to.id);
+        }
+    }
+}
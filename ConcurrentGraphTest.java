@@ -0,0 +1,220 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import sol.ConcurrentGraph;
+import sol.CsrGraph;
+import sol.IGraph;
+import sol.Scheduler;
+import sol.VersionedGraph;
+import src.NoScheduleException;
+import src.NodeNameExistsException;
+
+public class ConcurrentGraphTest {
+    private static final int THREADS = 8;
+
+    // Runs every task on its own thread, releasing them together so their calls overlap,
+    //     and rethrows the first failure once all have finished
+    private void runTogether(ArrayList<Runnable> tasks) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (Runnable task : tasks) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    @Test
+    public void testNoLostEdgesUnderConcurrentAdds() throws InterruptedException {
+        for (int round = 0; round < 5; round++) {
+            ConcurrentGraph graph = new ConcurrentGraph("");
+            ArrayList<Runnable> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                // every thread writes into the same few hundred nodes, so rows are appended to concurrently
+                writers.add(() -> {
+                    for (int i = 0; i < 4000; i++) {
+                        int from = (i * 7 + thread) % 300;
+                        int to = (i * 13 + thread * 31) % 300;
+                        graph.addDirectedEdge(Integer.toString(from), Integer.toString(to));
+                    }
+                });
+            }
+            runTogether(writers);
+
+            HashSet<Long> expected = new HashSet<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                for (int i = 0; i < 4000; i++) {
+                    expected.add((long) ((i * 7 + thread) % 300) * 1000 + (i * 13 + thread * 31) % 300);
+                }
+            }
+            Assert.assertEquals(300, graph.nodeCount());
+            int forward = 0;
+            int backward = 0;
+            for (int id = 0; id < graph.nodeCount(); id++) {
+                Assert.assertEquals(id, graph.idOf(graph.labelOf(id)));
+                int[] counts = new int[1];
+                graph.forEachNeighbor(id, neighbor -> counts[0]++);
+                forward += counts[0];
+                counts[0] = 0;
+                graph.forEachPredecessor(id, predecessor -> counts[0]++);
+                backward += counts[0];
+            }
+            Assert.assertEquals(expected.size(), forward);
+            Assert.assertEquals(expected.size(), backward);
+            for (long edge : expected) {
+                Assert.assertTrue(graph.hasEdge(Long.toString(edge / 1000), Long.toString(edge % 1000)));
+            }
+            Assert.assertEquals(300 + expected.size(), graph.modCount());
+        }
+    }
+
+    @Test
+    public void testConcurrentAddNodeHasOneWinner() throws InterruptedException {
+        ConcurrentGraph graph = new ConcurrentGraph("");
+        AtomicInteger added = new AtomicInteger();
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        graph.addNode(Integer.toString(i));
+                        added.incrementAndGet();
+                    } catch (NodeNameExistsException e) {
+                        // another thread got there first
+                    }
+                }
+            });
+        }
+        runTogether(tasks);
+        Assert.assertEquals(2000, added.get());
+        Assert.assertEquals(2000, graph.nodeCount());
+        Assert.assertEquals(2000, graph.getAllNodes().size());
+    }
+
+    @Test
+    public void testReadersSeeConsistentPrefix() throws InterruptedException {
+        ConcurrentGraph graph = new ConcurrentGraph("");
+        AtomicInteger writersLeft = new AtomicInteger(THREADS / 2);
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    graph.addUndirectedEdge(thread + "-" + i, Integer.toString(i % 50), i % 3 + 1.0);
+                }
+                writersLeft.decrementAndGet();
+            });
+        }
+        for (int t = 0; t < THREADS / 2; t++) {
+            tasks.add(() -> {
+                while (writersLeft.get() > 0) {
+                    int nodeCount = graph.nodeCount();
+                    for (int id = 0; id < nodeCount; id += 97) {
+                        int from = id;
+                        graph.forEachWeightedNeighbor(id, (neighbor, weight) -> {
+                            Assert.assertTrue(graph.labelOf(neighbor) != null);
+                            Assert.assertTrue(weight >= 1.0 && weight <= 3.0);
+                        });
+                        Assert.assertEquals(from, graph.idOf(graph.labelOf(from)));
+                    }
+                    if (graph.idOf("7") >= 0) {
+                        for (String label : graph.getNeighbors("7")) {
+                            Assert.assertTrue(graph.idOf(label) >= 0);
+                        }
+                    }
+                    Assert.assertTrue(graph.getAllNodes().size() >= nodeCount);
+                    CsrGraph snapshot = graph.freeze();
+                    for (int id = 0; id < snapshot.nodeCount(); id += 101) {
+                        snapshot.forEachNeighbor(id, neighbor -> Assert.assertTrue(neighbor < snapshot.nodeCount()));
+                    }
+                }
+            });
+        }
+        runTogether(tasks);
+        Assert.assertEquals(THREADS / 2 * 20000 + 50, graph.nodeCount());
+        Assert.assertEquals(THREADS / 2 * 400, graph.getNeighbors("7").size());
+    }
+
+    @Test
+    public void testSnapshotReadersNeverSeePartialCommits() throws InterruptedException {
+        VersionedGraph graph = new VersionedGraph("");
+        AtomicInteger writersLeft = new AtomicInteger(1);
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            // every commit adds one whole four-cycle, which is eight directed edges
+            for (int batch = 0; batch < 400; batch++) {
+                for (int i = 0; i < 4; i++) {
+                    graph.addUndirectedEdge(batch + "-" + i, batch + "-" + (i + 1) % 4);
+                }
+                graph.commit();
+            }
+            writersLeft.decrementAndGet();
+        });
+        for (int t = 0; t < THREADS - 1; t++) {
+            tasks.add(() -> {
+                while (writersLeft.get() > 0) {
+                    VersionedGraph.Snapshot snapshot = graph.snapshot();
+                    int[] edges = new int[1];
+                    for (int id = 0; id < snapshot.nodeCount(); id++) {
+                        snapshot.forEachNeighbor(id, neighbor -> edges[0]++);
+                    }
+                    Assert.assertEquals(0, edges[0] % 8);
+                    Assert.assertEquals(edges[0] / 2, snapshot.nodeCount());
+                    try {
+                        Assert.assertTrue(Scheduler.checkValidity(snapshot, Scheduler.findSchedule(snapshot)));
+                    } catch (NoScheduleException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+        }
+        runTogether(tasks);
+        Assert.assertEquals(1600, graph.snapshot().nodeCount());
+    }
+
+    @Test
+    public void testMatchesSequentialGraphs() throws NodeNameExistsException {
+        IGraph graph = new ConcurrentGraph("");
+        graph.addNode("a");
+        Assert.assertThrows(NodeNameExistsException.class, () -> graph.addNode("a"));
+        graph.addDirectedEdge("a", "b");
+        graph.addDirectedEdge("a", "a");
+        graph.addDirectedEdge("a", "c", 2.5);
+        Assert.assertTrue(graph.reachesAllOthers("a"));
+        Assert.assertFalse(graph.reachesAllOthers("b"));
+        Assert.assertEquals(1, graph.countSelfEdges());
+        Assert.assertEquals(3, graph.getNeighbors("a").size());
+        Assert.assertEquals(-1, graph.idOf("missing"));
+        for (int i = 0; i < 100; i++) {
+            graph.addDirectedEdge("b", Integer.toString(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(graph.hasEdge("b", Integer.toString(i)));
+        }
+        Assert.assertFalse(graph.hasEdge("b", "a"));
+    }
+}
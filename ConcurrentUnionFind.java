@@ -0,0 +1,86 @@
+package sol;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Class for a lock-free union-find over int ids that many threads can union into at once.
+ * Roots are always linked beneath the smaller id with compareAndSet, so concurrent unions
+ * can never form a cycle, and finds halve their path as they go.
+ */
+public class ConcurrentUnionFind {
+    AtomicIntegerArray parent;
+
+    /**
+     * Constructor for a union-find where every id starts in its own set
+     *
+     * @param size number of ids
+     */
+    public ConcurrentUnionFind(int size) {
+        this.parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            this.parent.set(i, i);
+        }
+    }
+
+    /**
+     * Method to find the representative of the set containing an id
+     *
+     * @param id the id to look up
+     * @return the root id of its set
+     */
+    public int find(int id) {
+        while (true) {
+            int up = this.parent.get(id);
+            if (up == id) {
+                return id;
+            }
+            int grandparent = this.parent.get(up);
+            if (grandparent != up) {
+                this.parent.compareAndSet(id, up, grandparent);
+            }
+            id = grandparent;
+        }
+    }
+
+    /**
+     * Method to merge the sets containing two ids
+     *
+     * @param a an id in the first set
+     * @param b an id in the second set
+     */
+    public void union(int a, int b) {
+        while (true) {
+            int rootA = this.find(a);
+            int rootB = this.find(b);
+            if (rootA == rootB) {
+                return;
+            }
+            int low = Math.min(rootA, rootB);
+            int high = Math.max(rootA, rootB);
+            if (this.parent.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method to check whether two ids are in the same set
+     *
+     * @param a the first id
+     * @param b the second id
+     * @return true if they share a root, otherwise false
+     */
+    public boolean connected(int a, int b) {
+        while (true) {
+            int rootA = this.find(a);
+            int rootB = this.find(b);
+            if (rootA == rootB) {
+                return true;
+            }
+            // rootA may have been linked under another root since it was found
+            if (this.parent.get(rootA) == rootA) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for a read-only snapshot of a graph in compressed sparse row form.
+ * The neighbors of node i are targets[offsets[i]] up to targets[offsets[i + 1]],
+ * so traversals walk contiguous int arrays instead of chasing node objects.
+ */
+public class CsrGraph extends ReadOnlyGraph {
+    String[] labels;
+    HashMap<String, Integer> labelToIndex;
+    int[] offsets;
+    int[] targets;
+    double[] weights; // parallel to targets, or null if every edge has the default weight
+    int[] reverseOffsets;
+    int[] reverseTargets;
+
+    /**
+     * Constructor for a snapshot from already built arrays
+     *
+     * @param labels the label of each node index
+     * @param labelToIndex map from label back to node index
+     * @param offsets start of each node's neighbors in targets, with one extra trailing entry
+     * @param targets the neighbor indices of every node laid end to end
+     * @param weights the weight of each entry of targets, or null if all are the default
+     */
+    CsrGraph(String[] labels, HashMap<String, Integer> labelToIndex, int[] offsets, int[] targets,
+             double[] weights) {
+        this.labels = labels;
+        this.labelToIndex = labelToIndex;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.buildReverse();
+    }
+
+    /**
+     * Helper method to build the transposed arrays used for predecessor lookups.
+     * Predecessors are counted first and then placed, so the whole pass is O(N + E)
+     */
+    private void buildReverse() {
+        int nodeCount = this.labels.length;
+        this.reverseOffsets = new int[nodeCount + 1];
+        for (int target : this.targets) {
+            this.reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            this.reverseOffsets[i + 1] += this.reverseOffsets[i];
+        }
+        this.reverseTargets = new int[this.targets.length];
+        int[] next = Arrays.copyOf(this.reverseOffsets, nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            for (int e = this.offsets[i]; e < this.offsets[i + 1]; e++) {
+                this.reverseTargets[next[this.targets[e]]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Method to build a snapshot of the current state of any graph.
+     * Later changes to the source graph are not reflected in the snapshot, and
+     * edges to nodes added while the snapshot is being taken are left out
+     *
+     * @param source the graph to copy
+     * @return a read-only copy of source
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of nodes and E the number of edges
+     *      Each node is labelled once and each of its neighbor lists is copied once
+     */
+    public static CsrGraph of(IGraph source) {
+        if (source instanceof CsrGraph) {
+            return (CsrGraph) source;
+        }
+        int nodeCount = source.nodeCount();
+        String[] labels = new String[nodeCount];
+        HashMap<String, Integer> labelToIndex = new HashMap<>(nodeCount * 2);
+        for (int i = 0; i < nodeCount; i++) {
+            labels[i] = source.labelOf(i);
+            if (labels[i] != null) {
+                labelToIndex.put(labels[i], i);
+            }
+        }
+        int[] offsets = new int[nodeCount + 1];
+        EdgeCollector edges = new EdgeCollector(Math.max(16, nodeCount), nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i] = edges.targets.size();
+            source.forEachWeightedNeighbor(i, edges);
+        }
+        offsets[nodeCount] = edges.targets.size();
+        return new CsrGraph(labels, labelToIndex, offsets, edges.targets.toArray(), edges.weightArray());
+    }
+
+    /**
+     * Helper class that gathers edges into growable target and weight arrays,
+     * dropping the weights at the end if none of them differ from the default
+     */
+    private static class EdgeCollector implements WeightedEdgeConsumer {
+        IntList targets;
+        double[] weights;
+        boolean weighted;
+        int nodeCount;
+
+        /**
+         * Constructor for an empty collector
+         *
+         * @param initialCapacity number of edges that fit before the arrays grow
+         * @param nodeCount number of nodes in the snapshot, edges to any other ids are dropped
+         */
+        EdgeCollector(int initialCapacity, int nodeCount) {
+            this.targets = new IntList(initialCapacity);
+            this.weights = new double[initialCapacity];
+            this.nodeCount = nodeCount;
+        }
+
+        /**
+         * Appends one edge, unless it leads to a node outside the snapshot
+         *
+         * @param target id of the node the edge leads to
+         * @param weight cost of the edge
+         */
+        @Override
+        public void accept(int target, double weight) {
+            if (target >= this.nodeCount) {
+                return;
+            }
+            if (this.targets.size() == this.weights.length) {
+                this.weights = Arrays.copyOf(this.weights, this.weights.length * 2);
+            }
+            this.weights[this.targets.size()] = weight;
+            this.targets.add(target);
+            this.weighted |= weight != IGraph.DEFAULT_WEIGHT;
+        }
+
+        /**
+         * Method to get the collected weights
+         *
+         * @return an exactly sized weight array, or null if every weight was the default
+         */
+        double[] weightArray() {
+            return this.weighted ? Arrays.copyOf(this.weights, this.targets.size()) : null;
+        }
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of nodes and E the number of edges
+     *      Every neighbor range is scanned once
+     */
+    @Override
+    public int countSelfEdges() {
+        int count = 0;
+        for (int i = 0; i < this.labels.length; i++) {
+            for (int e = this.offsets[i]; e < this.offsets[i + 1]; e++) {
+                if (this.targets[e] == i) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     *
+     * Runtime:
+     *      O(M) Where M is the number of neighbors of the node
+     *      Neighbor ranges hold no duplicates, so counting the non-self neighbors is enough
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int index = this.labelToIndex.get(fromNodeLabel);
+        int others = 0;
+        for (int e = this.offsets[index]; e < this.offsets[index + 1]; e++) {
+            if (this.targets[e] != index) {
+                others++;
+            }
+        }
+        return others == this.labelToIndex.size() - 1;
+    }
+
+    /**
+     * Method to return a list of all neighboring nodes as strings to a node
+     *
+     * @param fromNode node to check for outgoing connections from
+     * @return a list of strings corresponding to the neighbors of fromNode
+     */
+    @Override
+    public LinkedList<String> getNeighbors(String fromNode) {
+        LinkedList<String> neighbors = new LinkedList<>();
+        this.forEachNeighbor(this.labelToIndex.get(fromNode), id -> neighbors.add(this.labels[id]));
+        return neighbors;
+    }
+
+    /**
+     * Method to return the name strings of all nodes in the graph
+     *
+     * @return a hashset of all node name strings
+     */
+    @Override
+    public HashSet<String> getAllNodes() {
+        return new HashSet<>(this.labelToIndex.keySet());
+    }
+
+    /**
+     * Method to get the number of node indices in the graph
+     *
+     * @return number of indices, including those of nodes removed from the source graph
+     */
+    @Override
+    public int nodeCount() {
+        return this.labels.length;
+    }
+
+    /**
+     * Method to get the index of the node with a name
+     *
+     * @param label name of the node
+     * @return the index of the node, or -1 if there is no such node
+     */
+    @Override
+    public int idOf(String label) {
+        Integer index = this.labelToIndex.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Method to get the name of the node at an index
+     *
+     * @param id index of the node
+     * @return the name of the node, or null if it had been removed from the source graph
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.labels[id];
+    }
+
+    /**
+     * Method to visit the indices of all outgoing connections from a node
+     *
+     * @param id index of node to check for outgoing connections from
+     * @param action called with the index of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        for (int e = this.offsets[id]; e < this.offsets[id + 1]; e++) {
+            action.accept(this.targets[e]);
+        }
+    }
+
+    /**
+     * Method to visit the indices and edge weights of all outgoing connections from a node
+     *
+     * @param id index of node to check for outgoing connections from
+     * @param action called with the index of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        for (int e = this.offsets[id]; e < this.offsets[id + 1]; e++) {
+            action.accept(this.targets[e], this.weights == null ? IGraph.DEFAULT_WEIGHT : this.weights[e]);
+        }
+    }
+
+    /**
+     * Method to visit the indices of all incoming connections to a node
+     *
+     * @param id index of node to check for incoming connections to
+     * @param action called with the index of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        for (int e = this.reverseOffsets[id]; e < this.reverseOffsets[id + 1]; e++) {
+            action.accept(this.reverseTargets[e]);
+        }
+    }
+
+    /**
+     * Snapshots never change
+     *
+     * @return always 0
+     */
+    @Override
+    public long modCount() {
+        return 0;
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      O(M) Where M is the number of neighbors of descr1
+     *      Scans the contiguous neighbor range of the source node
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        int index1 = this.idOf(descr1);
+        int index2 = this.idOf(descr2);
+        if (index1 < 0 || index2 < 0) {
+            return false;
+        }
+        for (int e = this.offsets[index1]; e < this.offsets[index1 + 1]; e++) {
+            if (this.targets[e] == index2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A snapshot is already frozen
+     *
+     * @return this graph
+     */
+    @Override
+    public CsrGraph freeze() {
+        return this;
+    }
+}
@@ -3,15 +3,21 @@ package sol;
 import src.NodeNameExistsException;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
- * Class for modeling a graph based on an array of booleans representing connections
+ * Class for modeling a graph based on a matrix of bits representing connections. The index
+ * of a removed node keeps a cleared row and column and no label until a new node reuses it.
  */
 public class EdgeArrayGraph implements IGraph {
     String name;
-    ArrayList<ArrayList<Boolean>> graph;
+    BitMatrix graph;
+    EdgeWeightMap weights; // only edges given a weight are stored, the rest read as the default
+    long modCount;
+    ArrayList<GraphListener> listeners;
     HashMap<String, Integer> stringToIndex;
-    HashMap<Integer, String> indexToString;
+    ArrayList<String> indexToString; // null at the indices of removed nodes
+    IntList freeIndices; // indices of removed nodes, reused before the matrix grows
 
     /**
      * Constructor for array based graph
@@ -20,9 +26,12 @@ public class EdgeArrayGraph implements IGraph {
      */
     public EdgeArrayGraph(String name) {
         this.name = name;
-        this.graph = new ArrayList<>();
+        this.graph = new BitMatrix();
+        this.weights = new EdgeWeightMap();
+        this.listeners = new ArrayList<>();
         this.stringToIndex = new HashMap<String, Integer>();
-        this.indexToString = new HashMap<Integer, String>();
+        this.indexToString = new ArrayList<String>();
+        this.freeIndices = new IntList(4);
     }
 
     /**
@@ -42,15 +51,25 @@ public class EdgeArrayGraph implements IGraph {
 
     /**
      * Internal method for adding a node without checking for exception. Used for instances where
-     * it is known that the node does not already exist
+     * it is known that the node does not already exist. The index of a removed node is reused if
+     * there is one, since its row and column are already clear
      *
      * @param descr description of node to add
      */
     private void addNodeUnchecked(String descr) {
-        this.addNewArray();
-        int index = this.graph.get(0).size() - 1;
+        int index;
+        if (this.freeIndices.size() > 0) {
+            index = this.freeIndices.removeLast();
+            this.indexToString.set(index, descr);
+        } else {
+            index = this.graph.grow();
+            this.indexToString.add(descr);
+        }
         this.stringToIndex.put(descr, index);
-        this.indexToString.put(index, descr);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeAdded(index);
+        }
     }
 
     /**
@@ -70,9 +89,7 @@ public class EdgeArrayGraph implements IGraph {
         if (!this.stringToIndex.containsKey(descr2)) {
             this.addNodeUnchecked(descr2);
         }
-        Integer index1 = this.stringToIndex.get(descr1);
-        Integer index2 = this.stringToIndex.get(descr2);
-        this.graph.get(index1).set(index2, true);
+        this.setEdge(this.stringToIndex.get(descr1), this.stringToIndex.get(descr2));
     }
 
     /**
@@ -92,10 +109,241 @@ public class EdgeArrayGraph implements IGraph {
         if (!this.stringToIndex.containsKey(descr2)) {
             this.addNodeUnchecked(descr2);
         }
+        int index1 = this.stringToIndex.get(descr1);
+        int index2 = this.stringToIndex.get(descr2);
+        this.setEdge(index1, index2);
+        this.setEdge(index2, index1);
+    }
+
+    /**
+     * Helper method to set the bit for an edge, telling the listeners if it is new
+     *
+     * @param index1 index of the source node
+     * @param index2 index of the target node
+     */
+    private void setEdge(int index1, int index2) {
+        if (this.graph.set(index1, index2)) {
+            this.modCount++;
+            for (GraphListener listener : this.listeners) {
+                listener.edgeAdded(index1, index2);
+            }
+        }
+    }
+
+    /**
+     * Method to add a directed edge with a travel cost between the nodes associated
+     * with the given descriptions, creating the nodes if needed.
+     * If the edge already exists its cost is replaced
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edge
+     */
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        IGraph.checkWeight(weight);
+        this.addDirectedEdge(descr1, descr2);
+        this.weights.put(this.stringToIndex.get(descr1), this.stringToIndex.get(descr2), weight);
+        this.modCount++;
+    }
+
+    /**
+     * Method to add an undirected edge with the same travel cost both ways between
+     * the nodes associated with the given descriptions, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edges
+     */
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    /**
+     * Method to add every label that does not already name a node, in order, and get the index of each
+     *
+     * @param labels the descriptions of the nodes; ones already in the graph are not added again
+     * @return the index of each label, in the iteration order of labels
+     *
+     * Runtime:
+     *      O((N + L)^2 / 64) at worst Where N is the number of nodes and L the number of labels,
+     *      but the matrix is widened at most once for the whole batch rather than per node
+     */
+    @Override
+    public int[] addNodes(Collection<String> labels) {
+        int expected = this.indexToString.size() + labels.size();
+        if (labels.size() > this.stringToIndex.size()) {
+            HashMap<String, Integer> resized = new HashMap<>(expected * 4 / 3 + 1);
+            resized.putAll(this.stringToIndex);
+            this.stringToIndex = resized;
+        }
+        int[] ids = new int[labels.size()];
+        IntList added = new IntList(16);
+        int grown = 0;
+        int i = 0;
+        for (String label : labels) {
+            Integer index = this.stringToIndex.get(label);
+            if (index == null) {
+                if (this.freeIndices.size() > 0) {
+                    index = this.freeIndices.removeLast();
+                    this.indexToString.set(index, label);
+                } else {
+                    index = this.indexToString.size();
+                    this.indexToString.add(label);
+                    grown++;
+                }
+                this.stringToIndex.put(label, index);
+                added.add(index);
+            }
+            ids[i++] = index;
+        }
+        this.graph.grow(grown);
+        this.modCount += added.size();
+        for (int k = 0; k < added.size(); k++) {
+            for (GraphListener listener : this.listeners) {
+                listener.nodeAdded(added.get(k));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Method to add directed edges between existing nodes by index, skipping edges already
+     * present and repeats within the batch
+     *
+     * @param from index of the source node of each edge
+     * @param to index of the target node of each edge
+     * @throws IllegalArgumentException if the arrays differ in length or an index is not a node
+     *
+     * Runtime:
+     *      O(B log B) Where B is the size of the batch
+     *      Sorting the batch sets the bits of each row together, in order
+     */
+    @Override
+    public void addEdges(int[] from, int[] to) {
+        EdgeBatch.check(from, to, null, this);
+        for (long key : EdgeBatch.sortedKeys(from, to)) {
+            this.setEdge(EdgeBatch.source(key), EdgeBatch.target(key));
+        }
+    }
+
+    /**
+     * Method to add directed edges with travel costs between existing nodes by index, replacing
+     * the cost of edges already present. An edge repeated within the batch ends with its last cost
+     *
+     * @param from index of the source node of each edge
+     * @param to index of the target node of each edge
+     * @param weights the non-negative cost of each edge
+     * @throws IllegalArgumentException if the arrays differ in length, an index is not a node or
+     *      a weight is negative, infinite or NaN
+     */
+    @Override
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        EdgeBatch.check(from, to, weights, this);
+        this.addEdges(from, to);
+        for (int i = 0; i < from.length; i++) {
+            this.weights.put(from[i], to[i], weights[i]);
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Method to remove a node and every edge to or from it. Its index is freed for the next node
+     * added, with its label gone from stringToIndex and indexToString
+     *
+     * @param descr the description of the node to remove
+     * @return true if the node was removed, false if there is no such node
+     *
+     * Runtime:
+     *      O(N + D) Where N is the number of nodes and D the number of edges to or from the node
+     *      Clears the node's row, then scans its column for the edges into it
+     */
+    @Override
+    public boolean removeNode(String descr) {
+        Integer boxed = this.stringToIndex.remove(descr);
+        if (boxed == null) {
+            return false;
+        }
+        int index = boxed;
+        for (int i = this.graph.nextSetBit(index, 0); i >= 0; i = this.graph.nextSetBit(index, i + 1)) {
+            this.edgeRemoved(index, i);
+        }
+        this.graph.clearRow(index);
+        for (int i = this.graph.nextSetRow(index, 0); i >= 0; i = this.graph.nextSetRow(index, i + 1)) {
+            this.graph.clear(i, index);
+            this.edgeRemoved(i, index);
+        }
+        this.indexToString.set(index, null);
+        this.freeIndices.add(index);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeRemoved(index);
+        }
+        return true;
+    }
+
+    /**
+     * Method to remove a directed edge between the nodes associated with the given descriptions
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if the edge was removed, false if there is no such edge
+     *
+     * Runtime:
+     *      Expected O(1) A bit clear and a weight map probe
+     */
+    @Override
+    public boolean removeEdge(String descr1, String descr2) {
         Integer index1 = this.stringToIndex.get(descr1);
         Integer index2 = this.stringToIndex.get(descr2);
-        this.graph.get(index1).set(index2, true);
-        this.graph.get(index2).set(index1, true);
+        if (index1 == null || index2 == null || !this.graph.clear(index1, index2)) {
+            return false;
+        }
+        this.edgeRemoved(index1, index2);
+        return true;
+    }
+
+    /**
+     * Helper method to forget the weight of a removed edge and tell the listeners
+     *
+     * @param from index of the source node of the edge
+     * @param to index of the target node of the edge
+     */
+    private void edgeRemoved(int from, int to) {
+        this.weights.remove(from, to);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.edgeRemoved(from, to);
+        }
+    }
+
+    /**
+     * Method to drop the indices of removed nodes at the end of the matrix, narrowing it
+     * once they are mostly unused, and to rebuild the weight map without its tombstones
+     *
+     * Runtime:
+     *      O(N * N / 64 + W) at worst Where N is the number of nodes and W the number of weights
+     */
+    @Override
+    public void compact() {
+        int size = this.indexToString.size();
+        while (size > 0 && this.indexToString.get(size - 1) == null) {
+            size--;
+        }
+        if (size < this.indexToString.size()) {
+            this.indexToString.subList(size, this.indexToString.size()).clear();
+            this.graph.truncate(size);
+            IntList kept = new IntList(this.freeIndices.size());
+            for (int i = 0; i < this.freeIndices.size(); i++) {
+                if (this.freeIndices.get(i) < size) {
+                    kept.add(this.freeIndices.get(i));
+                }
+            }
+            this.freeIndices = kept;
+            this.modCount++;
+        }
+        this.indexToString.trimToSize();
+        this.weights.compact();
     }
 
     /**
@@ -105,16 +353,13 @@ public class EdgeArrayGraph implements IGraph {
      *
      * Runtime:
      *      O(N) Where N is the number of nodes
-     *      Only necessary to check for being empty and for every [i][i] array value
-     *      Will only ever check N array locations
+     *      Only necessary to check every [i][i] bit
+     *      Will only ever check N matrix locations
      */
     public int countSelfEdges() {
         int count = 0;
-        if (this.graph.isEmpty()) {
-            return count;
-        }
-        for (int i = 0; i < this.graph.get(0).size(); i++) {
-            if (this.graph.get(i).get(i)) {
+        for (int i = 0; i < this.graph.size(); i++) {
+            if (this.graph.get(i, i)) {
                 count++;
             }
         }
@@ -129,20 +374,17 @@ public class EdgeArrayGraph implements IGraph {
      * @return true if fromNodeLabel has an edge to every other node, otherwise false
      *
      * Runtime:
-     *      O(N) Where N is the number of nodes
-     *      Iterates from array[0] to array[N] checking that all except for [i][i] are true
+     *      O(N / 64) Where N is the number of nodes
+     *      Compares the row a word at a time checking that all except for [i][i] are true
      */
     public boolean reachesAllOthers(String fromNodeLabel) {
         int index = this.stringToIndex.get(fromNodeLabel);
-        for (int i = 0; i < this.graph.get(0).size(); i++) {
-            if (i == index) {
-                continue;
-            }
-            if (!this.graph.get(index).get(i)) {
-                return false;
-            }
+        if (this.freeIndices.size() == 0) {
+            return this.graph.rowIsFullExcept(index, index);
         }
-        return true;
+        // freed columns are always clear, so count the row instead of checking it is full
+        int others = this.graph.rowCardinality(index) - (this.graph.get(index, index) ? 1 : 0);
+        return others == this.stringToIndex.size() - 1;
     }
 
     /**
@@ -153,16 +395,138 @@ public class EdgeArrayGraph implements IGraph {
      */
     @Override
     public LinkedList<String> getNeighbors(String node) {
-        int index = this.stringToIndex.get(node);
         LinkedList<String> neighbors = new LinkedList<>();
-        for (int i = 0; i < this.graph.get(index).size(); i++) {
-            if (this.graph.get(index).get(i)) {
-                neighbors.add(this.indexToString.get(i));
-            }
-        }
+        this.forEachNeighbor(this.stringToIndex.get(node), i -> neighbors.add(this.indexToString.get(i)));
         return neighbors;
     }
 
+    /**
+     * Method to get the number of node indices in the graph
+     *
+     * @return the number of rows in the matrix, counting those of removed nodes not yet reused
+     */
+    @Override
+    public int nodeCount() {
+        return this.graph.size();
+    }
+
+    /**
+     * Method to get the matrix index of the node with a name
+     *
+     * @param label name of the node
+     * @return the index of the node, or -1 if there is no such node
+     */
+    @Override
+    public int idOf(String label) {
+        Integer index = this.stringToIndex.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Method to get the name of the node at a matrix index
+     *
+     * @param id index of the node
+     * @return the name of the node, or null if it was removed
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.indexToString.get(id);
+    }
+
+    /**
+     * Method to visit the indices of all nodes that a node has connections to
+     *
+     * @param id index of node in graph to check for neighbors of
+     * @param action called with the index of each neighbor
+     *
+     * Runtime:
+     *      O(N / 64 + M) Where N is the number of nodes and M is the number of neighbors
+     *      Skips whole empty words of the row
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        for (int i = this.graph.nextSetBit(id, 0); i >= 0; i = this.graph.nextSetBit(id, i + 1)) {
+            action.accept(i);
+        }
+    }
+
+    /**
+     * Method to visit the indices and edge weights of all nodes that a node has connections to
+     *
+     * @param id index of node in graph to check for neighbors of
+     * @param action called with the index of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        for (int i = this.graph.nextSetBit(id, 0); i >= 0; i = this.graph.nextSetBit(id, i + 1)) {
+            action.accept(i, this.weights.get(id, i));
+        }
+    }
+
+    /**
+     * Method to visit the indices of all nodes that have connections to a node
+     *
+     * @param id index of node in graph to check for predecessors of
+     * @param action called with the index of each predecessor
+     *
+     * Runtime:
+     *      O(N) Where N is the number of nodes
+     *      Scans the node's column, one bit test per row, rather than keep a transposed matrix
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        for (int i = this.graph.nextSetRow(id, 0); i >= 0; i = this.graph.nextSetRow(id, i + 1)) {
+            action.accept(i);
+        }
+    }
+
+    /**
+     * Method to get the number of modifications made to the graph so far
+     *
+     * @return a count incremented by every node or edge added or removed and every weight set
+     */
+    @Override
+    public long modCount() {
+        return this.modCount;
+    }
+
+    /**
+     * Method to register a listener for added nodes and edges
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Method to stop notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      O(1) Single bit lookup in the matrix
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        Integer index1 = this.stringToIndex.get(descr1);
+        Integer index2 = this.stringToIndex.get(descr2);
+        return index1 != null && index2 != null && this.graph.get(index1, index2);
+    }
+
     /**
      * Method to return a hashset of the string names of all nodes in graph
      *
@@ -176,18 +540,4 @@ public class EdgeArrayGraph implements IGraph {
         }
         return allNodesSet;
     }
-
-    /**
-     * Helper method to add and fill out arraylists with default of false
-     * Used when adding a new node to the graph
-     */
-    private void addNewArray() {
-        this.graph.add(new ArrayList<>());
-        for (int i = 0; i < this.graph.size() - 1; i++) {
-            this.graph.get(this.graph.size() - 1).add(false);
-        }
-        for (int i = 0; i < this.graph.size(); i++) {
-            this.graph.get(i).add(false);
-        }
-     }
 }
@@ -0,0 +1,102 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Class of helpers for adding edges in bulk. A batch of edges is packed into one long per
+ * edge, source in the high half and target in the low half, so that sorting the keys groups
+ * the edges by source and brings repeats together where they can be dropped in one pass.
+ */
+final class EdgeBatch {
+    // below this many edges a sequential sort beats splitting the work
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
+    /**
+     * Empty Constructor
+     */
+    private EdgeBatch() {}
+
+    /**
+     * Checks that a batch is well formed before anything is added
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @param weights weight of each edge, or null if the batch is unweighted
+     * @param graph the graph the edges are for
+     * @throws IllegalArgumentException if the arrays differ in length, an id is not a node
+     *      or a weight is negative, infinite or NaN
+     */
+    static void check(int[] from, int[] to, double[] weights, IGraph graph) {
+        if (from.length != to.length || (weights != null && weights.length != from.length)) {
+            throw new IllegalArgumentException("Edge arrays differ in length");
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (!graph.hasNode(from[i]) || !graph.hasNode(to[i])) {
+                throw new IllegalArgumentException("No node for edge " + from[i] + " -> " + to[i]);
+            }
+            if (weights != null) {
+                IGraph.checkWeight(weights[i]);
+            }
+        }
+    }
+
+    /**
+     * Packs a batch into keys sorted by source then target, with repeated edges removed
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @return the distinct keys in increasing order
+     *
+     * Runtime:
+     *      O(B log B) Where B is the size of the batch, sorted in parallel when large
+     */
+    static long[] sortedKeys(int[] from, int[] to) {
+        long[] keys = new long[from.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(from[i], to[i]);
+        }
+        if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Packs an edge into a key. Ids are never negative, so keys sort by source then target
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     * @return the key of the edge
+     */
+    static long key(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    /**
+     * Unpacks the source of an edge
+     *
+     * @param key the key of the edge
+     * @return id of the source node
+     */
+    static int source(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Unpacks the target of an edge
+     *
+     * @param key the key of the edge
+     * @return id of the target node
+     */
+    static int target(long key) {
+        return (int) key;
+    }
+}
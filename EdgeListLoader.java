@@ -0,0 +1,463 @@
+package sol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Class for loading large edge lists, one edge per line as source, target and an optional
+ * weight split by a separator character. Blank lines and lines starting with # are skipped.
+ * The file is streamed through a fixed size block: each block is cut on line boundaries into
+ * chunks that are parsed in parallel, interning labels into ids through a shared concurrent
+ * map. The block's new nodes and edges are then handed to the graph's bulk methods, so the
+ * graph sizes its storage once per block instead of once per edge.
+ */
+public class EdgeListLoader {
+    static final int DEFAULT_BLOCK_SIZE = 1 << 24;
+    static final int CHUNKS_PER_THREAD = 4; // extra chunks so threads that finish early can steal
+
+    char separator;
+    boolean directed;
+    ForkJoinPool pool;
+    int blockSize;
+
+    /**
+     * Constructor for a loader that parses on the common pool
+     *
+     * @param separator the character between fields, such as a tab or a comma
+     * @param directed whether each line is a directed edge rather than an undirected one
+     */
+    public EdgeListLoader(char separator, boolean directed) {
+        this(separator, directed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a loader that parses on a given pool
+     *
+     * @param separator the character between fields, such as a tab or a comma
+     * @param directed whether each line is a directed edge rather than an undirected one
+     * @param pool the pool to parse chunks on
+     */
+    public EdgeListLoader(char separator, boolean directed, ForkJoinPool pool) {
+        this(separator, directed, pool, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor for a loader with a given block size, which bounds the memory used for
+     * parsing. Each block is split into a few chunks per thread of the pool
+     *
+     * @param separator the character between fields
+     * @param directed whether each line is a directed edge rather than an undirected one
+     * @param pool the pool to parse chunks on
+     * @param blockSize bytes read from the file at a time, grown if a single line is longer
+     * @throws IllegalArgumentException if separator is a line break or not a single byte in UTF-8,
+     *      or blockSize is not positive
+     */
+    public EdgeListLoader(char separator, boolean directed, ForkJoinPool pool, int blockSize) {
+        if (separator >= 0x80 || separator == '\n' || separator == '\r') {
+            throw new IllegalArgumentException("Unsupported separator: " + (int) separator);
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.separator = separator;
+        this.directed = directed;
+        this.pool = pool;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Method to add every edge of a file to a graph, creating nodes as their labels are first seen
+     *
+     * @param path the edge list to read, encoded in UTF-8
+     * @param theGraph the graph to add to
+     * @return the number of edges and nodes loaded and the load throughput
+     * @throws IOException if the file cannot be read or a line is not a valid edge; edges
+     *      before the bad line may already have been added
+     *
+     * Runtime:
+     *      O(B + E) Where B is the size of the file and E the number of edges, with parsing
+     *      split across the pool and memory bounded by the block size rather than the file
+     */
+    public LoadStats load(Path path, IGraph theGraph) throws IOException {
+        long start = System.nanoTime();
+        Interner interner = new Interner();
+        Target target = new Target(theGraph);
+        int nodesBefore = theGraph.nodeCount();
+        long edges = 0;
+        long bytes = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            byte[] block = new byte[this.blockSize];
+            int filled = 0;
+            boolean atEnd = false;
+            while (!atEnd || filled > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(block, filled, block.length - filled);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        atEnd = true;
+                        break;
+                    }
+                }
+                bytes += buffer.position() - filled;
+                filled = buffer.position();
+                if (filled == 0) {
+                    break;
+                }
+
+                // only whole lines are parsed; the partial last line waits for the next block
+                int end = atEnd ? filled : lastLineEnd(block, filled);
+                if (end == 0) {
+                    block = Arrays.copyOf(block, block.length * 2);
+                    continue;
+                }
+                Chunk[] chunks = this.parse(block, end, interner);
+                interner.collectLabels(chunks);
+                for (Chunk chunk : chunks) {
+                    if (chunk.badLine != null) {
+                        throw new IOException("Malformed edge in " + path + ": " + chunk.badLine);
+                    }
+                    edges += chunk.size;
+                }
+                target.addAll(chunks, interner.labels, interner.nextId.get(), this.directed);
+                System.arraycopy(block, end, block, 0, filled - end);
+                filled -= end;
+            }
+        }
+        return new LoadStats(edges, theGraph.nodeCount() - nodesBefore, bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Helper method to find where the last complete line of a block ends
+     *
+     * @param block the bytes read so far
+     * @param length number of valid bytes in block
+     * @return the position just past the last line break, or 0 if there is none
+     */
+    private static int lastLineEnd(byte[] block, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (block[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to cut whole lines of a block into chunks and parse them in parallel
+     *
+     * @param block the bytes to parse
+     * @param length number of bytes to parse, ending on a line boundary or the end of the file
+     * @param interner the label ids shared across chunks
+     * @return the parsed chunks in file order
+     */
+    private Chunk[] parse(byte[] block, int length, Interner interner) {
+        int chunkSize = Math.max(1, length / (CHUNKS_PER_THREAD * this.pool.getParallelism()));
+        IntList bounds = new IntList(length / chunkSize + 2);
+        bounds.add(0);
+        for (int cut = chunkSize; cut < length; cut += chunkSize) {
+            while (cut < length && block[cut - 1] != '\n') {
+                cut++;
+            }
+            if (cut < length) {
+                bounds.add(cut);
+            }
+        }
+        bounds.add(length);
+
+        Chunk[] chunks = new Chunk[bounds.size() - 1];
+        this.pool.submit(() -> IntStream.range(0, chunks.length).parallel().forEach(
+                i -> chunks[i] = new Chunk(block, bounds.get(i), bounds.get(i + 1), this.separator, interner)))
+                .join();
+        return chunks;
+    }
+
+    /**
+     * Helper class that gives every distinct label a dense id, safe to share between parsing threads
+     */
+    private static class Interner {
+        ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        AtomicInteger nextId = new AtomicInteger();
+        String[] labels = new String[1024]; // label of each id, filled in between blocks
+
+        /**
+         * Gets the id of a label, giving it the next id if it is new
+         *
+         * @param label the label to look up
+         * @param chunk the chunk asking, which records the labels it was first to see
+         * @return the id of the label
+         */
+        int intern(String label, Chunk chunk) {
+            Integer id = this.ids.get(label);
+            if (id != null) {
+                return id;
+            }
+            // the mapping function runs once per label, so exactly one chunk records each id
+            return this.ids.computeIfAbsent(label, key -> {
+                int newId = this.nextId.getAndIncrement();
+                chunk.record(newId, key);
+                return newId;
+            });
+        }
+
+        /**
+         * Copies the labels first seen in a block into the id to label table
+         *
+         * @param chunks the chunks parsed from the block
+         */
+        void collectLabels(Chunk[] chunks) {
+            int count = this.nextId.get();
+            if (count > this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, Math.max(count, this.labels.length * 2));
+            }
+            for (Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.newLabels.size(); i++) {
+                    this.labels[chunk.newIds.get(i)] = chunk.newLabels.get(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper class holding the edges parsed from one chunk of a block, as label ids
+     */
+    private static class Chunk {
+        int[] from = new int[64];
+        int[] to = new int[64];
+        double[] weights = new double[64];
+        boolean[] weighted = new boolean[64];
+        int size;
+        IntList newIds = new IntList(16);
+        ArrayList<String> newLabels = new ArrayList<>();
+        String badLine; // the first line that is not a valid edge, or null
+
+        /**
+         * Parses every line of a range of a block
+         *
+         * @param block the bytes being parsed
+         * @param start first byte of the chunk, which starts a line
+         * @param end position just past the chunk, which ends a line or the file
+         * @param separator the character between fields
+         * @param interner the label ids shared across chunks
+         */
+        Chunk(byte[] block, int start, int end, char separator, Interner interner) {
+            int lineStart = start;
+            while (lineStart < end && this.badLine == null) {
+                int lineEnd = lineStart;
+                while (lineEnd < end && block[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                this.parseLine(block, lineStart, lineEnd, (byte) separator, interner);
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        /**
+         * Parses one line, ignoring it if it is blank or a comment
+         *
+         * @param block the bytes being parsed
+         * @param start first byte of the line
+         * @param end position of the line break, or of the end of the file
+         * @param separator the byte between fields
+         * @param interner the label ids shared across chunks
+         */
+        private void parseLine(byte[] block, int start, int end, byte separator, Interner interner) {
+            if (end > start && block[end - 1] == '\r') {
+                end--;
+            }
+            if (end == start || block[start] == '#') {
+                return;
+            }
+            int first = indexOf(block, start, end, separator);
+            if (first < 0) {
+                this.badLine = decode(block, start, end);
+                return;
+            }
+            int second = indexOf(block, first + 1, end, separator);
+            int labelEnd = second < 0 ? end : second;
+            double weight = IGraph.DEFAULT_WEIGHT;
+            if (second >= 0) {
+                try {
+                    weight = Double.parseDouble(decode(block, second + 1, end));
+                } catch (NumberFormatException e) {
+                    this.badLine = decode(block, start, end);
+                    return;
+                }
+                if (!(weight >= 0) || Double.isInfinite(weight)) {
+                    this.badLine = decode(block, start, end);
+                    return;
+                }
+            }
+            if (this.size == this.from.length) {
+                int capacity = this.size * 2;
+                this.from = Arrays.copyOf(this.from, capacity);
+                this.to = Arrays.copyOf(this.to, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+                this.weighted = Arrays.copyOf(this.weighted, capacity);
+            }
+            this.from[this.size] = interner.intern(decode(block, start, first), this);
+            this.to[this.size] = interner.intern(decode(block, first + 1, labelEnd), this);
+            this.weights[this.size] = weight;
+            this.weighted[this.size] = second >= 0;
+            this.size++;
+        }
+
+        /**
+         * Notes that this chunk made the id of a label
+         *
+         * @param id the new id
+         * @param label its label
+         */
+        void record(int id, String label) {
+            this.newIds.add(id);
+            this.newLabels.add(label);
+        }
+
+        /**
+         * Helper method to find a byte in a range
+         *
+         * @param block the bytes to search
+         * @param start first position to check
+         * @param end position just past the range
+         * @param value the byte to find
+         * @return position of the first match, or -1 if there is none
+         */
+        private static int indexOf(byte[] block, int start, int end, byte value) {
+            for (int i = start; i < end; i++) {
+                if (block[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Helper method to decode a range of UTF-8 bytes
+         *
+         * @param block the bytes to decode
+         * @param start first byte
+         * @param end position just past the last byte
+         * @return the decoded text
+         */
+        private static String decode(byte[] block, int start, int end) {
+            return new String(block, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Helper class that adds parsed edges to the graph a block at a time through the bulk
+     * methods, creating nodes in the order their labels first appear in the file
+     */
+    private static class Target {
+        IGraph graph;
+        int[] graphIds = new int[0]; // graph id of each label id, or -1 if not yet added
+
+        /**
+         * Constructor for adding to a graph
+         *
+         * @param graph the graph to add to
+         */
+        Target(IGraph graph) {
+            this.graph = graph;
+        }
+
+        /**
+         * Adds every edge parsed from a block
+         *
+         * @param chunks the parsed chunks of the block, in file order
+         * @param labels the label of each label id
+         * @param labelCount number of label ids given out so far
+         * @param directed whether to add each edge in one direction only
+         */
+        void addAll(Chunk[] chunks, String[] labels, int labelCount, boolean directed) {
+            if (labelCount > this.graphIds.length) {
+                int oldLength = this.graphIds.length;
+                this.graphIds = Arrays.copyOf(this.graphIds, Math.max(labelCount, oldLength * 2));
+                Arrays.fill(this.graphIds, oldLength, this.graphIds.length, -1);
+            }
+
+            // gather the labels new to the graph so they can be added as one batch
+            IntList newLabelIds = new IntList(16);
+            ArrayList<String> newLabels = new ArrayList<>();
+            int plain = 0;
+            int weighted = 0;
+            for (Chunk chunk : chunks) {
+                for (int e = 0; e < chunk.size; e++) {
+                    this.markNew(chunk.from[e], labels, newLabelIds, newLabels);
+                    this.markNew(chunk.to[e], labels, newLabelIds, newLabels);
+                    if (chunk.weighted[e]) {
+                        weighted++;
+                    } else {
+                        plain++;
+                    }
+                }
+            }
+            int[] ids = this.graph.addNodes(newLabels);
+            for (int i = 0; i < ids.length; i++) {
+                this.graphIds[newLabelIds.get(i)] = ids[i];
+            }
+
+            int copies = directed ? 1 : 2;
+            int[] from = new int[plain * copies];
+            int[] to = new int[plain * copies];
+            int[] weightedFrom = new int[weighted * copies];
+            int[] weightedTo = new int[weighted * copies];
+            double[] weights = new double[weighted * copies];
+            int p = 0;
+            int w = 0;
+            for (Chunk chunk : chunks) {
+                for (int e = 0; e < chunk.size; e++) {
+                    int source = this.graphIds[chunk.from[e]];
+                    int target = this.graphIds[chunk.to[e]];
+                    if (chunk.weighted[e]) {
+                        weightedFrom[w] = source;
+                        weightedTo[w] = target;
+                        weights[w++] = chunk.weights[e];
+                        if (!directed) {
+                            weightedFrom[w] = target;
+                            weightedTo[w] = source;
+                            weights[w++] = chunk.weights[e];
+                        }
+                    } else {
+                        from[p] = source;
+                        to[p++] = target;
+                        if (!directed) {
+                            from[p] = target;
+                            to[p++] = source;
+                        }
+                    }
+                }
+            }
+            // edges without a weight never change a cost, so only the weighted batch's order matters
+            this.graph.addEdges(from, to);
+            if (weighted > 0) {
+                this.graph.addEdges(weightedFrom, weightedTo, weights);
+            }
+        }
+
+        /**
+         * Helper method to queue a label for adding if the graph has not seen it yet
+         *
+         * @param labelId the id given by the interner
+         * @param labels the label of each label id
+         * @param newLabelIds the label ids queued so far
+         * @param newLabels the labels queued so far
+         */
+        private void markNew(int labelId, String[] labels, IntList newLabelIds, ArrayList<String> newLabels) {
+            if (this.graphIds[labelId] == -1) {
+                this.graphIds[labelId] = -2; // queued, so it is only added once
+                newLabelIds.add(labelId);
+                newLabels.add(labels[labelId]);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Class for a sparse map from (source, target) id pairs to edge weights, stored in
+ * flat long and double arrays with open addressing so no object is created per edge.
+ * Edges that were never given a weight are not stored and read back as the default weight.
+ * Removed entries leave a tombstone key behind so probe sequences stay intact, and are
+ * dropped whenever the table is rebuilt.
+ */
+public class EdgeWeightMap {
+    private static final long EMPTY = -1L;
+    private static final long TOMBSTONE = -2L; // keys are never negative, so this never matches one
+
+    long[] keys;
+    double[] values;
+    int size;
+    int tombstones;
+
+    /**
+     * Constructor for an empty map
+     */
+    public EdgeWeightMap() {
+        this.keys = new long[16];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new double[16];
+        this.size = 0;
+    }
+
+    /**
+     * Method to get the weight of an edge
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     * @return the stored weight, or the default weight if none was stored
+     */
+    public double get(int from, int to) {
+        long key = key(from, to);
+        int mask = this.keys.length - 1;
+        for (int slot = hash(key) & mask; this.keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                return this.values[slot];
+            }
+        }
+        return IGraph.DEFAULT_WEIGHT;
+    }
+
+    /**
+     * Method to set the weight of an edge
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     * @param weight the weight to store
+     */
+    public void put(int from, int to, double weight) {
+        if (weight == IGraph.DEFAULT_WEIGHT && this.size == 0) {
+            return;
+        }
+        if ((this.size + this.tombstones + 1) * 2 > this.keys.length) {
+            // rebuilding drops the tombstones, so only grow if the live entries need it
+            this.resize((this.size + 1) * 2 > this.keys.length ? this.keys.length * 2 : this.keys.length);
+        }
+        long key = key(from, to);
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        int reusable = -1;
+        while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+            if (this.keys[slot] == TOMBSTONE && reusable < 0) {
+                reusable = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (this.keys[slot] == EMPTY) {
+            if (reusable >= 0) {
+                slot = reusable;
+                this.tombstones--;
+            }
+            this.keys[slot] = key;
+            this.size++;
+        }
+        this.values[slot] = weight;
+    }
+
+    /**
+     * Method to forget the weight of an edge, so that it reads back as the default
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     */
+    public void remove(int from, int to) {
+        if (this.size == 0) {
+            return;
+        }
+        long key = key(from, to);
+        int mask = this.keys.length - 1;
+        for (int slot = hash(key) & mask; this.keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                this.keys[slot] = TOMBSTONE;
+                this.size--;
+                this.tombstones++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method to rebuild the table at the smallest size that holds its entries, dropping tombstones
+     */
+    public void compact() {
+        int capacity = 16;
+        while ((this.size + 1) * 2 > capacity) {
+            capacity *= 2;
+        }
+        this.resize(capacity);
+    }
+
+    /**
+     * Method to check whether any weight is stored
+     *
+     * @return true if no weights are stored
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Helper method to rehash every entry into new arrays, leaving the tombstones behind
+     *
+     * @param capacity the new number of slots, a power of two
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        double[] oldValues = this.values;
+        this.keys = new long[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new double[capacity];
+        this.tombstones = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] >= 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (this.keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Helper method to pack an id pair into one long
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     * @return the packed key
+     */
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Helper method to mix the bits of a key
+     *
+     * @param key the key to hash
+     * @return the mixed hash
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,251 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for coloring a conflict graph with as few colors as it can manage, so that nodes
+ * joined by an edge never share a color. Conflicts are symmetric, so a node's neighbors are
+ * both the nodes it has edges to and the nodes with edges to it. Self edges cannot be
+ * satisfied by any coloring and are ignored here. Both heuristics run on int ids over a
+ * flattened copy of the adjacency and use bucket queues instead of comparison sorts.
+ */
+public class GraphColoring {
+
+    /**
+     * The ordering heuristics available
+     */
+    public enum Strategy {
+        /**
+         * Always color next the node whose neighbors already use the most distinct colors,
+         * breaking ties towards higher degree. Slower than LARGEST_FIRST but usually needs
+         * fewer colors, and it is exact on two-colorable graphs
+         */
+        DSATUR,
+        /**
+         * Color nodes once each in order of decreasing degree, giving each the smallest free color
+         */
+        LARGEST_FIRST
+    }
+
+    int nodeCount;
+    int[] offsets;
+    int[] neighbors;
+
+    /**
+     * Constructor that flattens a graph's symmetric adjacency into offsets and neighbor arrays
+     *
+     * @param graph the graph to color
+     */
+    GraphColoring(IGraph graph) {
+        this.nodeCount = graph.nodeCount();
+        this.offsets = new int[this.nodeCount + 1];
+        IntList adjacency = new IntList(Math.max(16, this.nodeCount * 2));
+        IntConsumer addNeighbor = adjacency::add;
+        for (int node = 0; node < this.nodeCount; node++) {
+            this.offsets[node] = adjacency.size();
+            graph.forEachNeighbor(node, addNeighbor);
+            graph.forEachPredecessor(node, addNeighbor);
+        }
+        this.offsets[this.nodeCount] = adjacency.size();
+        this.neighbors = adjacency.toArray();
+    }
+
+    /**
+     * Method to color every node of a graph
+     *
+     * @param graph the graph to color
+     * @param strategy the heuristic to use
+     * @return the color of each node id, numbered from 0 with no gaps
+     */
+    public static int[] color(IGraph graph, Strategy strategy) {
+        GraphColoring coloring = new GraphColoring(graph);
+        return strategy == Strategy.DSATUR ? coloring.dsatur() : coloring.largestFirst();
+    }
+
+    /**
+     * Method to count the colors used by a coloring
+     *
+     * @param colors the color of each node id, numbered from 0
+     * @return one more than the largest color, or 0 for an empty graph
+     */
+    public static int colorCount(int[] colors) {
+        int count = 0;
+        for (int color : colors) {
+            count = Math.max(count, color + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Helper method for the largest-first heuristic
+     *
+     * @return the color of each node id
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of nodes and E the number of edges
+     *      Nodes are bucketed by degree, and each is colored by stamping its neighbors' colors
+     */
+    private int[] largestFirst() {
+        int[] order = this.byDescendingDegree();
+        int[] colors = new int[this.nodeCount];
+        Arrays.fill(colors, -1);
+        int[] usedBy = new int[this.nodeCount + 1]; // usedBy[c] is the node whose neighbor last had color c
+        Arrays.fill(usedBy, -1);
+        for (int node : order) {
+            for (int e = this.offsets[node]; e < this.offsets[node + 1]; e++) {
+                int neighborColor = colors[this.neighbors[e]];
+                if (neighborColor >= 0) {
+                    usedBy[neighborColor] = node;
+                }
+            }
+            int color = 0;
+            while (usedBy[color] == node) {
+                color++;
+            }
+            colors[node] = color;
+        }
+        return colors;
+    }
+
+    /**
+     * Helper method for the DSatur heuristic. Uncolored nodes sit in doubly linked buckets
+     *     indexed by saturation, so picking the most saturated node and moving a node up a
+     *     bucket are both constant time. Within a bucket, nodes are pushed to the front,
+     *     and the initial bucket is filled from lowest to highest degree, so ties lean
+     *     towards higher degree without a heap
+     *
+     * @return the color of each node id
+     *
+     * Runtime:
+     *      O((N + E) * K / 64) Where N is the number of nodes, E the number of edges
+     *      and K the number of colors, for the per-node bitsets of neighbor colors
+     */
+    private int[] dsatur() {
+        int nodeCount = this.nodeCount;
+        int[] colors = new int[nodeCount];
+        Arrays.fill(colors, -1);
+        int[] saturation = new int[nodeCount];
+        long[][] neighborColors = new long[nodeCount][];
+        int[] bucketHead = new int[nodeCount + 1];
+        int[] next = new int[nodeCount];
+        int[] prev = new int[nodeCount];
+        Arrays.fill(bucketHead, -1);
+
+        int[] order = this.byDescendingDegree();
+        for (int i = order.length - 1; i >= 0; i--) {
+            pushFront(bucketHead, next, prev, 0, order[i]);
+        }
+        int maxSaturation = 0;
+        for (int colored = 0; colored < nodeCount; colored++) {
+            while (bucketHead[maxSaturation] < 0) {
+                maxSaturation--;
+            }
+            int node = bucketHead[maxSaturation];
+            unlink(bucketHead, next, prev, maxSaturation, node);
+
+            int color = firstClear(neighborColors[node]);
+            colors[node] = color;
+            for (int e = this.offsets[node]; e < this.offsets[node + 1]; e++) {
+                int neighbor = this.neighbors[e];
+                if (colors[neighbor] >= 0) {
+                    continue;
+                }
+                long[] seen = neighborColors[neighbor];
+                if (seen == null || (color >>> 6) >= seen.length) {
+                    seen = seen == null ? new long[(color >>> 6) + 1] : Arrays.copyOf(seen, (color >>> 6) + 1);
+                    neighborColors[neighbor] = seen;
+                }
+                if ((seen[color >>> 6] & (1L << color)) == 0) {
+                    seen[color >>> 6] |= 1L << color;
+                    unlink(bucketHead, next, prev, saturation[neighbor], neighbor);
+                    saturation[neighbor]++;
+                    pushFront(bucketHead, next, prev, saturation[neighbor], neighbor);
+                    maxSaturation = Math.max(maxSaturation, saturation[neighbor]);
+                }
+            }
+            neighborColors[node] = null;
+        }
+        return colors;
+    }
+
+    /**
+     * Helper method to list node ids from highest to lowest degree with a counting sort
+     *
+     * @return the node ids in order
+     */
+    private int[] byDescendingDegree() {
+        int maxDegree = 0;
+        for (int node = 0; node < this.nodeCount; node++) {
+            maxDegree = Math.max(maxDegree, this.offsets[node + 1] - this.offsets[node]);
+        }
+        int[] start = new int[maxDegree + 2];
+        for (int node = 0; node < this.nodeCount; node++) {
+            start[maxDegree - (this.offsets[node + 1] - this.offsets[node]) + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] order = new int[this.nodeCount];
+        for (int node = 0; node < this.nodeCount; node++) {
+            order[start[maxDegree - (this.offsets[node + 1] - this.offsets[node])]++] = node;
+        }
+        return order;
+    }
+
+    /**
+     * Helper method to find the smallest color missing from a bitset
+     *
+     * @param seen bitset of colors, or null if empty
+     * @return the lowest clear bit
+     */
+    private static int firstClear(long[] seen) {
+        if (seen == null) {
+            return 0;
+        }
+        for (int w = 0; w < seen.length; w++) {
+            if (seen[w] != -1L) {
+                return (w << 6) + Long.numberOfTrailingZeros(~seen[w]);
+            }
+        }
+        return seen.length << 6;
+    }
+
+    /**
+     * Helper method to put a node at the front of a bucket
+     *
+     * @param head first node of each bucket
+     * @param next next node in the same bucket
+     * @param prev previous node in the same bucket
+     * @param bucket the bucket to add to
+     * @param node the node to add
+     */
+    private static void pushFront(int[] head, int[] next, int[] prev, int bucket, int node) {
+        next[node] = head[bucket];
+        prev[node] = -1;
+        if (head[bucket] >= 0) {
+            prev[head[bucket]] = node;
+        }
+        head[bucket] = node;
+    }
+
+    /**
+     * Helper method to take a node out of its bucket
+     *
+     * @param head first node of each bucket
+     * @param next next node in the same bucket
+     * @param prev previous node in the same bucket
+     * @param bucket the bucket the node is in
+     * @param node the node to remove
+     */
+    private static void unlink(int[] head, int[] next, int[] prev, int bucket, int node) {
+        if (prev[node] >= 0) {
+            next[prev[node]] = next[node];
+        } else {
+            head[bucket] = next[node];
+        }
+        if (next[node] >= 0) {
+            prev[next[node]] = prev[node];
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package sol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Class for reading and writing graphs in a versioned binary file that can be memory-mapped
+ * and queried in place. All numbers are little-endian and every section starts on an 8 byte
+ * boundary. The file is laid out as:
+ *      header       magic, format version, flags, counts and the position of every section
+ *      label table  the start of each label as a long, or its complement where a node was
+ *                   removed and the id has no label, then all labels as UTF-8 bytes
+ *      CSR          offsets and targets of the outgoing edges, each row sorted by target
+ *      reverse CSR  offsets and sources of the incoming edges, each row sorted by source
+ *      weights      one double per outgoing edge, only present if some weight is not the default
+ *      label index  an open-addressing table from label hash to node id + 1
+ * so opening a file only reads the header, and pages are loaded as queries touch them.
+ */
+public class GraphFile {
+    static final int MAGIC = 0x46524747; // "GGRF" in file byte order
+    static final int VERSION = 1;
+    static final int FLAG_WEIGHTED = 1;
+    static final int FLAG_REMOVED = 2; // some ids below the node count have no node
+
+    // positions of the header fields
+    static final int MAGIC_POS = 0;
+    static final int VERSION_POS = 4;
+    static final int FLAGS_POS = 8;
+    static final int NODE_COUNT_POS = 12;
+    static final int EDGE_COUNT_POS = 16;
+    static final int HASH_SLOTS_POS = 20;
+    static final int LABEL_OFFSETS_POS = 24;
+    static final int LABEL_BYTES_POS = 32;
+    static final int LABEL_BYTES_LENGTH_POS = 40;
+    static final int OFFSETS_POS = 48;
+    static final int TARGETS_POS = 56;
+    static final int REVERSE_OFFSETS_POS = 64;
+    static final int REVERSE_TARGETS_POS = 72;
+    static final int WEIGHTS_POS = 80;
+    static final int HASH_POS = 88;
+    static final int HEADER_SIZE = 96;
+
+    /**
+     * Empty Constructor
+     */
+    public GraphFile() {}
+
+    /**
+     * Method to write a graph to a file, replacing anything already there
+     *
+     * @param theGraph the graph to write, which must not change during the call
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     *
+     * Runtime:
+     *      O(N + E log D) Where N is the number of nodes, E the number of edges and D the
+     *      largest degree, for sorting each row so that mapped edge lookups can binary search
+     */
+    public static void write(IGraph theGraph, Path path) throws IOException {
+        CsrGraph graph = CsrGraph.of(theGraph);
+        int nodeCount = graph.nodeCount();
+        int edgeCount = graph.targets.length;
+        int[] targets = graph.targets.clone();
+        double[] weights = graph.weights == null ? null : graph.weights.clone();
+        sortRows(graph.offsets, targets, weights);
+
+        byte[][] labels = new byte[nodeCount][];
+        long labelBytesLength = 0;
+        int flags = weights == null ? 0 : FLAG_WEIGHTED;
+        for (int id = 0; id < nodeCount; id++) {
+            if (graph.labels[id] == null) {
+                labels[id] = new byte[0];
+                flags |= FLAG_REMOVED;
+                continue;
+            }
+            labels[id] = graph.labels[id].getBytes(StandardCharsets.UTF_8);
+            labelBytesLength += labels[id].length;
+        }
+        int[] index = buildIndex(graph.labels);
+
+        long labelOffsetsPos = HEADER_SIZE;
+        long labelBytesPos = labelOffsetsPos + 8L * (nodeCount + 1);
+        long offsetsPos = align(labelBytesPos + labelBytesLength);
+        long targetsPos = align(offsetsPos + 4L * (nodeCount + 1));
+        long reverseOffsetsPos = align(targetsPos + 4L * edgeCount);
+        long reverseTargetsPos = align(reverseOffsetsPos + 4L * (nodeCount + 1));
+        long weightsPos = align(reverseTargetsPos + 4L * edgeCount);
+        long hashPos = weightsPos + (weights == null ? 0 : 8L * edgeCount);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(flags);
+            out.putInt(nodeCount);
+            out.putInt(edgeCount);
+            out.putInt(index.length);
+            out.putLong(labelOffsetsPos);
+            out.putLong(labelBytesPos);
+            out.putLong(labelBytesLength);
+            out.putLong(offsetsPos);
+            out.putLong(targetsPos);
+            out.putLong(reverseOffsetsPos);
+            out.putLong(reverseTargetsPos);
+            out.putLong(weights == null ? 0 : weightsPos);
+            out.putLong(hashPos);
+
+            long labelStart = 0;
+            for (int id = 0; id < nodeCount; id++) {
+                out.putLong(graph.labels[id] == null ? ~labelStart : labelStart);
+                labelStart += labels[id].length;
+            }
+            out.putLong(labelStart);
+            for (byte[] label : labels) {
+                out.putBytes(label);
+            }
+            out.padTo(offsetsPos);
+            out.putInts(graph.offsets);
+            out.padTo(targetsPos);
+            out.putInts(targets);
+            out.padTo(reverseOffsetsPos);
+            out.putInts(graph.reverseOffsets);
+            out.padTo(reverseTargetsPos);
+            out.putInts(graph.reverseTargets);
+            out.padTo(weightsPos);
+            if (weights != null) {
+                for (double weight : weights) {
+                    out.putDouble(weight);
+                }
+            }
+            out.putInts(index);
+            out.flush();
+        }
+    }
+
+    /**
+     * Method to open a graph file for querying in place
+     *
+     * @param path the file to open
+     * @return a read-only graph backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a graph file of a supported version
+     */
+    public static MappedGraph load(Path path) throws IOException {
+        return MappedGraph.open(path);
+    }
+
+    /**
+     * Helper method to mix a label's hash code for the label index. String.hashCode is
+     *     fixed by the language specification, so files stay readable across processes
+     *
+     * @param label the label to hash
+     * @return the mixed hash
+     */
+    static int hash(String label) {
+        int h = label.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Helper method to build the label index, sized to at most half full
+     *
+     * @param labels the label of each node id, or null for the ids of removed nodes
+     * @return slots holding node id + 1, or 0 where empty
+     */
+    private static int[] buildIndex(String[] labels) {
+        int[] table = new int[Integer.highestOneBit(Math.max(1, labels.length) * 4 - 1)];
+        int mask = table.length - 1;
+        for (int id = 0; id < labels.length; id++) {
+            if (labels[id] == null) {
+                continue;
+            }
+            int slot = hash(labels[id]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        return table;
+    }
+
+    /**
+     * Helper method to sort every row of a CSR by target, carrying the weights along
+     *
+     * @param offsets start of each row, with one extra trailing entry
+     * @param targets the targets of every row, sorted in place
+     * @param weights the weight of each target, permuted to match, or null
+     */
+    private static void sortRows(int[] offsets, int[] targets, double[] weights) {
+        for (int row = 0; row + 1 < offsets.length; row++) {
+            int from = offsets[row];
+            int to = offsets[row + 1];
+            if (weights == null) {
+                Arrays.sort(targets, from, to);
+                continue;
+            }
+            // pair each target with its position so the weights can follow it
+            long[] keyed = new long[to - from];
+            for (int e = from; e < to; e++) {
+                keyed[e - from] = ((long) targets[e] << 32) | (e - from);
+            }
+            Arrays.sort(keyed);
+            double[] rowWeights = Arrays.copyOfRange(weights, from, to);
+            for (int i = 0; i < keyed.length; i++) {
+                targets[from + i] = (int) (keyed[i] >>> 32);
+                weights[from + i] = rowWeights[(int) keyed[i]];
+            }
+        }
+    }
+
+    /**
+     * Helper method to round a position up to the next 8 byte boundary
+     *
+     * @param position the position to round
+     * @return the aligned position
+     */
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Helper class that writes little-endian numbers to a channel through one reused buffer
+     */
+    private static class Output {
+        FileChannel channel;
+        ByteBuffer buffer;
+        long position;
+
+        /**
+         * Constructor for a writer at the start of a channel
+         *
+         * @param channel the channel to write to
+         */
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Writes one int
+         *
+         * @param value the value to write
+         * @throws IOException if the channel cannot be written
+         */
+        void putInt(int value) throws IOException {
+            this.ensure(4);
+            this.buffer.putInt(value);
+            this.position += 4;
+        }
+
+        /**
+         * Writes one long
+         *
+         * @param value the value to write
+         * @throws IOException if the channel cannot be written
+         */
+        void putLong(long value) throws IOException {
+            this.ensure(8);
+            this.buffer.putLong(value);
+            this.position += 8;
+        }
+
+        /**
+         * Writes one double
+         *
+         * @param value the value to write
+         * @throws IOException if the channel cannot be written
+         */
+        void putDouble(double value) throws IOException {
+            this.ensure(8);
+            this.buffer.putDouble(value);
+            this.position += 8;
+        }
+
+        /**
+         * Writes every int of an array in order
+         *
+         * @param values the values to write
+         * @throws IOException if the channel cannot be written
+         */
+        void putInts(int[] values) throws IOException {
+            for (int value : values) {
+                this.putInt(value);
+            }
+        }
+
+        /**
+         * Writes raw bytes
+         *
+         * @param bytes the bytes to write
+         * @throws IOException if the channel cannot be written
+         */
+        void putBytes(byte[] bytes) throws IOException {
+            for (int i = 0; i < bytes.length; ) {
+                this.ensure(1);
+                int length = Math.min(bytes.length - i, this.buffer.remaining());
+                this.buffer.put(bytes, i, length);
+                i += length;
+                this.position += length;
+            }
+        }
+
+        /**
+         * Writes zero bytes up to a position
+         *
+         * @param target the position to reach
+         * @throws IOException if the channel cannot be written
+         */
+        void padTo(long target) throws IOException {
+            while (this.position < target) {
+                this.ensure(1);
+                this.buffer.put((byte) 0);
+                this.position++;
+            }
+        }
+
+        /**
+         * Makes room for a number of bytes, writing out the buffer if it is too full
+         *
+         * @param bytes the room needed
+         * @throws IOException if the channel cannot be written
+         */
+        void ensure(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+
+        /**
+         * Writes out everything buffered so far
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+}
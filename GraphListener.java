@@ -0,0 +1,44 @@
+package sol;
+
+/**
+ * Interface for objects that want to hear about changes to a graph as they happen,
+ * so they can keep derived state up to date without rescanning the whole graph.
+ * Graphs that cannot delete never call the removal methods, so listeners that only
+ * follow growing graphs need not implement them
+ */
+public interface GraphListener {
+
+    /**
+     * Called after a node is added
+     *
+     * @param id id of the new node
+     */
+    void nodeAdded(int id);
+
+    /**
+     * Called after a directed edge that was not already present is added. An undirected
+     * edge is reported as two directed edges
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     */
+    void edgeAdded(int from, int to);
+
+    /**
+     * Called after a directed edge is removed, including each edge of a removed node
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     */
+    default void edgeRemoved(int from, int to) {
+    }
+
+    /**
+     * Called after a node is removed, once edgeRemoved has been called for each of its edges.
+     * The id may be given to a node added later
+     *
+     * @param id id of the removed node
+     */
+    default void nodeRemoved(int id) {
+    }
+}
@@ -3,6 +3,11 @@ package sol;
 import src.NoRouteException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
 
 /**
  * Class containing route methods for use with graphs
@@ -14,36 +19,68 @@ public class GraphUtils {
      */
     public GraphUtils() {}
 
-//    /**
-//     * Method to use breadth-first-search to check whether there is a path
-//     *     from one node to another in a graph. Assumes that both fromNodeLabel
-//     *     and toNodeLabel are valid node labels in theGraph.
-//     *
-//     * @param theGraph the graph to traverse
-//     * @param fromNodeLabel name of the node from which to start searching
-//     * @param toNodeLabel   name of the node we want to reach
-//     * @return boolean indicating whether such a route exists
-//     */
-//    public static boolean hasRoute(NodeEdgeGraph theGraph, String fromNodeLabel, String toNodeLabel) {
-//        NodeEdgeGraph.Node fromNode = theGraph.getNode(fromNodeLabel);
-//        NodeEdgeGraph.Node toNode = theGraph.getNode(toNodeLabel);
-//        // set up and initialize data structures
-//        HashSet<NodeEdgeGraph.Node> visited = new HashSet<>();
-//        LinkedList<NodeEdgeGraph.Node> toCheck = new LinkedList<>();
-//        toCheck.add(fromNode);
-//
-//        // process nodes to search for toNode
-//        while (!toCheck.isEmpty()) {
-//            NodeEdgeGraph.Node checkNode = toCheck.pop();
-//            if (checkNode.equals(toNode)) {
-//                return true;
-//            } else if (!visited.contains(checkNode)) {
-//                visited.add(checkNode);
-//                toCheck.addAll(checkNode.nextNodes); //need method returning all edges
-//            }
-//        }
-//        return false;
-//    }
+    // per-thread search buffers reused by hasRoute so that warm queries allocate nothing
+    private static final ThreadLocal<ReachScratch> REACH_SCRATCH = ThreadLocal.withInitial(ReachScratch::new);
+
+    /**
+     * Method to use breadth-first-search to check whether there is a path
+     *     from one node to another in a graph. A node always has a route to itself
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @return boolean indicating whether such a route exists, false if either node is not in theGraph
+     */
+    public static boolean hasRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel) {
+        return hasRoute(theGraph, fromNodeLabel, toNodeLabel, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Method to use breadth-first-search to check whether there is a path of at most maxHops
+     *     edges from one node to another, giving up once maxVisited nodes have been discovered.
+     *     The target is checked as soon as it is discovered rather than when it is expanded,
+     *     and the visited bitset and queue are kept per thread, so after warm-up a query
+     *     allocates nothing and only clears the bits it set
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @param maxHops the most edges a route may use
+     * @param maxVisited the most nodes the search may discover before giving up
+     * @return true if a route was found within both budgets, false if not found within them
+     *         or if either node is not in theGraph
+     */
+    public static boolean hasRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                   int maxHops, int maxVisited) {
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+        ReachScratch toCheck = REACH_SCRATCH.get();
+        toCheck.start(theGraph.nodeCount(), from, to);
+        try {
+            int head = 0;
+            for (int hops = 0; hops < maxHops && head < toCheck.tail; hops++) {
+                int levelEnd = toCheck.tail;
+                while (head < levelEnd) {
+                    theGraph.forEachNeighbor(toCheck.queue[head++], toCheck);
+                    if (toCheck.found) {
+                        return true;
+                    }
+                    if (toCheck.tail >= maxVisited) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            toCheck.finish();
+        }
+    }
 
     /**
      * Method to produce a sequence of nodes that constitutes a shortest path
@@ -59,49 +96,606 @@ public class GraphUtils {
      */
     public static LinkedList<String> getRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel)
             throws NoRouteException {
-        HashSet<String> visited = new HashSet<>();
-        Queue<String> toCheck = new LinkedList<>();
-        HashMap<String, String> cameFrom = new HashMap<>();
-        toCheck.add(fromNodeLabel);
-
-        while (!toCheck.isEmpty()) {
-            String checkNode = toCheck.remove();
-            visited.add(checkNode);
-            if (checkNode.equals(toNodeLabel)) {
-                LinkedList<String> route = constructRoute(toNodeLabel, cameFrom);
-                route.addFirst(fromNodeLabel);
-                return route;
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (from < 0 || to < 0) {
+            throw new NoRouteException();
+        }
+        BfsQueue toCheck = new BfsQueue(theGraph.nodeCount());
+        toCheck.start(from);
+
+        // the target is checked when discovered, which saves expanding the rest of its level
+        while (toCheck.cameFrom[to] < 0 && toCheck.head < toCheck.tail) {
+            theGraph.forEachNeighbor(toCheck.next(), toCheck);
+        }
+        if (toCheck.cameFrom[to] < 0) {
+            throw new NoRouteException();
+        }
+        return constructRoute(theGraph, from, to, toCheck.cameFrom);
+    }
+
+    /**
+     * Method to produce a shortest route like getRoute, first using precomputed components
+     *     to reject pairs that cannot be connected without searching. Components computed
+     *     before the graph last changed are ignored
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param components weak or strong components of theGraph
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     *
+     * Runtime:
+     *      O(1) for pairs the components separate, otherwise the same as getRoute
+     */
+    public static LinkedList<String> getRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                              Components components) throws NoRouteException {
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (from < 0 || to < 0 || (components.isCurrent(theGraph) && components.separates(from, to))) {
+            throw new NoRouteException();
+        }
+        return getRoute(theGraph, fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to split a graph into weakly connected components, ignoring edge direction,
+     *     by unioning the ends of every edge into a concurrent union-find on the common pool
+     *
+     * @param theGraph the graph to split, which must not change during the call
+     * @return the component of every node, numbered in order of each component's lowest node id.
+     *         Ids left by removed nodes are in no component
+     */
+    public static Components weakComponents(IGraph theGraph) {
+        return weakComponents(theGraph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Method to split a graph into weakly connected components on a given pool
+     *
+     * @param theGraph the graph to split, which must not change during the call
+     * @param pool the pool to union edges on
+     * @return the component of every node, numbered in order of each component's lowest node id
+     *
+     * Runtime:
+     *      O((N + E) * a(N) / P) Where N is the number of nodes, E the number of edges,
+     *      a the inverse Ackermann function and P the number of workers
+     */
+    public static Components weakComponents(IGraph theGraph, ForkJoinPool pool) {
+        long version = theGraph.modCount();
+        int nodeCount = theGraph.nodeCount();
+        ConcurrentUnionFind sets = new ConcurrentUnionFind(nodeCount);
+        pool.submit(() -> IntStream.range(0, nodeCount).parallel().forEach(
+                node -> theGraph.forEachNeighbor(node, neighbor -> sets.union(node, neighbor)))).join();
+
+        int[] componentOf = new int[nodeCount];
+        int[] indexOfRoot = new int[nodeCount];
+        Arrays.fill(indexOfRoot, -1);
+        int count = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (!theGraph.hasNode(node)) {
+                componentOf[node] = -1;
+                continue;
+            }
+            int root = sets.find(node);
+            if (indexOfRoot[root] < 0) {
+                indexOfRoot[root] = count++;
+            }
+            componentOf[node] = indexOfRoot[root];
+        }
+        return new Components(componentOf, count, false, version);
+    }
+
+    /**
+     * Method to split a graph into strongly connected components, where every node of a
+     *     component has a route to every other. Graphs that are not already a CsrGraph are
+     *     frozen first
+     *
+     * @param theGraph the graph to split
+     * @return the component of every node, numbered in reverse topological order.
+     *         Ids left by removed nodes are in no component
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of nodes and E the number of edges
+     */
+    public static Components strongComponents(IGraph theGraph) {
+        long version = theGraph.modCount();
+        CsrGraph graph = CsrGraph.of(theGraph);
+        int[] componentOf = new int[graph.nodeCount()];
+        int count = strongComponents(graph, componentOf);
+        return new Components(componentOf, count, true, version);
+    }
+
+    /**
+     * Method to answer many route queries at once. Queries are grouped by their starting
+     *     node, a single breadth-first search tree is grown for each distinct start and every
+     *     target of that start is read off the same tree. The distinct starts are searched in
+     *     parallel on the common fork-join pool, so theGraph must not be modified during the call.
+     *
+     * @param theGraph the graph to traverse
+     * @param queries the (from, to) pairs to find shortest routes for
+     * @return a map from each query to its route, with an empty list for pairs that have
+     *         no route (a found route always contains at least its starting node)
+     */
+    public static HashMap<RouteQuery, LinkedList<String>> getRoutes(IGraph theGraph,
+                                                                  Collection<RouteQuery> queries) {
+        HashMap<String, ArrayList<RouteQuery>> bySource = new HashMap<>();
+        for (RouteQuery query : queries) {
+            bySource.computeIfAbsent(query.from, from -> new ArrayList<>()).add(query);
+        }
+        ConcurrentHashMap<RouteQuery, LinkedList<String>> routes = new ConcurrentHashMap<>(queries.size() * 2);
+        bySource.values().parallelStream().forEach(group -> routesFromSource(theGraph, group, routes));
+        return new HashMap<>(routes);
+    }
+
+    /**
+     * Helper method to answer every query sharing one starting node from a single search tree.
+     *     The search stops after the level in which the last of the targets is discovered
+     *
+     * @param theGraph the graph to traverse
+     * @param group the queries, all with the same from label
+     * @param routes map to put each query's route into
+     */
+    private static void routesFromSource(IGraph theGraph, ArrayList<RouteQuery> group,
+                                         Map<RouteQuery, LinkedList<String>> routes) {
+        int from = theGraph.idOf(group.get(0).from);
+        int[] targets = new int[group.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = theGraph.idOf(group.get(i).to);
+        }
+        BfsQueue toCheck = null;
+        if (from >= 0) {
+            toCheck = new BfsQueue(theGraph.nodeCount());
+            toCheck.start(from);
+            while (toCheck.head < toCheck.tail && !allDiscovered(toCheck, targets)) {
+                int levelEnd = toCheck.tail;
+                while (toCheck.head < levelEnd) {
+                    theGraph.forEachNeighbor(toCheck.next(), toCheck);
+                }
+            }
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (toCheck == null || targets[i] < 0 || toCheck.cameFrom[targets[i]] < 0) {
+                routes.put(group.get(i), new LinkedList<>());
             } else {
-                for (String neighbor : theGraph.getNeighbors(checkNode)) {
-                    if ((!visited.contains(neighbor))) {
-                        toCheck.add(neighbor);
-                        if (!cameFrom.containsKey(neighbor)) {
-                            cameFrom.put(neighbor, checkNode);
-                        }
-                    }
+                routes.put(group.get(i), constructRoute(theGraph, from, targets[i], toCheck.cameFrom));
+            }
+        }
+    }
+
+    /**
+     * Helper method to check whether a search has found every target that exists
+     *
+     * @param search the search in progress
+     * @param targets ids of the targets, with -1 for labels not in the graph
+     * @return true if no existing target is still undiscovered
+     */
+    private static boolean allDiscovered(BfsQueue search, int[] targets) {
+        for (int target : targets) {
+            if (target >= 0 && search.cameFrom[target] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to produce a shortest path from fromNodeLabel to toNodeLabel by
+     *     searching forwards from the start and backwards from the target at the
+     *     same time, always growing whichever frontier is smaller, until the two meet.
+     *     Returns a route of the same length as getRoute, but on wide graphs only
+     *     explores about the square root of the nodes getRoute would.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getRouteBidirectional(IGraph theGraph, String fromNodeLabel,
+                                                           String toNodeLabel) throws NoRouteException {
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (from < 0 || to < 0) {
+            throw new NoRouteException();
+        }
+        MeetingQueue forward = new MeetingQueue(theGraph.nodeCount());
+        MeetingQueue backward = new MeetingQueue(theGraph.nodeCount());
+        forward.other = backward;
+        backward.other = forward;
+        forward.start(from);
+        backward.start(to);
+        if (from == to) {
+            forward.meet = from;
+        }
+
+        while (forward.meet < 0 && backward.meet < 0) {
+            boolean expandForward = forward.frontierSize() <= backward.frontierSize();
+            MeetingQueue side = expandForward ? forward : backward;
+            if (side.frontierSize() == 0) {
+                throw new NoRouteException();
+            }
+            // a whole level is expanded at a time so each side's frontier stays one distance apart
+            int levelEnd = side.tail;
+            while (side.head < levelEnd && side.meet < 0) {
+                int checkNode = side.next();
+                if (expandForward) {
+                    theGraph.forEachNeighbor(checkNode, side);
+                } else {
+                    theGraph.forEachPredecessor(checkNode, side);
                 }
             }
         }
-        if (!visited.contains(toNodeLabel)) {
+        int meet = Math.max(forward.meet, backward.meet);
+        LinkedList<String> route = constructRoute(theGraph, from, meet, forward.cameFrom);
+        for (int node = meet; node != to; ) {
+            node = backward.cameFrom[node];
+            route.addLast(theGraph.labelOf(node));
+        }
+        return route;
+    }
+
+    /**
+     * Method to produce a lowest total weight path from fromNodeLabel to toNodeLabel
+     *     using Dijkstra's algorithm. Edges added without a weight cost 1.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     *
+     * Runtime:
+     *      O((N + E) log N) Where N is the number of nodes and E the number of edges
+     */
+    public static LinkedList<String> getShortestRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel)
+            throws NoRouteException {
+        return getShortestRoute(theGraph, fromNodeLabel, toNodeLabel, node -> 0);
+    }
+
+    /**
+     * Method to produce a lowest total weight path from fromNodeLabel to toNodeLabel
+     *     using A* search. The heuristic estimates the remaining cost from a node id to
+     *     the target; as long as it never overestimates, the route found is optimal, and
+     *     the closer it gets to the true cost the fewer nodes are explored.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param heuristic estimate of the cost from a node id to toNodeLabel
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getShortestRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                                      IntToDoubleFunction heuristic) throws NoRouteException {
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (from < 0 || to < 0) {
             throw new NoRouteException();
         }
-        return new LinkedList<>();
+        CostQueue toCheck = new CostQueue(theGraph.nodeCount(), heuristic);
+        toCheck.start(from);
+
+        while (!toCheck.heap.isEmpty()) {
+            int checkNode = toCheck.next();
+            if (checkNode == to) {
+                return constructRoute(theGraph, from, to, toCheck.cameFrom);
+            }
+            theGraph.forEachWeightedNeighbor(checkNode, toCheck);
+        }
+        throw new NoRouteException();
+    }
+
+    /**
+     * Helper class holding the priority queue, best known costs and parent array of one
+     * Dijkstra or A* search. Like BfsQueue it is its own neighbor callback
+     */
+    static class CostQueue implements WeightedEdgeConsumer {
+        IndexedMinHeap heap;
+        double[] cost;
+        int[] cameFrom;
+        IntToDoubleFunction heuristic;
+        int current;
+
+        /**
+         * Constructor for a search over a graph with a given number of nodes
+         *
+         * @param nodeCount number of node ids in the graph
+         * @param heuristic estimate of the remaining cost from a node id
+         */
+        CostQueue(int nodeCount, IntToDoubleFunction heuristic) {
+            this.heap = new IndexedMinHeap(nodeCount);
+            this.cost = new double[nodeCount];
+            Arrays.fill(this.cost, Double.POSITIVE_INFINITY);
+            this.cameFrom = new int[nodeCount];
+            Arrays.fill(this.cameFrom, -1);
+            this.heuristic = heuristic;
+        }
+
+        /**
+         * Method to seed the search with its source node
+         *
+         * @param source id of the source node, recorded as its own parent
+         */
+        void start(int source) {
+            this.cost[source] = 0;
+            this.cameFrom[source] = source;
+            this.heap.insert(source, this.heuristic.applyAsDouble(source));
+        }
+
+        /**
+         * Method to remove the node with the lowest estimated total cost
+         *
+         * @return id of that node
+         */
+        int next() {
+            this.current = this.heap.pollMin();
+            return this.current;
+        }
+
+        /**
+         * Relaxes the edge from the current node to a neighbor, queueing the neighbor
+         * again if the edge gives it a cheaper route
+         *
+         * @param neighbor id of the neighbor
+         * @param weight cost of the edge to it
+         */
+        @Override
+        public void accept(int neighbor, double weight) {
+            double newCost = this.cost[this.current] + weight;
+            if (newCost < this.cost[neighbor]) {
+                this.cost[neighbor] = newCost;
+                this.cameFrom[neighbor] = this.current;
+                double priority = newCost + this.heuristic.applyAsDouble(neighbor);
+                if (this.heap.contains(neighbor)) {
+                    this.heap.decreaseKey(neighbor, priority);
+                } else {
+                    this.heap.insert(neighbor, priority);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper class for one side of a bidirectional search, which notes the first
+     * node it discovers that the other side has already reached
+     */
+    static class MeetingQueue extends BfsQueue {
+        MeetingQueue other;
+        int meet = -1;
+
+        /**
+         * Constructor for one side of a search over a graph with a given number of nodes
+         *
+         * @param nodeCount number of node ids in the graph
+         */
+        MeetingQueue(int nodeCount) {
+            super(nodeCount);
+        }
+
+        /**
+         * Method to get the number of discovered nodes still waiting to be expanded
+         *
+         * @return size of the frontier
+         */
+        int frontierSize() {
+            return this.tail - this.head;
+        }
+
+        /**
+         * Enqueues a node if this side has not seen it, and records a meeting if the other side has
+         *
+         * @param neighbor id of the discovered node
+         */
+        @Override
+        public void accept(int neighbor) {
+            if (this.cameFrom[neighbor] < 0) {
+                super.accept(neighbor);
+                if (this.meet < 0 && this.other.cameFrom[neighbor] >= 0) {
+                    this.meet = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper class holding a visited bitset and queue that hasRoute reuses between queries
+     *     on the same thread. Only the bits of discovered nodes are cleared afterwards,
+     *     so the cost of a query does not depend on the size of the graph
+     */
+    static class ReachScratch implements IntConsumer {
+        long[] visited = new long[0];
+        int[] queue = new int[0];
+        int tail;
+        int target;
+        boolean found;
+
+        /**
+         * Method to prepare for a query, growing the buffers if the graph has outgrown them
+         *
+         * @param nodeCount number of node ids in the graph
+         * @param source id of the node to start from
+         * @param target id of the node to look for
+         */
+        void start(int nodeCount, int source, int target) {
+            if (this.queue.length < nodeCount) {
+                this.queue = new int[nodeCount];
+                this.visited = new long[(nodeCount + 63) >>> 6];
+            }
+            this.target = target;
+            this.found = false;
+            this.tail = 0;
+            this.accept(source);
+        }
+
+        /**
+         * Method to clear the bits set by the last query
+         */
+        void finish() {
+            for (int i = 0; i < this.tail; i++) {
+                this.visited[this.queue[i] >>> 6] = 0;
+            }
+            this.tail = 0;
+        }
+
+        /**
+         * Marks and enqueues a discovered node, noting if it is the target
+         *
+         * @param node id of the discovered node
+         */
+        @Override
+        public void accept(int node) {
+            long bit = 1L << node;
+            if ((this.visited[node >>> 6] & bit) == 0) {
+                this.visited[node >>> 6] |= bit;
+                this.queue[this.tail++] = node;
+                this.found |= node == this.target;
+            }
+        }
+    }
+
+    /**
+     * Helper class holding the queue and parent array of one breadth-first search.
+     * It is its own neighbor callback, so expanding a node allocates nothing
+     */
+    static class BfsQueue implements IntConsumer {
+        int[] cameFrom;
+        int[] queue;
+        int head;
+        int tail;
+        int current;
+
+        /**
+         * Constructor for a search over a graph with a given number of nodes
+         *
+         * @param nodeCount number of node ids in the graph
+         */
+        BfsQueue(int nodeCount) {
+            this.cameFrom = new int[nodeCount];
+            Arrays.fill(this.cameFrom, -1);
+            this.queue = new int[nodeCount];
+        }
+
+        /**
+         * Method to seed the search with its source node
+         *
+         * @param source id of the source node, recorded as its own parent
+         */
+        void start(int source) {
+            this.cameFrom[source] = source;
+            this.queue[this.tail++] = source;
+        }
+
+        /**
+         * Method to dequeue the next node to expand
+         *
+         * @return id of the dequeued node
+         */
+        int next() {
+            this.current = this.queue[this.head++];
+            return this.current;
+        }
+
+        /**
+         * Enqueues a neighbor of the current node if it has not been seen before
+         *
+         * @param neighbor id of the neighbor
+         */
+        @Override
+        public void accept(int neighbor) {
+            if (this.cameFrom[neighbor] < 0) {
+                this.cameFrom[neighbor] = this.current;
+                this.queue[this.tail++] = neighbor;
+            }
+        }
+    }
+
+    /**
+     * Helper method to label every node with its strongly connected component using
+     *     Tarjan's algorithm, driven by an explicit stack so deep graphs cannot overflow
+     *     the call stack. Components are numbered in the order they complete, which is
+     *     a reverse topological order of the condensation
+     *
+     * @param graph the graph to split
+     * @param componentOf array to fill with the component of each node id, or -1 for ids left by removed nodes
+     * @return the number of components
+     */
+    static int strongComponents(CsrGraph graph, int[] componentOf) {
+        int nodeCount = graph.nodeCount();
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        int[] cursor = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        int[] componentStack = new int[nodeCount];
+        Arrays.fill(index, -1);
+        Arrays.fill(componentOf, -1);
+        int counter = 0;
+        int componentCount = 0;
+        int componentTop = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            // no edge leads to a removed id, so skipping it as a root leaves it in no component
+            if (index[root] >= 0 || !graph.hasNode(root)) {
+                continue;
+            }
+            int callTop = 0;
+            callStack[callTop++] = root;
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                if (index[node] < 0) {
+                    index[node] = counter;
+                    low[node] = counter++;
+                    cursor[node] = graph.offsets[node];
+                    componentStack[componentTop++] = node;
+                }
+                if (cursor[node] < graph.offsets[node + 1]) {
+                    int neighbor = graph.targets[cursor[node]++];
+                    if (index[neighbor] < 0) {
+                        callStack[callTop++] = neighbor;
+                    } else if (componentOf[neighbor] < 0) {
+                        low[node] = Math.min(low[node], index[neighbor]);
+                    }
+                    continue;
+                }
+                callTop--;
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = componentStack[--componentTop];
+                        componentOf[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return componentCount;
     }
 
     /**
      * Helper method to reconstruct the route to the target node
      *
-     * @param endNode Target node that the route ended on
-     * @param prevMap Map of nodes to the node they were originally found via
-     * @return a list in order from the starting node of the route to the endNode
+     * @param theGraph the graph that was traversed
+     * @param startNode id of the node the route starts from
+     * @param endNode id of the node that the route ended on
+     * @param prevMap array from each node id to the id it was originally found via
+     * @return a list of labels in order from the starting node of the route to the endNode
      */
-    private static LinkedList<String> constructRoute(String endNode, HashMap<String, String> prevMap) {
+    static LinkedList<String> constructRoute(IGraph theGraph, int startNode, int endNode, int[] prevMap) {
         LinkedList<String> route = new LinkedList<>();
-        String currentNode = endNode;
-        while (prevMap.containsKey(currentNode)) {
-            route.addFirst(currentNode);
-            currentNode = prevMap.get(currentNode);
+        int currentNode = endNode;
+        while (currentNode != startNode) {
+            route.addFirst(theGraph.labelOf(currentNode));
+            currentNode = prevMap[currentNode];
         }
+        route.addFirst(theGraph.labelOf(startNode));
         return route;
     }
-}
\ No newline at end of file
+}
@@ -3,15 +3,45 @@ package test;
 import org.junit.Assert;
 import org.junit.Test;
 
+import sol.AdaptiveGraph;
+import sol.Components;
+import sol.ConcurrentGraph;
 import sol.EdgeArrayGraph;
+import sol.EdgeListLoader;
+import sol.GraphUtils;
+import sol.GraphFile;
+import sol.GraphListener;
 import sol.IGraph;
+import sol.LoadStats;
+import sol.MappedGraph;
 import sol.NodeEdgeGraph;
+import sol.OffHeapGraph;
+import sol.ParallelBfs;
+import sol.ReachabilityIndex;
+import sol.RouteCache;
+import sol.RouteQuery;
+import sol.VersionedGraph;
 import src.NoRouteException;
 import src.NodeNameExistsException;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import static sol.GraphUtils.getRoute;
+import static sol.GraphUtils.hasRoute;
+import static sol.GraphUtils.getRouteBidirectional;
+import static sol.GraphUtils.getRoutes;
+import static sol.GraphUtils.getShortestRoute;
 
 public class GraphUtilsTest {
     // Assumes that graph will be empty, modifies it in-place
@@ -187,6 +217,936 @@ public class GraphUtilsTest {
             Assert.fail();
         }
     }
+    @Test
+    public void testArrayGraphPastWordBoundary() throws NodeNameExistsException {
+        IGraph graph = new EdgeArrayGraph("");
+        for (int i = 0; i < 130; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        for (int i = 1; i < 130; i++) {
+            graph.addDirectedEdge("0", Integer.toString(i));
+        }
+        Assert.assertTrue(graph.reachesAllOthers("0"));
+        Assert.assertFalse(graph.reachesAllOthers("129"));
+        Assert.assertEquals(129, graph.getNeighbors("0").size());
+        graph.addDirectedEdge("129", "129");
+        graph.addDirectedEdge("63", "63");
+        Assert.assertEquals(2, graph.countSelfEdges());
+        Assert.assertTrue(graph.getNeighbors("63").contains("63"));
+        graph.addNode("130");
+        Assert.assertFalse(graph.reachesAllOthers("0"));
+    }
+
+    @Test
+    public void testFrozenGraphMatchesSource() throws NodeNameExistsException, NoRouteException {
+        IGraph graph = createGraph4(false);
+        graph.addDirectedEdge("6", "6");
+        IGraph frozen = graph.freeze();
+        Assert.assertEquals(graph.getAllNodes(), frozen.getAllNodes());
+        for (String node : graph.getAllNodes()) {
+            Assert.assertEquals(graph.getNeighbors(node), frozen.getNeighbors(node));
+            Assert.assertEquals(graph.reachesAllOthers(node), frozen.reachesAllOthers(node));
+        }
+        Assert.assertEquals(1, frozen.countSelfEdges());
+        Assert.assertTrue(checkValidRoute(frozen, getRoute(frozen, "4", "6"), "4", "6", 3));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> frozen.addDirectedEdge("1", "7"));
+    }
+
+    @Test
+    public void testIntHandlesMatchLabels() throws NodeNameExistsException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createGraph3(isArray);
+            Assert.assertEquals(4, graph.nodeCount());
+            Assert.assertEquals(-1, graph.idOf("missing"));
+            for (String node : graph.getAllNodes()) {
+                int id = graph.idOf(node);
+                Assert.assertEquals(node, graph.labelOf(id));
+                LinkedList<String> viaIds = new LinkedList<>();
+                graph.forEachNeighbor(id, neighbor -> viaIds.add(graph.labelOf(neighbor)));
+                Assert.assertEquals(graph.getNeighbors(node), viaIds);
+            }
+        }
+    }
+
+    @Test
+    public void testHasEdgeHighDegree() {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            for (int i = 0; i < 200; i++) {
+                graph.addDirectedEdge("hub", Integer.toString(i));
+                graph.addDirectedEdge("hub", Integer.toString(i));
+            }
+            Assert.assertEquals(200, graph.getNeighbors("hub").size());
+            Assert.assertEquals("0", graph.getNeighbors("hub").getFirst());
+            Assert.assertEquals("199", graph.getNeighbors("hub").getLast());
+            Assert.assertTrue(graph.hasEdge("hub", "150"));
+            Assert.assertFalse(graph.hasEdge("150", "hub"));
+            Assert.assertFalse(graph.hasEdge("hub", "missing"));
+            Assert.assertTrue(graph.reachesAllOthers("hub"));
+            Assert.assertTrue(graph.freeze().hasEdge("hub", "199"));
+        }
+    }
+
+    @Test
+    public void testBidirectionalMatchesRouteLength() throws NodeNameExistsException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createRandomGraph(isArray, 150, 300, 7);
+            for (IGraph g : new IGraph[] {graph, graph.freeze()}) {
+                for (int from = 0; from < 150; from += 7) {
+                    for (int to = 0; to < 150; to += 5) {
+                        String fromNode = Integer.toString(from);
+                        String toNode = Integer.toString(to);
+                        try {
+                            int length = getRoute(g, fromNode, toNode).size();
+                            Assert.assertTrue(checkValidRoute(g, getRouteBidirectional(g, fromNode, toNode),
+                                    fromNode, toNode, length));
+                        } catch (NoRouteException e) {
+                            Assert.assertThrows(NoRouteException.class,
+                                    () -> getRouteBidirectional(g, fromNode, toNode));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBfsMatchesGetRoute() throws NodeNameExistsException, NoRouteException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            // dense enough that the middle levels switch to bottom-up steps
+            IGraph graph = createRandomGraph(isArray, 3000, 30000, 11);
+            ParallelBfs.Result result = new ParallelBfs().search(graph, "0");
+            for (int to = 0; to < 3000; to += 13) {
+                String toNode = Integer.toString(to);
+                try {
+                    int length = getRoute(graph, "0", toNode).size();
+                    Assert.assertEquals(length - 1, result.distanceTo(toNode));
+                    Assert.assertTrue(checkValidRoute(graph, result.routeTo(toNode), "0", toNode, length));
+                } catch (NoRouteException e) {
+                    Assert.assertEquals(-1, result.distanceTo(toNode));
+                    Assert.assertThrows(NoRouteException.class, () -> result.routeTo(toNode));
+                }
+            }
+        }
+        IGraph graph = createGraph4(false);
+        ParallelBfs.Result result = new ParallelBfs().search(graph, "4");
+        Assert.assertEquals(0, result.distanceTo("4"));
+        Assert.assertEquals(2, result.distanceTo("6"));
+        Assert.assertEquals(-1, result.distanceTo("1"));
+    }
+
+    @Test
+    public void testShortestRouteUsesWeights() throws NoRouteException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            graph.addDirectedEdge("a", "b", 10);
+            graph.addDirectedEdge("b", "d", 10);
+            graph.addDirectedEdge("a", "c", 1);
+            graph.addDirectedEdge("c", "e", 1);
+            graph.addDirectedEdge("e", "d", 1);
+            graph.addDirectedEdge("x", "a");
+            Assert.assertEquals(3, getRoute(graph, "a", "d").size());
+            LinkedList<String> route = getShortestRoute(graph, "a", "d");
+            Assert.assertTrue(checkValidRoute(graph, route, "a", "d", 4));
+            Assert.assertEquals("c", route.get(1));
+            // replacing a weight makes the direct route cheaper again
+            graph.addDirectedEdge("b", "d", 0.5);
+            graph.addDirectedEdge("a", "b", 0.5);
+            Assert.assertEquals(3, getShortestRoute(graph, "a", "d").size());
+            Assert.assertEquals(4, getShortestRoute(graph.freeze(), "x", "d").size());
+            Assert.assertThrows(NoRouteException.class, () -> getShortestRoute(graph, "d", "a"));
+            Assert.assertThrows(IllegalArgumentException.class, () -> graph.addDirectedEdge("a", "d", -1));
+        }
+    }
+
+    @Test
+    public void testAStarOnGrid() throws NoRouteException {
+        // a 20 x 20 grid where each step costs 1, with Manhattan distance as the heuristic
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            for (int x = 0; x < 20; x++) {
+                for (int y = 0; y < 20; y++) {
+                    if (x < 19) graph.addUndirectedEdge(x + "," + y, (x + 1) + "," + y, 1);
+                    if (y < 19) graph.addUndirectedEdge(x + "," + y, x + "," + (y + 1), 1);
+                }
+            }
+            LinkedList<String> route = getShortestRoute(graph, "0,0", "19,19", node -> {
+                String[] parts = graph.labelOf(node).split(",");
+                return (19 - Integer.parseInt(parts[0])) + (19 - Integer.parseInt(parts[1]));
+            });
+            Assert.assertTrue(checkValidRoute(graph, route, "0,0", "19,19", 39));
+            Assert.assertEquals(39, getShortestRoute(graph, "0,0", "19,19").size());
+        }
+    }
+
+    @Test
+    public void testRouteCacheInvalidatesOnChange() throws NodeNameExistsException, NoRouteException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createGraph4(isArray);
+            RouteCache cache = new RouteCache(graph, 2);
+            Assert.assertEquals(getRoute(graph, "1", "3"), cache.getRoute("1", "3"));
+            cache.getRoute("1", "3").clear();
+            Assert.assertEquals(3, cache.getRoute("1", "3").size());
+            Assert.assertThrows(NoRouteException.class, () -> cache.getRoute("1", "4"));
+            Assert.assertThrows(NoRouteException.class, () -> cache.getRoute("1", "4"));
+            Assert.assertEquals(3, cache.hitCount());
+            Assert.assertEquals(2, cache.missCount());
+            Assert.assertEquals(0.6, cache.hitRate(), 1e-9);
+
+            cache.getRoute("4", "6");
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals(1, cache.evictionCount());
+
+            // a repeated edge changes nothing, a new one drops the cached negative result
+            graph.addDirectedEdge("1", "2");
+            cache.getRoute("4", "6");
+            Assert.assertEquals(0, cache.invalidationCount());
+            graph.addDirectedEdge("3", "4");
+            Assert.assertTrue(checkValidRoute(graph, cache.getRoute("1", "4"), "1", "4", 4));
+            Assert.assertEquals(1, cache.invalidationCount());
+        }
+    }
+
+    @Test
+    public void testRouteCacheServesConcurrentCallers() throws NodeNameExistsException {
+        IGraph graph = createRandomGraph(false, 300, 900, 11);
+        RouteCache cache = new RouteCache(graph, 64);
+        // searches run outside the cache's lock, so callers overlap, yet every answer matches
+        Assert.assertTrue(IntStream.range(0, 4000).parallel().allMatch(i -> {
+            String from = Integer.toString(i % 37);
+            String to = Integer.toString(i * 13 % 300);
+            int expected;
+            try {
+                expected = getRoute(graph, from, to).size();
+            } catch (NoRouteException e) {
+                expected = -1;
+            }
+            try {
+                return cache.getRoute(from, to).size() == expected;
+            } catch (NoRouteException e) {
+                return expected == -1;
+            }
+        }));
+        Assert.assertEquals(4000, cache.hitCount() + cache.missCount());
+        Assert.assertTrue(cache.size() <= 64);
+    }
+
+    @Test
+    public void testGetRoutesBatch() throws NodeNameExistsException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createRandomGraph(isArray, 200, 400, 3);
+            ArrayList<RouteQuery> queries = new ArrayList<>();
+            for (int from = 0; from < 200; from += 17) {
+                for (int to = 0; to < 200; to += 9) {
+                    queries.add(new RouteQuery(Integer.toString(from), Integer.toString(to)));
+                }
+            }
+            queries.add(new RouteQuery("0", "missing"));
+            queries.add(new RouteQuery("missing", "0"));
+            HashMap<RouteQuery, LinkedList<String>> routes = getRoutes(graph, queries);
+            Assert.assertEquals(queries.size(), routes.size());
+            for (RouteQuery query : queries) {
+                LinkedList<String> route = routes.get(query);
+                try {
+                    int length = getRoute(graph, query.getFrom(), query.getTo()).size();
+                    Assert.assertTrue(checkValidRoute(graph, route, query.getFrom(), query.getTo(), length));
+                } catch (NoRouteException e) {
+                    Assert.assertTrue(route.isEmpty());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReachabilityIndexMatchesGetRoute() throws NodeNameExistsException {
+        // a limit of no components makes every query search the condensation instead of testing bits
+        for (int limit : new int[] {ReachabilityIndex.MAX_BITSET_COMPONENTS, 0}) {
+            for (boolean isArray : new boolean[] {true, false}) {
+                IGraph graph = createRandomGraph(isArray, 120, 150, 5);
+                ReachabilityIndex index = new ReachabilityIndex(graph, limit);
+                Assert.assertEquals(limit > 0, index.hasBitsets());
+                Assert.assertTrue(index.componentCount() <= 120);
+                Random random = new Random(9);
+                for (int round = 0; round < 4; round++) {
+                    for (int from = 0; from < 120; from += 3) {
+                        for (int to = 0; to < 120; to += 4) {
+                            Assert.assertEquals(hasRouteByBfs(graph, Integer.toString(from), Integer.toString(to)),
+                                    index.hasRoute(Integer.toString(from), Integer.toString(to)));
+                        }
+                    }
+                    // alternate edges added through the index and behind its back
+                    for (int i = 0; i < 10; i++) {
+                        String from = Integer.toString(random.nextInt(120));
+                        String to = Integer.toString(random.nextInt(120));
+                        if (round % 2 == 0) index.addDirectedEdge(from, to);
+                        else graph.addDirectedEdge(from, to);
+                    }
+                }
+                Assert.assertFalse(index.hasRoute("0", "missing"));
+                index.addDirectedEdge("0", "new node");
+                Assert.assertTrue(index.hasRoute("0", "new node"));
+            }
+        }
+    }
+
+    @Test
+    public void testReachabilityIndexLabelsLargeCondensations() {
+        IGraph graph = new NodeEdgeGraph("chain");
+        int length = ReachabilityIndex.MAX_BITSET_COMPONENTS + 1000;
+        for (int i = 1; i < length; i++) {
+            graph.addDirectedEdge("n" + (i - 1), "n" + i);
+        }
+        ReachabilityIndex index = new ReachabilityIndex(graph);
+        Assert.assertEquals(length, index.componentCount());
+        Assert.assertFalse(index.hasBitsets());
+        // a chain reaches C * C / 2 pairs, but its labels stay near C log C
+        Assert.assertTrue(index.labelSize() < 64L * length);
+        Assert.assertTrue(index.hasRoute("n0", "n" + (length - 1)));
+        Assert.assertTrue(index.hasRoute("n5", "n5"));
+        Assert.assertFalse(index.hasRoute("n" + (length - 1), "n0"));
+        Random random = new Random(4);
+        for (int i = 0; i < 2000; i++) {
+            int from = random.nextInt(length);
+            int to = random.nextInt(length);
+            Assert.assertEquals(from <= to, index.hasRoute("n" + from, "n" + to));
+        }
+
+        // a change behind the index's back is picked up by whichever query sees it first
+        graph.addDirectedEdge("n" + (length - 1), "side");
+        Assert.assertTrue(IntStream.range(0, 2000).parallel()
+                .allMatch(i -> index.hasRoute("n" + (i * 7 % length), "side")));
+
+        // closing the chain into a cycle leaves few components, small enough for bitsets again
+        index.addDirectedEdge("n" + (length - 1), "n0");
+        Assert.assertTrue(index.hasRoute("n" + (length - 1), "n0"));
+        Assert.assertEquals(2, index.componentCount());
+        Assert.assertTrue(index.hasBitsets());
+    }
+
+    @Test
+    public void testComponentsMatchRoutes() throws NodeNameExistsException, NoRouteException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createRandomGraph(isArray, 150, 140, 17);
+            Components weak = GraphUtils.weakComponents(graph);
+            Components strong = GraphUtils.strongComponents(graph);
+            Assert.assertTrue(weak.count() <= strong.count());
+            for (int from = 0; from < 150; from += 2) {
+                for (int to = 0; to < 150; to += 3) {
+                    String fromLabel = Integer.toString(from);
+                    String toLabel = Integer.toString(to);
+                    int fromId = graph.idOf(fromLabel);
+                    int toId = graph.idOf(toLabel);
+                    boolean forward = hasRouteByBfs(graph, fromLabel, toLabel);
+                    boolean backward = hasRouteByBfs(graph, toLabel, fromLabel);
+                    Assert.assertEquals(forward && backward, strong.componentOf(fromId) == strong.componentOf(toId));
+                    if (forward || backward) {
+                        Assert.assertEquals(weak.componentOf(fromId), weak.componentOf(toId));
+                    }
+                    if (weak.separates(fromId, toId) || strong.separates(fromId, toId)) {
+                        Assert.assertFalse(forward);
+                    }
+                    if (forward) {
+                        Assert.assertEquals(getRoute(graph, fromLabel, toLabel).size(),
+                                GraphUtils.getRoute(graph, fromLabel, toLabel, strong).size());
+                    } else {
+                        Assert.assertThrows(NoRouteException.class,
+                                () -> GraphUtils.getRoute(graph, fromLabel, toLabel, weak));
+                    }
+                }
+            }
+            int total = 0;
+            for (int c = 0; c < weak.count(); c++) {
+                total += weak.sizeOf(c);
+            }
+            Assert.assertEquals(graph.nodeCount(), total);
+
+            // components from before a change are not trusted
+            graph.addDirectedEdge("new node", "0");
+            Assert.assertFalse(weak.isCurrent(graph));
+            Assert.assertEquals(2, GraphUtils.getRoute(graph, "new node", "0", weak).size());
+        }
+    }
+
+    @Test
+    public void testStrongComponentsOnLongChain() {
+        IGraph graph = new NodeEdgeGraph("");
+        for (int i = 0; i < 200000; i++) {
+            graph.addDirectedEdge(Integer.toString(i), Integer.toString(i + 1));
+        }
+        graph.addDirectedEdge("200000", "0");
+        Components strong = GraphUtils.strongComponents(graph);
+        Assert.assertEquals(1, strong.count());
+        Assert.assertEquals(200001, strong.sizeOf(0));
+    }
+
+    @Test
+    public void testComponentsSkipRemovedNodes() {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            graph.addDirectedEdge("c", "d");
+            graph.addUndirectedEdge("a", "b");
+            graph.addDirectedEdge("e", "e");
+            Assert.assertTrue(graph.removeNode("c"));
+            Assert.assertTrue(graph.removeNode("d"));
+            Assert.assertTrue(graph.removeNode("e"));
+            for (Components components : new Components[] {GraphUtils.weakComponents(graph),
+                    GraphUtils.strongComponents(graph)}) {
+                Assert.assertEquals(1, components.count());
+                Assert.assertEquals(2, components.sizeOf(0));
+                Assert.assertEquals(-1, components.componentOf(0));
+                Assert.assertEquals(0, components.componentOf(graph.idOf("a")));
+                Assert.assertEquals(2, components.members().length);
+                Assert.assertEquals(2, components.memberStart()[1]);
+            }
+            Assert.assertEquals(1, new ReachabilityIndex(graph).componentCount());
+        }
+    }
+
+    @Test
+    public void testVersionedSnapshotsAreIsolated() throws NodeNameExistsException, NoRouteException {
+        VersionedGraph graph = new VersionedGraph("");
+        graph.addDirectedEdge("a", "b");
+        VersionedGraph.Snapshot first = graph.commit();
+        graph.addDirectedEdge("b", "c", 2.0);
+        graph.addDirectedEdge("a", "b", 5.0);
+        Assert.assertTrue(graph.hasEdge("b", "c"));
+        Assert.assertEquals(first, graph.snapshot());
+        VersionedGraph.Snapshot second = graph.commit();
+
+        Assert.assertEquals(2, first.nodeCount());
+        Assert.assertEquals(-1, first.idOf("c"));
+        Assert.assertThrows(NoRouteException.class, () -> getRoute(first, "a", "c"));
+        Assert.assertEquals(3, getRoute(second, "a", "c").size());
+        Assert.assertEquals(1.0, weightOf(first, "a", "b"), 0.0);
+        Assert.assertEquals(5.0, weightOf(second, "a", "b"), 0.0);
+        Assert.assertThrows(UnsupportedOperationException.class, () -> second.addDirectedEdge("c", "a"));
+
+        // re-weighting the last edge of a row that older versions share must not change them
+        graph.addDirectedEdge("b", "c", 7.0);
+        VersionedGraph.Snapshot third = graph.commit();
+        Assert.assertEquals(2.0, weightOf(second, "b", "c"), 0.0);
+        Assert.assertEquals(7.0, weightOf(third, "b", "c"), 0.0);
+        VersionedGraph reweighted = new VersionedGraph("");
+        reweighted.addDirectedEdge("a", "b", 2.0);
+        VersionedGraph.Snapshot before = reweighted.commit();
+        reweighted.addDirectedEdge("a", "b", 5.0);
+        VersionedGraph.Snapshot after = reweighted.commit();
+        Assert.assertEquals(2.0, weightOf(before, "a", "b"), 0.0);
+        Assert.assertEquals(5.0, weightOf(after, "a", "b"), 0.0);
+
+        // enough nodes for a three level trie, keeping every version to check later
+        ArrayList<VersionedGraph.Snapshot> versions = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            graph.addDirectedEdge(Integer.toString(i), Integer.toString((i * 7) % 3000));
+            graph.addDirectedEdge(Integer.toString(i), "a");
+            if (i % 100 == 99) {
+                versions.add(graph.commit());
+            }
+        }
+        for (int v = 0; v < versions.size(); v++) {
+            VersionedGraph.Snapshot version = versions.get(v);
+            int edges = 0;
+            for (int id = 0; id < version.nodeCount(); id++) {
+                int[] count = new int[1];
+                version.forEachNeighbor(id, neighbor -> count[0]++);
+                edges += count[0];
+            }
+            Assert.assertEquals(2 + (v + 1) * 200, edges);
+            Assert.assertTrue(version.hasEdge(Integer.toString(v * 100 + 99), "a"));
+            Assert.assertFalse(version.hasEdge(Integer.toString(v * 100 + 100), "a"));
+            int[] predecessors = new int[1];
+            version.forEachPredecessor(version.idOf("a"), predecessor -> predecessors[0]++);
+            Assert.assertEquals((v + 1) * 100, predecessors[0]);
+        }
+        Assert.assertEquals(graph.nodeCount(), graph.snapshot().nodeCount());
+        Assert.assertEquals(graph.getAllNodes(), graph.snapshot().getAllNodes());
+    }
+
+    private double weightOf(IGraph graph, String from, String to) {
+        double[] weight = {Double.NaN};
+        int target = graph.idOf(to);
+        graph.forEachWeightedNeighbor(graph.idOf(from), (neighbor, cost) -> {
+            if (neighbor == target) weight[0] = cost;
+        });
+        return weight[0];
+    }
+
+    @Test
+    public void testMappedGraphMatchesSource() throws NodeNameExistsException, NoRouteException, IOException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createRandomGraph(isArray, 200, 600, 23);
+            graph.addDirectedEdge("citt\u00e0", "0", 2.5);
+            graph.addDirectedEdge("0", "0");
+            Path file = Files.createTempFile("graph", ".bin");
+            try {
+                GraphFile.write(graph, file);
+                MappedGraph mapped = GraphFile.load(file);
+                Assert.assertEquals(graph.nodeCount(), mapped.nodeCount());
+                Assert.assertEquals(graph.getAllNodes(), mapped.getAllNodes());
+                Assert.assertEquals(graph.countSelfEdges(), mapped.countSelfEdges());
+                Assert.assertEquals(-1, mapped.idOf("missing"));
+                for (int id = 0; id < graph.nodeCount(); id++) {
+                    String label = graph.labelOf(id);
+                    Assert.assertEquals(id, mapped.idOf(label));
+                    Assert.assertEquals(label, mapped.labelOf(id));
+                    Assert.assertEquals(new HashSet<>(graph.getNeighbors(label)), new HashSet<>(mapped.getNeighbors(label)));
+                    Assert.assertEquals(graph.reachesAllOthers(label), mapped.reachesAllOthers(label));
+                    int[] predecessors = new int[2];
+                    graph.forEachPredecessor(id, p -> predecessors[0] += p + 1);
+                    mapped.forEachPredecessor(id, p -> predecessors[1] += p + 1);
+                    Assert.assertEquals(predecessors[0], predecessors[1]);
+                }
+                Assert.assertTrue(mapped.hasEdge("0", "0"));
+                Assert.assertEquals(2.5, weightOf(mapped, "citt\u00e0", "0"), 0.0);
+                Assert.assertEquals(1.0, weightOf(mapped, "0", "0"), 0.0);
+                for (int to = 0; to < 200; to += 7) {
+                    String toLabel = Integer.toString(to);
+                    if (hasRouteByBfs(graph, "1", toLabel)) {
+                        Assert.assertEquals(getRoute(graph, "1", toLabel).size(), getRoute(mapped, "1", toLabel).size());
+                    } else {
+                        Assert.assertFalse(hasRoute(mapped, "1", toLabel));
+                    }
+                }
+                Assert.assertThrows(UnsupportedOperationException.class, () -> mapped.addNode("x"));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testMappedGraphRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            Files.write(file, new byte[200]);
+            Assert.assertThrows(IOException.class, () -> GraphFile.load(file));
+            Files.write(file, new byte[10]);
+            Assert.assertThrows(IOException.class, () -> GraphFile.load(file));
+
+            GraphFile.write(new NodeEdgeGraph(""), file);
+            Assert.assertEquals(0, GraphFile.load(file).nodeCount());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBulkAddsMatchSingleAdds() {
+        for (IGraph graph : new IGraph[] {new NodeEdgeGraph("g"), new EdgeArrayGraph("g"),
+                new ConcurrentGraph("g"), new VersionedGraph("g"), new OffHeapGraph("g"), new AdaptiveGraph("g")}) {
+            IGraph expected = new NodeEdgeGraph("expected");
+            graph.addDirectedEdge("b", "a");
+            expected.addDirectedEdge("b", "a");
+            ArrayList<String> labels = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                labels.add(Integer.toString(i % 250));
+            }
+            labels.add("a");
+            int[] ids = graph.addNodes(labels);
+            Assert.assertEquals(labels.size(), ids.length);
+            for (int i = 0; i < labels.size(); i++) {
+                Assert.assertEquals(labels.get(i), graph.labelOf(ids[i]));
+            }
+            Assert.assertEquals(252, graph.nodeCount());
+            Assert.assertEquals(graph.idOf("a"), ids[ids.length - 1]);
+
+            int[] addedEdges = new int[1];
+            GraphListener counter = new GraphListener() {
+                public void nodeAdded(int id) {}
+                public void edgeAdded(int from, int to) { addedEdges[0]++; }
+            };
+            graph.addListener(counter);
+            Random random = new Random(37);
+            int[] from = new int[4000];
+            int[] to = new int[4000];
+            double[] weights = new double[4000];
+            for (int i = 0; i < from.length; i++) {
+                // the first edge already exists, so it is not added again
+                from[i] = i == 0 ? graph.idOf("b") : random.nextInt(60);
+                to[i] = i == 0 ? graph.idOf("a") : random.nextInt(60);
+                weights[i] = random.nextInt(8) / 2.0;
+                expected.addDirectedEdge(graph.labelOf(from[i]), graph.labelOf(to[i]));
+            }
+            graph.addEdges(from, to);
+            int distinct = 0;
+            for (int id = 0; id < expected.nodeCount(); id++) {
+                distinct += expected.getNeighbors(expected.labelOf(id)).size();
+            }
+            Assert.assertEquals(distinct - 1, addedEdges[0]);
+
+            int[] reversed = to.clone();
+            graph.addEdges(reversed, from, weights);
+            for (int i = 0; i < from.length; i++) {
+                expected.addDirectedEdge(graph.labelOf(to[i]), graph.labelOf(from[i]), weights[i]);
+            }
+            graph.removeListener(counter);
+            for (int id = 0; id < graph.nodeCount(); id++) {
+                String label = graph.labelOf(id);
+                if (expected.idOf(label) < 0) {
+                    Assert.assertTrue(graph.getNeighbors(label).isEmpty());
+                    continue;
+                }
+                Assert.assertEquals(new HashSet<>(expected.getNeighbors(label)), new HashSet<>(graph.getNeighbors(label)));
+                for (String neighbor : expected.getNeighbors(label)) {
+                    Assert.assertEquals(weightOf(expected, label, neighbor), weightOf(graph, label, neighbor), 0.0);
+                }
+            }
+
+            long version = graph.modCount();
+            Assert.assertThrows(IllegalArgumentException.class, () -> graph.addEdges(new int[] {0, 1}, new int[] {0}));
+            Assert.assertThrows(IllegalArgumentException.class,
+                    () -> graph.addEdges(new int[] {0, 1}, new int[] {1, 252}));
+            Assert.assertThrows(IllegalArgumentException.class,
+                    () -> graph.addEdges(new int[] {0, 1}, new int[] {1, 0}, new double[] {1, -1}));
+            Assert.assertEquals(version, graph.modCount());
+            Assert.assertThrows(UnsupportedOperationException.class, () -> graph.freeze().addEdges(new int[0], new int[0]));
+        }
+    }
+
+    @Test
+    public void testRemovalsMatchRebuiltGraph() throws IOException, NoRouteException {
+        for (IGraph graph : new IGraph[] {new EdgeArrayGraph("g"), new NodeEdgeGraph("g"), new OffHeapGraph("g"),
+                new AdaptiveGraph("g")}) {
+            // the edges the graph should have, as a map from source to target to weight
+            HashMap<String, HashMap<String, Double>> model = new HashMap<>();
+            int[] events = new int[2];
+            graph.addListener(new GraphListener() {
+                public void nodeAdded(int id) {}
+                public void edgeAdded(int from, int to) {}
+                public void edgeRemoved(int from, int to) { events[0]++; }
+                public void nodeRemoved(int id) { events[1]++; }
+            });
+            Random random = new Random(41);
+            for (int round = 0; round < 4000; round++) {
+                String from = Integer.toString(random.nextInt(120));
+                String to = Integer.toString(random.nextInt(120));
+                int action = random.nextInt(10);
+                if (action < 6) {
+                    double weight = random.nextInt(3) == 0 ? random.nextInt(9) : IGraph.DEFAULT_WEIGHT;
+                    graph.addDirectedEdge(from, to, weight);
+                    model.computeIfAbsent(from, k -> new HashMap<>()).put(to, weight);
+                    model.computeIfAbsent(to, k -> new HashMap<>());
+                } else if (action < 9) {
+                    boolean present = model.containsKey(from) && model.get(from).containsKey(to);
+                    int before = events[0];
+                    Assert.assertEquals(present, graph.removeEdge(from, to));
+                    Assert.assertEquals(present ? before + 1 : before, events[0]);
+                    if (present) {
+                        model.get(from).remove(to);
+                    }
+                } else {
+                    int removedEdges = 0;
+                    if (model.containsKey(from)) {
+                        removedEdges += model.get(from).size();
+                        for (HashMap<String, Double> row : model.values()) {
+                            if (row.containsKey(from) && row != model.get(from)) {
+                                removedEdges++;
+                            }
+                        }
+                    }
+                    int[] before = events.clone();
+                    Assert.assertEquals(model.containsKey(from), graph.removeNode(from));
+                    Assert.assertEquals(before[0] + removedEdges, events[0]);
+                    if (model.remove(from) != null) {
+                        Assert.assertEquals(before[1] + 1, events[1]);
+                        for (HashMap<String, Double> row : model.values()) {
+                            row.remove(from);
+                        }
+                    }
+                }
+                if (round == 2000) {
+                    graph.compact();
+                }
+            }
+
+            for (IGraph g : new IGraph[] {graph, graph.freeze()}) {
+                checkAgainstModel(g, model);
+            }
+            Path file = Files.createTempFile("graph", ".bin");
+            try {
+                GraphFile.write(graph, file);
+                checkAgainstModel(GraphFile.load(file), model);
+            } finally {
+                Files.delete(file);
+            }
+
+            // removing every node at the end of the id range lets compaction shrink it
+            int nodeCount = graph.nodeCount();
+            String last = graph.labelOf(nodeCount - 1);
+            Assert.assertTrue(graph.removeNode(last));
+            model.remove(last);
+            for (HashMap<String, Double> row : model.values()) {
+                row.remove(last);
+            }
+            Assert.assertEquals(nodeCount, graph.nodeCount());
+            Assert.assertFalse(graph.hasNode(nodeCount - 1));
+            graph.compact();
+            Assert.assertTrue(graph.nodeCount() < nodeCount);
+            checkAgainstModel(graph, model);
+
+            // a removed id is reused by the next node
+            String first = graph.labelOf(0);
+            graph.removeNode(first);
+            graph.addDirectedEdge("fresh", "fresh");
+            Assert.assertEquals(0, graph.idOf("fresh"));
+            Assert.assertTrue(graph.hasEdge("fresh", "fresh"));
+            Assert.assertEquals(Collections.singletonList("fresh"), graph.getNeighbors("fresh"));
+            Assert.assertFalse(graph.removeNode(first));
+            Assert.assertFalse(graph.removeEdge(first, "fresh"));
+        }
+        Assert.assertThrows(UnsupportedOperationException.class, () -> new ConcurrentGraph("g").removeNode("a"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> new NodeEdgeGraph("g").freeze().removeEdge("a", "b"));
+    }
+
+    @Test
+    public void testOffHeapGraphGrowsAcrossChunks() throws NoRouteException {
+        OffHeapGraph graph = new OffHeapGraph("g");
+        IGraph expected = new NodeEdgeGraph("expected");
+        // the hub's rows are far larger than the first chunk of the arena
+        for (int i = 20000; i > 0; i--) {
+            graph.addDirectedEdge("hub", "n" + i, i % 7);
+            expected.addDirectedEdge("hub", "n" + i, i % 7);
+            graph.addDirectedEdge("n" + i, "n" + (i - 1));
+            expected.addDirectedEdge("n" + i, "n" + (i - 1));
+        }
+        Assert.assertEquals(expected.getAllNodes(), graph.getAllNodes());
+        HashSet<Integer> seen = new HashSet<>();
+        graph.forEachNeighbor(graph.idOf("hub"), id -> Assert.assertTrue(seen.add(id)));
+        Assert.assertEquals(20000, seen.size());
+        // removals move the last edge of a row into the gap, which its position table must follow
+        for (int i = 3; i <= 20000; i += 3) {
+            Assert.assertTrue(graph.removeEdge("hub", "n" + i));
+            Assert.assertFalse(graph.removeEdge("hub", "n" + i));
+            expected.removeEdge("hub", "n" + i);
+        }
+        Assert.assertEquals(expected.getNeighbors("hub").size(), graph.getNeighbors("hub").size());
+        for (int i = 3; i <= 20000; i += 3) {
+            graph.addDirectedEdge("hub", "n" + i, i % 7);
+            expected.addDirectedEdge("hub", "n" + i, i % 7);
+        }
+        for (String label : expected.getAllNodes()) {
+            Assert.assertEquals(new HashSet<>(expected.getNeighbors(label)), new HashSet<>(graph.getNeighbors(label)));
+        }
+        Assert.assertEquals(3.0, weightOf(graph, "hub", "n3"), 0.0);
+        Assert.assertEquals(20001, getRoute(graph, "n20000", "n0").size());
+        Assert.assertEquals(expected.reachesAllOthers("hub"), graph.reachesAllOthers("hub"));
+
+        // memory given back by a removal is reused rather than reserved again
+        long reserved = graph.offHeapBytes();
+        Assert.assertTrue(graph.removeNode("hub"));
+        for (int i = 20000; i > 0; i--) {
+            graph.addDirectedEdge("hub", "n" + i, i % 7);
+        }
+        Assert.assertEquals(reserved, graph.offHeapBytes());
+        Assert.assertEquals(new HashSet<>(expected.getNeighbors("hub")), new HashSet<>(graph.getNeighbors("hub")));
+        Assert.assertEquals(3.0, weightOf(graph, "hub", "n3"), 0.0);
+    }
+
+    @Test
+    public void testAdaptiveGraphSwitchesRowForms() throws NoRouteException {
+        AdaptiveGraph graph = new AdaptiveGraph("g");
+        IGraph expected = new NodeEdgeGraph("expected");
+        // a sparse ring stays in sorted arrays
+        for (int i = 0; i < 300; i++) {
+            graph.addDirectedEdge("n" + i, "n" + (i + 1) % 300, i % 5);
+            expected.addDirectedEdge("n" + i, "n" + (i + 1) % 300, i % 5);
+        }
+        Assert.assertEquals(0, graph.denseRowCount());
+        Assert.assertEquals(300.0 / (300 * 300), graph.density(), 1e-12);
+
+        // a near-complete block of conflicts turns its rows into bitsets
+        Random random = new Random(43);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                if (i != j && random.nextInt(10) != 0) {
+                    graph.addUndirectedEdge("n" + i, "n" + j);
+                    expected.addUndirectedEdge("n" + i, "n" + j);
+                }
+            }
+        }
+        Assert.assertEquals(100, graph.denseRowCount());
+        for (String label : expected.getAllNodes()) {
+            Assert.assertEquals(expected.getNeighbors(label).size(), graph.getNeighbors(label).size());
+            Assert.assertEquals(new HashSet<>(expected.getNeighbors(label)), new HashSet<>(graph.getNeighbors(label)));
+            Assert.assertEquals(expected.reachesAllOthers(label), graph.reachesAllOthers(label));
+            int[] previous = {-1};
+            graph.forEachPredecessor(graph.idOf(label), id -> {
+                Assert.assertTrue(id > previous[0]);
+                previous[0] = id;
+            });
+        }
+        Assert.assertEquals(4.0, weightOf(graph, "n299", "n0"), 0.0);
+        Assert.assertEquals(getRoute(expected, "n150", "n3").size(), getRoute(graph, "n150", "n3").size());
+
+        // thinning the block out turns the rows back into arrays
+        for (int i = 0; i < 100; i++) {
+            for (int j = 3; j < 100; j++) {
+                graph.removeEdge("n" + i, "n" + j);
+            }
+        }
+        Assert.assertEquals(0, graph.denseRowCount());
+        Assert.assertTrue(graph.hasEdge("n0", "n1"));
+        Assert.assertFalse(graph.hasEdge("n0", "n50"));
+        Assert.assertEquals(expected.hasEdge("n50", "n0"), graph.hasEdge("n50", "n0"));
+    }
+
+    private void checkAgainstModel(IGraph graph, HashMap<String, HashMap<String, Double>> model) throws NoRouteException {
+        Assert.assertEquals(model.keySet(), graph.getAllNodes());
+        int selfEdges = 0;
+        int live = 0;
+        for (int id = 0; id < graph.nodeCount(); id++) {
+            String label = graph.labelOf(id);
+            Assert.assertEquals(label != null, graph.hasNode(id));
+            if (label == null) {
+                graph.forEachNeighbor(id, to -> Assert.fail());
+                graph.forEachPredecessor(id, from -> Assert.fail());
+                continue;
+            }
+            live++;
+            Assert.assertEquals(id, graph.idOf(label));
+            HashMap<String, Double> row = model.get(label);
+            Assert.assertEquals(row.keySet(), new HashSet<>(graph.getNeighbors(label)));
+            for (String to : row.keySet()) {
+                Assert.assertEquals(row.get(to), weightOf(graph, label, to), 0.0);
+            }
+            HashSet<String> predecessors = new HashSet<>();
+            graph.forEachPredecessor(id, from -> predecessors.add(graph.labelOf(from)));
+            HashSet<String> expectedPredecessors = new HashSet<>();
+            for (String from : model.keySet()) {
+                if (model.get(from).containsKey(label)) {
+                    expectedPredecessors.add(from);
+                }
+            }
+            Assert.assertEquals(expectedPredecessors, predecessors);
+            if (row.containsKey(label)) {
+                selfEdges++;
+            }
+            int others = row.size() - (row.containsKey(label) ? 1 : 0);
+            Assert.assertEquals(others == model.size() - 1, graph.reachesAllOthers(label));
+        }
+        Assert.assertEquals(model.size(), live);
+        Assert.assertEquals(selfEdges, graph.countSelfEdges());
+        for (String from : model.keySet()) {
+            for (String to : model.get(from).keySet()) {
+                Assert.assertTrue(graph.hasEdge(from, to));
+                Assert.assertFalse(getRoute(graph, from, to).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeListLoaderMatchesDirectAdds() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Path file = Files.createTempFile("edges", ".txt");
+        try {
+            for (boolean directed : new boolean[] {true, false}) {
+                for (char separator : new char[] {'\t', ','}) {
+                    Random random = new Random(directed ? 29 : 31);
+                    IGraph expected = new NodeEdgeGraph("expected");
+                    StringBuilder text = new StringBuilder("# source target weight\n");
+                    for (int i = 0; i < 3000; i++) {
+                        String from = "n" + random.nextInt(400);
+                        String to = random.nextInt(50) == 0 ? "citt\u00e0" : "n" + random.nextInt(400);
+                        text.append(from).append(separator).append(to);
+                        if (random.nextInt(3) == 0) {
+                            double weight = random.nextInt(100) / 4.0;
+                            text.append(separator).append(weight);
+                            if (directed) {
+                                expected.addDirectedEdge(from, to, weight);
+                            } else {
+                                expected.addUndirectedEdge(from, to, weight);
+                            }
+                        } else if (directed) {
+                            expected.addDirectedEdge(from, to);
+                        } else {
+                            expected.addUndirectedEdge(from, to);
+                        }
+                        text.append(random.nextInt(10) == 0 ? "\r\n\n" : "\n");
+                    }
+                    Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+                    // a small block makes the file span many blocks, each cut into several chunks
+                    EdgeListLoader loader = new EdgeListLoader(separator, directed, pool, 256);
+                    for (IGraph graph : new IGraph[] {new NodeEdgeGraph("g"), new EdgeArrayGraph("g"),
+                            new VersionedGraph("g"), new OffHeapGraph("g"), new AdaptiveGraph("g")}) {
+                        LoadStats stats = loader.load(file, graph);
+                        Assert.assertEquals(3000, stats.getEdges());
+                        Assert.assertEquals(expected.nodeCount(), stats.getNodesAdded());
+                        Assert.assertTrue(stats.edgesPerSecond() > 0);
+                        Assert.assertEquals(expected.nodeCount(), graph.nodeCount());
+                        for (int id = 0; id < expected.nodeCount(); id++) {
+                            String label = expected.labelOf(id);
+                            // nodes are created in the order their labels first appear
+                            Assert.assertEquals(label, graph.labelOf(id));
+                            Assert.assertEquals(new HashSet<>(expected.getNeighbors(label)),
+                                    new HashSet<>(graph.getNeighbors(label)));
+                            for (String neighbor : expected.getNeighbors(label)) {
+                                Assert.assertEquals(weightOf(expected, label, neighbor), weightOf(graph, label, neighbor), 0.0);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEdgeListLoaderRejectsBadLines() throws IOException {
+        Path file = Files.createTempFile("edges", ".txt");
+        try {
+            EdgeListLoader loader = new EdgeListLoader(',', true);
+            Files.write(file, "a,b\nc,d,2.5".getBytes(StandardCharsets.UTF_8));
+            IGraph graph = new NodeEdgeGraph("g");
+            Assert.assertEquals(2, loader.load(file, graph).getEdges());
+            Assert.assertEquals(2.5, weightOf(graph, "c", "d"), 0.0);
+
+            Files.write(file, "a,b\nno separator\n".getBytes(StandardCharsets.UTF_8));
+            Assert.assertThrows(IOException.class, () -> loader.load(file, new NodeEdgeGraph("g")));
+            Files.write(file, "a,b,-1\n".getBytes(StandardCharsets.UTF_8));
+            Assert.assertThrows(IOException.class, () -> loader.load(file, new NodeEdgeGraph("g")));
+            Files.write(file, "a,b,heavy\n".getBytes(StandardCharsets.UTF_8));
+            Assert.assertThrows(IOException.class, () -> loader.load(file, new NodeEdgeGraph("g")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private boolean hasRouteByBfs(IGraph graph, String from, String to) {
+        try {
+            getRoute(graph, from, to);
+            return true;
+        } catch (NoRouteException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testHasRouteWithBudgets() throws NodeNameExistsException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createRandomGraph(isArray, 150, 250, 13);
+            for (int from = 0; from < 150; from += 11) {
+                for (int to = 0; to < 150; to += 7) {
+                    String fromNode = Integer.toString(from);
+                    String toNode = Integer.toString(to);
+                    Assert.assertEquals(hasRouteByBfs(graph, fromNode, toNode), hasRoute(graph, fromNode, toNode));
+                }
+            }
+            IGraph chain = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            for (int i = 0; i < 10; i++) {
+                chain.addDirectedEdge(Integer.toString(i), Integer.toString(i + 1));
+            }
+            Assert.assertTrue(hasRoute(chain, "0", "10", 10, Integer.MAX_VALUE));
+            Assert.assertFalse(hasRoute(chain, "0", "10", 9, Integer.MAX_VALUE));
+            Assert.assertFalse(hasRoute(chain, "0", "10", Integer.MAX_VALUE, 5));
+            Assert.assertTrue(hasRoute(chain, "3", "3"));
+            Assert.assertFalse(hasRoute(chain, "10", "0"));
+            Assert.assertFalse(hasRoute(chain, "0", "missing"));
+        }
+    }
+
     private boolean checkValidRoute(IGraph graph, LinkedList<String> route,String start, String end, int length) {
         if (route.size() != length) return false;
         if (!route.getFirst().equals(start) || !route.getLast().equals(end)) return false;
@@ -199,6 +1159,22 @@ public class GraphUtilsTest {
         return true;
     }
 
+    // Builds a graph of nodes "0" to "nodes - 1" with randomly placed directed edges
+    private IGraph createRandomGraph(boolean isArray, int nodes, int edges, long seed)
+            throws NodeNameExistsException {
+        IGraph graph;
+        if (isArray) graph = new EdgeArrayGraph("");
+        else graph = new NodeEdgeGraph("");
+        for (int i = 0; i < nodes; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < edges; i++) {
+            graph.addDirectedEdge(Integer.toString(random.nextInt(nodes)), Integer.toString(random.nextInt(nodes)));
+        }
+        return graph;
+    }
+
     private IGraph createGraph1(boolean isArray) throws NodeNameExistsException{
         IGraph graph;
         if (isArray) graph = new EdgeArrayGraph("");
@@ -2,14 +2,21 @@ package sol;
 
 import src.NodeNameExistsException;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.function.IntConsumer;
 
 /**
  * Interface for making methods generic between implementations of graph
  */
 public interface IGraph {
 
+    /**
+     * Weight given to edges that are added without one
+     */
+    double DEFAULT_WEIGHT = 1.0;
+
     /**
      * Method to add a node to a graph
      *
@@ -34,6 +41,115 @@ public interface IGraph {
      */
     void addUndirectedEdge (String descr1, String descr2);
 
+    /**
+     * Adds one-way edge with a travel cost from one node to the next,
+     * or replaces the cost if the edge already exists
+     *
+     * @param descr1 string name of originating node
+     * @param descr2 string name of destination node
+     * @param weight non-negative cost of the edge
+     * @throws IllegalArgumentException if weight is negative, infinite or NaN
+     */
+    void addDirectedEdge(String descr1, String descr2, double weight);
+
+    /**
+     * Adds bidirectional connection with the same travel cost both ways between two nodes,
+     * or replaces the cost if the edges already exist
+     *
+     * @param descr1 string name of first node
+     * @param descr2 string name of second node
+     * @param weight non-negative cost of the edges
+     * @throws IllegalArgumentException if weight is negative, infinite or NaN
+     */
+    void addUndirectedEdge(String descr1, String descr2, double weight);
+
+    /**
+     * Adds every label that does not already name a node, in order, and gets the id of each.
+     * Adding many nodes at once lets the graph resize its storage once instead of per node
+     *
+     * @param labels string names of nodes; names already in the graph or repeated are not added again
+     * @return the id of each label, in the iteration order of labels
+     */
+    default int[] addNodes(Collection<String> labels) {
+        int[] ids = new int[labels.size()];
+        int i = 0;
+        for (String label : labels) {
+            if (this.idOf(label) < 0) {
+                try {
+                    this.addNode(label);
+                } catch (NodeNameExistsException e) {
+                    // another writer added it first, which is just as good
+                }
+            }
+            ids[i++] = this.idOf(label);
+        }
+        return ids;
+    }
+
+    /**
+     * Adds one-way edges between existing nodes by id. Edges already present, and repeats
+     * within the batch, are skipped. Nothing is added if the batch is not well formed
+     *
+     * @param from id of the originating node of each edge
+     * @param to id of the destination node of each edge
+     * @throws IllegalArgumentException if the arrays differ in length or an id is not a node
+     */
+    default void addEdges(int[] from, int[] to) {
+        EdgeBatch.check(from, to, null, this);
+        for (int i = 0; i < from.length; i++) {
+            this.addDirectedEdge(this.labelOf(from[i]), this.labelOf(to[i]));
+        }
+    }
+
+    /**
+     * Adds one-way edges with travel costs between existing nodes by id, replacing the cost of
+     * edges already present. An edge repeated within the batch ends with its last cost
+     *
+     * @param from id of the originating node of each edge
+     * @param to id of the destination node of each edge
+     * @param weights non-negative cost of each edge
+     * @throws IllegalArgumentException if the arrays differ in length, an id is not a node or
+     *      a weight is negative, infinite or NaN
+     */
+    default void addEdges(int[] from, int[] to, double[] weights) {
+        EdgeBatch.check(from, to, weights, this);
+        for (int i = 0; i < from.length; i++) {
+            this.addDirectedEdge(this.labelOf(from[i]), this.labelOf(to[i]), weights[i]);
+        }
+    }
+
+    /**
+     * Removes a node and every edge to or from it. The id of the node stays below nodeCount,
+     * with no label, until a node added later reuses it. This is an optional operation
+     *
+     * @param descr string name of node to remove
+     * @return true if the node was removed, false if no node has that name
+     * @throws UnsupportedOperationException if the graph cannot delete
+     */
+    default boolean removeNode(String descr) {
+        throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support removal");
+    }
+
+    /**
+     * Removes a one-way edge from one node to the next. This is an optional operation
+     *
+     * @param descr1 string name of originating node
+     * @param descr2 string name of destination node
+     * @return true if the edge was removed, false if there was no such edge
+     * @throws UnsupportedOperationException if the graph cannot delete
+     */
+    default boolean removeEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException(this.getClass().getSimpleName() + " does not support removal");
+    }
+
+    /**
+     * Reclaims the space left behind by removals, so that neighbor iteration stays dense.
+     * Graphs also compact rows on their own as removals build up, so this is only needed to
+     * reclaim everything at once, such as after a large batch of removals
+     */
+    default void compact() {
+    }
+
     /**
      * Counts the number of nodes who have edges to themselves
      *
@@ -63,4 +179,116 @@ public interface IGraph {
      * @return a hashset of all node names from graph
      */
     HashSet<String> getAllNodes();
+
+    /**
+     * Checks whether there is a one-way edge from one node to the next
+     *
+     * @param descr1 string name of originating node
+     * @param descr2 string name of destination node
+     * @return true if both nodes exist and the edge is present, else false
+     */
+    boolean hasEdge(String descr1, String descr2);
+
+    /**
+     * Gets the number of node ids in the graph. Node ids run from 0 up to, but not including, this
+     * value. After a removal some ids in that range may belong to no node, which hasNode tells apart
+     *
+     * @return number of node ids in graph
+     */
+    int nodeCount();
+
+    /**
+     * Checks whether an id belongs to a node, rather than being out of range or left by a removed node
+     *
+     * @param id id to check
+     * @return true if some node has that id, else false
+     */
+    default boolean hasNode(int id) {
+        return id >= 0 && id < this.nodeCount() && this.labelOf(id) != null;
+    }
+
+    /**
+     * Looks up the int id of a node, for use with the allocation-free traversal methods
+     *
+     * @param label string name of node
+     * @return id of the node, or -1 if no node has that name
+     */
+    int idOf(String label);
+
+    /**
+     * Looks up the name of a node from its int id
+     *
+     * @param id id of node
+     * @return string name of the node, or null if the node with that id was removed
+     */
+    String labelOf(int id);
+
+    /**
+     * Calls action with the id of every node that a node has an edge to, without building a list
+     *
+     * @param id id of node to check for neighbors of
+     * @param action called once per neighbor id
+     */
+    void forEachNeighbor(int id, IntConsumer action);
+
+    /**
+     * Calls action with the id and edge weight of every node that a node has an edge to
+     *
+     * @param id id of node to check for neighbors of
+     * @param action called once per neighbor with its id and the weight of the edge to it
+     */
+    void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action);
+
+    /**
+     * Calls action with the id of every node that has an edge to a node, without building a list
+     *
+     * @param id id of node to check for incoming edges of
+     * @param action called once per predecessor id
+     */
+    void forEachPredecessor(int id, IntConsumer action);
+
+    /**
+     * Gets a counter that changes every time the graph is modified, so that anything
+     * derived from the graph can tell whether it is out of date
+     *
+     * @return the current modification count
+     */
+    long modCount();
+
+    /**
+     * Registers a listener to be told about every node and edge added from now on
+     *
+     * @param listener the listener to notify
+     */
+    void addListener(GraphListener listener);
+
+    /**
+     * Stops notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    void removeListener(GraphListener listener);
+
+    /**
+     * Takes a read-only snapshot of the graph for read-heavy workloads
+     *
+     * @return a compressed sparse row copy of the current graph
+     */
+    default CsrGraph freeze() {
+        return CsrGraph.of(this);
+    }
+
+    /**
+     * Checks that a weight can be used as an edge cost by the shortest path routines
+     *
+     * @param weight the weight to check
+     * @return the same weight
+     * @throws IllegalArgumentException if weight is negative, infinite or NaN
+     */
+    static double checkWeight(double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Edge weight must be finite and non-negative: " + weight);
+        }
+        return weight;
+    }
 }
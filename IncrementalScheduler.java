@@ -0,0 +1,253 @@
+package sol;
+
+import src.NoScheduleException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Class for keeping a two-way schedule of a conflict graph up to date as conflicts arrive.
+ * Nodes are kept in a union-find where each node also stores the parity of its side relative
+ * to its parent, so two nodes in the same set are on the same side exactly when their parities
+ * to the root match. Adding a conflict is a union that forces opposite sides, which takes near
+ * constant amortized time, and a conflict between two nodes already forced to the same side is
+ * caught the moment it arrives. The scheduler listens to its graph, so conflicts added straight
+ * through addUndirectedEdge are folded in too. A union cannot be undone, so removing a node or a
+ * conflict from the graph marks the scheduler stale and it is rebuilt on its next use.
+ */
+public class IncrementalScheduler implements GraphListener {
+    IGraph graph;
+    int[] parent;
+    int[] size;
+    byte[] parity; // side of each node relative to its parent, 0 for same and 1 for opposite
+    int nodeCount;
+    int lastParity;
+    boolean schedulable;
+    boolean stale; // a removal happened, so the sets must be rebuilt from the graph
+
+    /**
+     * Constructor that attaches a scheduler to a graph, first absorbing every node and edge it already has
+     *
+     * @param graph the conflict graph to follow
+     */
+    public IncrementalScheduler(IGraph graph) {
+        this.graph = graph;
+        this.rebuild();
+        graph.addListener(this);
+    }
+
+    /**
+     * Helper method to forget every set and absorb every node and edge the graph has now
+     */
+    private void rebuild() {
+        this.parent = new int[16];
+        this.size = new int[16];
+        this.parity = new byte[16];
+        this.nodeCount = 0;
+        this.schedulable = true;
+        this.stale = false;
+        for (int node = 0; node < this.graph.nodeCount(); node++) {
+            this.nodeAdded(node);
+        }
+        for (int node = 0; node < this.graph.nodeCount(); node++) {
+            int from = node;
+            this.graph.forEachNeighbor(node, to -> this.edgeAdded(from, to));
+        }
+    }
+
+    /**
+     * Helper method to rebuild the sets if a removal left them out of date
+     */
+    private void refresh() {
+        if (this.stale) {
+            this.rebuild();
+        }
+    }
+
+    /**
+     * Method to stop following the graph
+     */
+    public void detach() {
+        this.graph.removeListener(this);
+    }
+
+    /**
+     * Method to add a conflict between two labs to the graph, refusing it if it would make
+     *     scheduling impossible. A refused conflict is not added, so the graph stays schedulable
+     *
+     * @param descr1 the first lab
+     * @param descr2 the second lab
+     * @throws NoScheduleException if the two labs are already forced onto the same side
+     *
+     * Runtime:
+     *      Amortized O(a(N)) Where a is the inverse Ackermann function, on top of the graph's own insert
+     */
+    public void addConflict(String descr1, String descr2) throws NoScheduleException {
+        this.refresh();
+        int id1 = this.graph.idOf(descr1);
+        int id2 = this.graph.idOf(descr2);
+        if (id1 >= 0 && id2 >= 0) {
+            int root1 = this.find(id1);
+            int parity1 = this.lastParity;
+            int root2 = this.find(id2);
+            if (root1 == root2 && parity1 == this.lastParity) {
+                throw new NoScheduleException();
+            }
+        } else if (descr1.equals(descr2)) {
+            throw new NoScheduleException();
+        }
+        this.graph.addUndirectedEdge(descr1, descr2);
+    }
+
+    /**
+     * Method to check whether every conflict seen so far still allows a two-way split
+     *
+     * @return true if a schedule exists, otherwise false
+     */
+    public boolean isSchedulable() {
+        this.refresh();
+        return this.schedulable;
+    }
+
+    /**
+     * Method to get which side of the current schedule a lab is on
+     *
+     * @param label the lab to look up
+     * @return 0 or 1 for the two sides, consistent with getSchedule
+     */
+    public int sideOf(String label) {
+        this.refresh();
+        this.find(this.graph.idOf(label));
+        return this.lastParity;
+    }
+
+    /**
+     * Method to produce the current two-way split in the same form as Scheduler.findSchedule
+     *
+     * @return an ArrayList of two HashSets of node labels that constitute a valid split of the graph
+     * @throws NoScheduleException if a conflict added directly to the graph made scheduling
+     *         impossible, as an OddCycleException holding the cycle
+     */
+    public ArrayList<HashSet<String>> getSchedule() throws NoScheduleException {
+        this.refresh();
+        if (!this.schedulable) {
+            // recolor from scratch only to find the odd cycle to report
+            BipartiteColoring.color(this.graph);
+        }
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
+        schedule.add(new HashSet<>());
+        schedule.add(new HashSet<>());
+        for (int node = 0; node < this.nodeCount; node++) {
+            String label = this.graph.labelOf(node);
+            if (label != null) {
+                this.find(node);
+                schedule.get(this.lastParity).add(label);
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Gives a new node its own set
+     *
+     * @param id id of the new node
+     */
+    @Override
+    public void nodeAdded(int id) {
+        if (this.stale) {
+            return;
+        }
+        if (id >= this.parent.length) {
+            int capacity = Math.max(id + 1, this.parent.length * 2);
+            this.parent = Arrays.copyOf(this.parent, capacity);
+            this.size = Arrays.copyOf(this.size, capacity);
+            this.parity = Arrays.copyOf(this.parity, capacity);
+        }
+        this.parent[id] = id;
+        this.size[id] = 1;
+        this.parity[id] = 0;
+        this.nodeCount = Math.max(this.nodeCount, id + 1);
+    }
+
+    /**
+     * Forces the two ends of a new conflict onto opposite sides, marking the schedule
+     * impossible if they are already forced onto the same side
+     *
+     * @param from id of one lab
+     * @param to id of the other lab
+     */
+    @Override
+    public void edgeAdded(int from, int to) {
+        if (this.stale) {
+            return;
+        }
+        int root1 = this.find(from);
+        int parity1 = this.lastParity;
+        int root2 = this.find(to);
+        int parity2 = this.lastParity;
+        if (root1 == root2) {
+            if (parity1 == parity2) {
+                this.schedulable = false;
+            }
+            return;
+        }
+        if (this.size[root1] < this.size[root2]) {
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        this.parent[root2] = root1;
+        this.parity[root2] = (byte) (parity1 ^ parity2 ^ 1);
+        this.size[root1] += this.size[root2];
+    }
+
+    /**
+     * Marks the sets stale, since the conflict may have been what joined them
+     *
+     * @param from id of one lab
+     * @param to id of the other lab
+     */
+    @Override
+    public void edgeRemoved(int from, int to) {
+        this.stale = true;
+    }
+
+    /**
+     * Marks the sets stale, since the lab's id may be reused by a new lab
+     *
+     * @param id id of the removed lab
+     */
+    @Override
+    public void nodeRemoved(int id) {
+        this.stale = true;
+    }
+
+    /**
+     * Helper method to find the root of a node's set, compressing the path on the way.
+     *     The node's parity relative to the root is left in lastParity
+     *
+     * @param id the node to look up
+     * @return the root of its set
+     */
+    private int find(int id) {
+        int root = id;
+        int rootParity = 0;
+        while (this.parent[root] != root) {
+            rootParity ^= this.parity[root];
+            root = this.parent[root];
+        }
+        int node = id;
+        int nodeParity = rootParity;
+        while (node != root) {
+            int next = this.parent[node];
+            int nextParity = nodeParity ^ this.parity[node];
+            this.parent[node] = root;
+            this.parity[node] = (byte) nodeParity;
+            node = next;
+            nodeParity = nextParity;
+        }
+        this.lastParity = rootParity;
+        return root;
+    }
+}
@@ -0,0 +1,144 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Class for a binary min-heap of node ids keyed by double priorities. Every id in
+ * the heap has its position recorded, so a key can be lowered in place (decrease-key)
+ * instead of inserting duplicate entries, and no object is created per entry.
+ */
+public class IndexedMinHeap {
+    int[] heap;
+    int[] position; // index of each id in heap, or -1 if it is not in the heap
+    double[] keys;
+    int size;
+
+    /**
+     * Constructor for an empty heap over ids 0 up to, but not including, capacity
+     *
+     * @param capacity number of ids that may be stored
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(this.position, -1);
+        this.keys = new double[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Method to check whether the heap has no entries
+     *
+     * @return true if empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Method to check whether an id is currently in the heap
+     *
+     * @param id the id to check
+     * @return true if id is in the heap, otherwise false
+     */
+    public boolean contains(int id) {
+        return this.position[id] >= 0;
+    }
+
+    /**
+     * Method to add an id that is not yet in the heap
+     *
+     * @param id the id to add
+     * @param key its priority
+     *
+     * Runtime:
+     *      O(log N) Where N is the number of entries
+     */
+    public void insert(int id, double key) {
+        this.keys[id] = key;
+        this.heap[this.size] = id;
+        this.position[id] = this.size;
+        this.siftUp(this.size++);
+    }
+
+    /**
+     * Method to lower the priority of an id already in the heap
+     *
+     * @param id the id to update
+     * @param key its new priority, no larger than the current one
+     *
+     * Runtime:
+     *      O(log N) Where N is the number of entries
+     */
+    public void decreaseKey(int id, double key) {
+        this.keys[id] = key;
+        this.siftUp(this.position[id]);
+    }
+
+    /**
+     * Method to remove the id with the smallest priority
+     *
+     * @return the removed id
+     *
+     * Runtime:
+     *      O(log N) Where N is the number of entries
+     */
+    public int pollMin() {
+        int min = this.heap[0];
+        this.position[min] = -1;
+        if (--this.size > 0) {
+            this.heap[0] = this.heap[this.size];
+            this.position[this.heap[0]] = 0;
+            this.siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Helper method to move the entry at a heap index up until its parent is no larger
+     *
+     * @param index heap index of the entry
+     */
+    private void siftUp(int index) {
+        int id = this.heap[index];
+        double key = this.keys[id];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.keys[this.heap[parent]] <= key) {
+                break;
+            }
+            this.heap[index] = this.heap[parent];
+            this.position[this.heap[index]] = index;
+            index = parent;
+        }
+        this.heap[index] = id;
+        this.position[id] = index;
+    }
+
+    /**
+     * Helper method to move the entry at a heap index down until both children are no smaller
+     *
+     * @param index heap index of the entry
+     */
+    private void siftDown(int index) {
+        int id = this.heap[index];
+        double key = this.keys[id];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= this.size) {
+                break;
+            }
+            if (child + 1 < this.size && this.keys[this.heap[child + 1]] < this.keys[this.heap[child]]) {
+                child++;
+            }
+            if (this.keys[this.heap[child]] >= key) {
+                break;
+            }
+            this.heap[index] = this.heap[child];
+            this.position[this.heap[index]] = index;
+            index = child;
+        }
+        this.heap[index] = id;
+        this.position[id] = index;
+    }
+}
@@ -0,0 +1,78 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * Class for a growable list of primitive ints, used in place of
+ * ArrayList of Integer to avoid boxing every element
+ */
+public class IntList {
+    int[] items;
+    int size;
+
+    /**
+     * Constructor for an empty list
+     *
+     * @param initialCapacity number of ints that fit before the backing array grows
+     */
+    public IntList(int initialCapacity) {
+        this.items = new int[Math.max(1, initialCapacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Method to append an int to the end of the list
+     *
+     * @param value the int to append
+     */
+    public void add(int value) {
+        if (this.size == this.items.length) {
+            this.items = Arrays.copyOf(this.items, this.items.length * 2);
+        }
+        this.items[this.size++] = value;
+    }
+
+    /**
+     * Method to remove the int at the end of the list
+     *
+     * @return the int that was last
+     */
+    public int removeLast() {
+        return this.items[--this.size];
+    }
+
+    /**
+     * Method to get the int at a position
+     *
+     * @param index position in the list
+     * @return the int stored there
+     */
+    public int get(int index) {
+        return this.items[index];
+    }
+
+    /**
+     * Method to get the number of ints in the list
+     *
+     * @return size of the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to empty the list while keeping its backing array
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Method to copy the list into an exactly sized array
+     *
+     * @return a new array holding the ints in order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.items, this.size);
+    }
+}
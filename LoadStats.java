@@ -0,0 +1,82 @@
+package sol;
+
+/**
+ * Class for the figures reported after loading an edge list
+ */
+public class LoadStats {
+    long edges;
+    int nodesAdded;
+    long bytes;
+    long nanos;
+
+    /**
+     * Constructor for a finished load
+     *
+     * @param edges number of edge lines read
+     * @param nodesAdded number of nodes the load added to the graph
+     * @param bytes size of the input in bytes
+     * @param nanos time the load took in nanoseconds
+     */
+    LoadStats(long edges, int nodesAdded, long bytes, long nanos) {
+        this.edges = edges;
+        this.nodesAdded = nodesAdded;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Method to get the number of edge lines read, counting each undirected line once
+     *
+     * @return the number of edges read
+     */
+    public long getEdges() {
+        return this.edges;
+    }
+
+    /**
+     * Method to get the number of nodes that were not in the graph before the load
+     *
+     * @return the number of nodes added
+     */
+    public int getNodesAdded() {
+        return this.nodesAdded;
+    }
+
+    /**
+     * Method to get the size of the input
+     *
+     * @return the number of bytes read
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Method to get how long the load took
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Method to get the load throughput
+     *
+     * @return edges read per second of elapsed time
+     */
+    public double edgesPerSecond() {
+        return this.edges * 1e9 / Math.max(1, this.nanos);
+    }
+
+    /**
+     * Method to describe the load for logging
+     *
+     * @return the edge and node counts with the throughput
+     */
+    @Override
+    public String toString() {
+        return String.format("%d edges, %d new nodes, %d bytes in %.3f s (%.0f edges/s)",
+                this.edges, this.nodesAdded, this.bytes, this.nanos / 1e9, this.edgesPerSecond());
+    }
+}
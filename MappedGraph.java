@@ -0,0 +1,365 @@
+package sol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for a read-only graph served straight from a memory-mapped GraphFile. Nothing is copied
+ * onto the heap when the file is opened; each query reads the mapped sections directly, so the
+ * operating system loads only the pages that are touched and processes mapping the same file
+ * share them. Labels are decoded from UTF-8 as they are asked for. Each section of the file
+ * must be smaller than 2 GB.
+ */
+public class MappedGraph extends ReadOnlyGraph {
+    int nodeCount;
+    int edgeCount;
+    int liveCount; // number of ids that have a node, or -1 until counted
+    LongBuffer labelOffsets;
+    ByteBuffer labelBytes;
+    IntBuffer offsets;
+    IntBuffer targets;
+    IntBuffer reverseOffsets;
+    IntBuffer reverseTargets;
+    DoubleBuffer weights; // null if every edge has the default weight
+    IntBuffer index; // slots holding node id + 1, or 0 where empty
+
+    /**
+     * Constructor for a graph over already mapped sections
+     */
+    private MappedGraph() {}
+
+    /**
+     * Method to map a graph file
+     *
+     * @param path the file to open
+     * @return a read-only graph backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a graph file of a supported version
+     *
+     * Runtime:
+     *      O(1) Only the header is read; the sections are mapped but not touched
+     */
+    public static MappedGraph open(Path path) throws IOException {
+        // mappings stay valid after the channel that made them is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < GraphFile.HEADER_SIZE) {
+                throw new IOException("Not a graph file: " + path);
+            }
+            ByteBuffer header = map(channel, 0, GraphFile.HEADER_SIZE);
+            if (header.getInt(GraphFile.MAGIC_POS) != GraphFile.MAGIC) {
+                throw new IOException("Not a graph file: " + path);
+            }
+            int version = header.getInt(GraphFile.VERSION_POS);
+            if (version != GraphFile.VERSION) {
+                throw new IOException("Unsupported graph file version " + version + ": " + path);
+            }
+            MappedGraph graph = new MappedGraph();
+            graph.nodeCount = header.getInt(GraphFile.NODE_COUNT_POS);
+            graph.edgeCount = header.getInt(GraphFile.EDGE_COUNT_POS);
+            int nodeCount = graph.nodeCount;
+            int edgeCount = graph.edgeCount;
+            int hashSlots = header.getInt(GraphFile.HASH_SLOTS_POS);
+            long hashPos = header.getLong(GraphFile.HASH_POS);
+            if (hashPos + 4L * hashSlots > fileSize) {
+                throw new IOException("Truncated graph file: " + path);
+            }
+            graph.labelOffsets = map(channel, header.getLong(GraphFile.LABEL_OFFSETS_POS), 8L * (nodeCount + 1))
+                    .asLongBuffer();
+            graph.labelBytes = map(channel, header.getLong(GraphFile.LABEL_BYTES_POS),
+                    header.getLong(GraphFile.LABEL_BYTES_LENGTH_POS));
+            graph.offsets = map(channel, header.getLong(GraphFile.OFFSETS_POS), 4L * (nodeCount + 1)).asIntBuffer();
+            graph.targets = map(channel, header.getLong(GraphFile.TARGETS_POS), 4L * edgeCount).asIntBuffer();
+            graph.reverseOffsets = map(channel, header.getLong(GraphFile.REVERSE_OFFSETS_POS), 4L * (nodeCount + 1))
+                    .asIntBuffer();
+            graph.reverseTargets = map(channel, header.getLong(GraphFile.REVERSE_TARGETS_POS), 4L * edgeCount)
+                    .asIntBuffer();
+            int flags = header.getInt(GraphFile.FLAGS_POS);
+            graph.liveCount = (flags & GraphFile.FLAG_REMOVED) != 0 ? -1 : nodeCount;
+            if ((flags & GraphFile.FLAG_WEIGHTED) != 0) {
+                graph.weights = map(channel, header.getLong(GraphFile.WEIGHTS_POS), 8L * edgeCount).asDoubleBuffer();
+            }
+            graph.index = map(channel, hashPos, 4L * hashSlots).asIntBuffer();
+            return graph;
+        }
+    }
+
+    /**
+     * Helper method to map one section of the file read-only
+     *
+     * @param channel the open file
+     * @param position where the section starts
+     * @param size length of the section in bytes
+     * @return a little-endian buffer over the section
+     * @throws IOException if the section cannot be mapped or is 2 GB or larger
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Graph file section too large to map: " + size + " bytes");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     *
+     * Runtime:
+     *      O(N log D) Where N is the number of nodes and D the largest degree
+     */
+    @Override
+    public int countSelfEdges() {
+        int count = 0;
+        for (int id = 0; id < this.nodeCount; id++) {
+            if (this.findEdge(id, id) >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     *
+     * Runtime:
+     *      O(log D) Rows hold no duplicates, so only the row length and any self edge are needed.
+     *      The first call on a file with removed nodes also counts the nodes, in O(N)
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int id = this.idOf(fromNodeLabel);
+        int others = this.offsets.get(id + 1) - this.offsets.get(id);
+        if (this.findEdge(id, id) >= 0) {
+            others--;
+        }
+        if (this.liveCount < 0) {
+            int count = 0;
+            for (int i = 0; i < this.nodeCount; i++) {
+                if (this.labelOffsets.get(i) >= 0) {
+                    count++;
+                }
+            }
+            this.liveCount = count;
+        }
+        return others == this.liveCount - 1;
+    }
+
+    /**
+     * Method to return a list of all neighboring nodes as strings to a node
+     *
+     * @param fromNode node to check for outgoing connections from
+     * @return a list of strings corresponding to the neighbors of fromNode
+     */
+    @Override
+    public LinkedList<String> getNeighbors(String fromNode) {
+        LinkedList<String> neighbors = new LinkedList<>();
+        this.forEachNeighbor(this.idOf(fromNode), id -> neighbors.add(this.labelOf(id)));
+        return neighbors;
+    }
+
+    /**
+     * Method to return the name strings of all nodes in the graph
+     *
+     * @return a hashset of all node name strings
+     */
+    @Override
+    public HashSet<String> getAllNodes() {
+        HashSet<String> allNodesSet = new HashSet<>(this.nodeCount * 2);
+        for (int id = 0; id < this.nodeCount; id++) {
+            String label = this.labelOf(id);
+            if (label != null) {
+                allNodesSet.add(label);
+            }
+        }
+        return allNodesSet;
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      Expected O(L + log D) Where L is the label length and D the degree of descr1
+     *      Rows are sorted, so the edge is found by binary search
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        int id1 = this.idOf(descr1);
+        int id2 = this.idOf(descr2);
+        return id1 >= 0 && id2 >= 0 && this.findEdge(id1, id2) >= 0;
+    }
+
+    /**
+     * Method to get the number of nodes in the graph
+     *
+     * @return number of nodes
+     */
+    @Override
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Method to get the id of the node with a name by probing the file's label index
+     *
+     * @param label name of the node
+     * @return the id of the node, or -1 if there is no such node
+     *
+     * Runtime:
+     *      Expected O(L) Where L is the label length
+     */
+    @Override
+    public int idOf(String label) {
+        byte[] key = label.getBytes(StandardCharsets.UTF_8);
+        int mask = this.index.capacity() - 1;
+        for (int slot = GraphFile.hash(label) & mask; this.index.get(slot) != 0; slot = (slot + 1) & mask) {
+            int id = this.index.get(slot) - 1;
+            if (this.labelEquals(id, key)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to get the name of the node with an id, decoded from the mapped label table
+     *
+     * @param id id of the node
+     * @return the name of the node, or null if the id was left by a removed node
+     */
+    @Override
+    public String labelOf(int id) {
+        long offset = this.labelOffsets.get(id);
+        if (offset < 0) {
+            return null;
+        }
+        int start = (int) offset;
+        byte[] bytes = new byte[this.labelStart(id + 1) - start];
+        this.labelBytes.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to visit the ids of all outgoing connections from a node in increasing id order
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        for (int e = this.offsets.get(id), end = this.offsets.get(id + 1); e < end; e++) {
+            action.accept(this.targets.get(e));
+        }
+    }
+
+    /**
+     * Method to visit the ids and edge weights of all outgoing connections from a node
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        for (int e = this.offsets.get(id), end = this.offsets.get(id + 1); e < end; e++) {
+            action.accept(this.targets.get(e), this.weights == null ? IGraph.DEFAULT_WEIGHT : this.weights.get(e));
+        }
+    }
+
+    /**
+     * Method to visit the ids of all incoming connections to a node in increasing id order
+     *
+     * @param id id of node to check for incoming connections to
+     * @param action called with the id of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        for (int e = this.reverseOffsets.get(id), end = this.reverseOffsets.get(id + 1); e < end; e++) {
+            action.accept(this.reverseTargets.get(e));
+        }
+    }
+
+    /**
+     * Mapped files never change
+     *
+     * @return always 0
+     */
+    @Override
+    public long modCount() {
+        return 0;
+    }
+
+    /**
+     * Helper method to binary search a node's sorted row for a target
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     * @return position of the edge in the targets section, or -1 if there is no such edge
+     */
+    private int findEdge(int from, int to) {
+        int low = this.offsets.get(from);
+        int high = this.offsets.get(from + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int target = this.targets.get(middle);
+            if (target < to) {
+                low = middle + 1;
+            } else if (target > to) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to compare a node's stored label with UTF-8 bytes without decoding it
+     *
+     * @param id id of the node
+     * @param key the encoded label to compare against
+     * @return true if the stored label has exactly those bytes, otherwise false
+     */
+    private boolean labelEquals(int id, byte[] key) {
+        int start = this.labelStart(id);
+        if (this.labelStart(id + 1) - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (this.labelBytes.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to read where a label starts, whether or not the id has a node
+     *
+     * @param id id of the node, or the node count for the end of the last label
+     * @return position of the label in the label bytes
+     */
+    private int labelStart(int id) {
+        long offset = this.labelOffsets.get(id);
+        return (int) (offset < 0 ? ~offset : offset);
+    }
+}
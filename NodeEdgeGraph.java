@@ -1,30 +1,55 @@
 package sol;
 
 import src.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.function.IntConsumer;
 
 /**
- * Class for modeling a graph based on nodes
+ * Class for modeling a graph based on nodes. A removed node's id is held by a placeholder
+ * node with no label or edges until a new node reuses it.
  */
-public class NodeEdgeGraph implements IGraph{
+public class NodeEdgeGraph implements IGraph {
     public String name;
     public HashMap<String, Node> allNodes;
+    ArrayList<Node> nodesById;
+    IntList freeIds; // ids of removed nodes, reused before new ids are handed out
+    long modCount;
+    ArrayList<GraphListener> listeners;
 
     // ---------------------------------------------
     // the Node class
     static class Node {
         String descr;  // a descriptive name for the node
-        LinkedList<Node> nextNodes; // the nodes that this node can get to
+        int id; // position of the node in nodesById
+        AdjacencySet nextNodes; // ids of the nodes that this node can get to
+        AdjacencySet prevNodes; // ids of the nodes that can get to this node
 
-        public Node(String descr) {
+        public Node(String descr, int id) {
             this.descr = descr;
-            this.nextNodes = new LinkedList<>();
+            this.id = id;
+            this.nextNodes = new AdjacencySet();
+            this.prevNodes = new AdjacencySet();
         }
 
-        private void addEdge(Node toNode) {
-            this.nextNodes.add(toNode);
+        private boolean addEdge(Node toNode) {
+            if (!this.nextNodes.add(toNode.id)) {
+                return false;
+            }
+            toNode.prevNodes.add(this.id);
+            return true;
+        }
+
+        private boolean addEdge(Node toNode, double weight) {
+            if (!this.nextNodes.put(toNode.id, weight)) {
+                return false;
+            }
+            toNode.prevNodes.add(this.id);
+            return true;
         }
     }
 
@@ -36,6 +61,9 @@ public class NodeEdgeGraph implements IGraph{
     public NodeEdgeGraph(String name) {
         this.name = name;
         this.allNodes = new HashMap<String, Node>();
+        this.nodesById = new ArrayList<>();
+        this.freeIds = new IntList(4);
+        this.listeners = new ArrayList<>();
     }
 
     /**
@@ -65,14 +93,24 @@ public class NodeEdgeGraph implements IGraph{
     /**
      * An internal method to add a node without checking whether it exists.
      * This is useful for internally avoiding the exception handling when
-     * we already know the node doesn't exist.
+     * we already know the node doesn't exist. The id of a removed node is reused if there is one
      *
      * @param descr the text description or label to associate with the node
      * @return the (new) node associated with the given description
      */
     private Node addNodeUnchecked(String descr) {
-        Node newNode = new Node(descr);
+        int id = this.freeIds.size() > 0 ? this.freeIds.removeLast() : this.nodesById.size();
+        Node newNode = new Node(descr, id);
         this.allNodes.put(descr, newNode);
+        if (id == this.nodesById.size()) {
+            this.nodesById.add(newNode);
+        } else {
+            this.nodesById.set(id, newNode);
+        }
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeAdded(newNode.id);
+        }
         return newNode;
     }
 
@@ -85,14 +123,31 @@ public class NodeEdgeGraph implements IGraph{
      *
      * @param descr1 the source node for the edge
      * @param descr2 the target node for the edge
+     *
+     * Runtime:
+     *      Amortized expected O(1)
+     *      The duplicate check is a hash probe of the source node's adjacency set
      */
     public void addDirectedEdge(String descr1, String descr2) {
         Node node1 = this.allNodes.get(descr1);
         if (node1 == null) node1 = this.addNodeUnchecked(descr1);
         Node node2 = this.allNodes.get(descr2);
         if (node2 == null) node2 = this.addNodeUnchecked(descr2);
-        if (!(node1.nextNodes.contains(node2))) {
-            node1.addEdge(node2);
+        if (node1.addEdge(node2)) {
+            this.edgeAdded(node1, node2);
+        }
+    }
+
+    /**
+     * Helper method to record that a new edge was added and tell the listeners
+     *
+     * @param from source node of the edge
+     * @param to target node of the edge
+     */
+    private void edgeAdded(Node from, Node to) {
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.edgeAdded(from.id, to.id);
         }
     }
 
@@ -111,21 +166,256 @@ public class NodeEdgeGraph implements IGraph{
         this.addDirectedEdge(descr2, descr1);
     }
 
+    /**
+     * Method to add a directed edge with a travel cost between the nodes associated
+     * with the given descriptions, creating the nodes if needed.
+     * If the edge already exists its cost is replaced
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edge
+     */
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        IGraph.checkWeight(weight);
+        Node node1 = this.allNodes.get(descr1);
+        if (node1 == null) node1 = this.addNodeUnchecked(descr1);
+        Node node2 = this.allNodes.get(descr2);
+        if (node2 == null) node2 = this.addNodeUnchecked(descr2);
+        if (node1.addEdge(node2, weight)) {
+            this.edgeAdded(node1, node2);
+        } else {
+            this.modCount++;
+        }
+    }
+
+    /**
+     * Method to add an undirected edge with the same travel cost both ways between
+     * the nodes associated with the given descriptions, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edges
+     */
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    /**
+     * Method to add every label that does not already name a node, in order, and get the id of each
+     *
+     * @param labels the descriptions of the nodes; ones already in the graph are not added again
+     * @return the id of each label, in the iteration order of labels
+     *
+     * Runtime:
+     *      Amortized expected O(L) Where L is the number of labels, with the node list grown once
+     *      and the label map rebuilt once at its final size when the batch is larger than the graph
+     */
+    @Override
+    public int[] addNodes(Collection<String> labels) {
+        int expected = this.nodesById.size() + labels.size();
+        this.nodesById.ensureCapacity(expected);
+        if (labels.size() > this.allNodes.size()) {
+            HashMap<String, Node> resized = new HashMap<>(expected * 4 / 3 + 1);
+            resized.putAll(this.allNodes);
+            this.allNodes = resized;
+        }
+        int[] ids = new int[labels.size()];
+        int i = 0;
+        for (String label : labels) {
+            Node node = this.allNodes.get(label);
+            if (node == null) node = this.addNodeUnchecked(label);
+            ids[i++] = node.id;
+        }
+        return ids;
+    }
+
+    /**
+     * Method to add directed edges between existing nodes by id, skipping edges already present
+     * and repeats within the batch
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @throws IllegalArgumentException if the arrays differ in length or an id is not a node
+     *
+     * Runtime:
+     *      Expected O(B log B) Where B is the size of the batch
+     *      Sorting groups the batch by source and target, so each adjacency set is sized once
+     *      before its edges are added in a single pass
+     */
+    @Override
+    public void addEdges(int[] from, int[] to) {
+        EdgeBatch.check(from, to, null, this);
+        long[] keys = EdgeBatch.sortedKeys(from, to);
+
+        // each run of keys with the same source is one node's new neighbors
+        for (int start = 0, end; start < keys.length; start = end) {
+            int source = EdgeBatch.source(keys[start]);
+            end = start + 1;
+            while (end < keys.length && EdgeBatch.source(keys[end]) == source) {
+                end++;
+            }
+            this.nodesById.get(source).nextNodes.ensureCapacity(end - start);
+        }
+        int[] targets = new int[keys.length];
+        for (int e = 0; e < keys.length; e++) {
+            targets[e] = EdgeBatch.target(keys[e]);
+        }
+        Arrays.sort(targets);
+        for (int start = 0, end; start < targets.length; start = end) {
+            end = start + 1;
+            while (end < targets.length && targets[end] == targets[start]) {
+                end++;
+            }
+            this.nodesById.get(targets[start]).prevNodes.ensureCapacity(end - start);
+        }
+
+        for (long key : keys) {
+            Node node1 = this.nodesById.get(EdgeBatch.source(key));
+            Node node2 = this.nodesById.get(EdgeBatch.target(key));
+            if (node1.addEdge(node2)) {
+                this.edgeAdded(node1, node2);
+            }
+        }
+    }
+
+    /**
+     * Method to add directed edges with travel costs between existing nodes by id, replacing the
+     * cost of edges already present. An edge repeated within the batch ends with its last cost
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @param weights the non-negative cost of each edge
+     * @throws IllegalArgumentException if the arrays differ in length, an id is not a node or
+     *      a weight is negative, infinite or NaN
+     */
+    @Override
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        EdgeBatch.check(from, to, weights, this);
+        this.addEdges(from, to);
+        for (int i = 0; i < from.length; i++) {
+            this.nodesById.get(from[i]).nextNodes.put(to[i], weights[i]);
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Method to remove a node and every edge to or from it. Its id is left to a placeholder
+     * with no label until a new node reuses it
+     *
+     * @param descr the description of the node to remove
+     * @return true if the node was removed, false if there is no such node
+     *
+     * Runtime:
+     *      Amortized expected O(D) Where D is the number of edges to or from the node
+     *      Each edge is a constant time tombstone in the adjacency set at its other end
+     */
+    @Override
+    public boolean removeNode(String descr) {
+        Node node = this.allNodes.remove(descr);
+        if (node == null) {
+            return false;
+        }
+        node.nextNodes.forEach(to -> {
+            this.nodesById.get(to).prevNodes.remove(node.id);
+            this.edgeRemoved(node.id, to);
+        });
+        node.prevNodes.forEach(from -> {
+            // a self edge was already removed with the outgoing edges
+            if (from != node.id) {
+                this.nodesById.get(from).nextNodes.remove(node.id);
+                this.edgeRemoved(from, node.id);
+            }
+        });
+        this.nodesById.set(node.id, new Node(null, node.id));
+        this.freeIds.add(node.id);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeRemoved(node.id);
+        }
+        return true;
+    }
+
+    /**
+     * Method to remove a directed edge between the nodes associated with the given descriptions
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if the edge was removed, false if there is no such edge
+     *
+     * Runtime:
+     *      Amortized expected O(1)
+     */
+    @Override
+    public boolean removeEdge(String descr1, String descr2) {
+        Node node1 = this.allNodes.get(descr1);
+        Node node2 = this.allNodes.get(descr2);
+        if (node1 == null || node2 == null || !node1.nextNodes.remove(node2.id)) {
+            return false;
+        }
+        node2.prevNodes.remove(node1.id);
+        this.edgeRemoved(node1.id, node2.id);
+        return true;
+    }
+
+    /**
+     * Helper method to record that an edge was removed and tell the listeners
+     *
+     * @param from id of the source node of the edge
+     * @param to id of the target node of the edge
+     */
+    private void edgeRemoved(int from, int to) {
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.edgeRemoved(from, to);
+        }
+    }
+
+    /**
+     * Method to squeeze the tombstones out of every adjacency set and drop the ids of removed
+     * nodes at the end of the id range
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of node ids and E the number of edges
+     */
+    @Override
+    public void compact() {
+        for (Node node : this.nodesById) {
+            node.nextNodes.compact();
+            node.prevNodes.compact();
+        }
+        int size = this.nodesById.size();
+        while (size > 0 && this.nodesById.get(size - 1).descr == null) {
+            size--;
+        }
+        if (size < this.nodesById.size()) {
+            this.nodesById.subList(size, this.nodesById.size()).clear();
+            IntList kept = new IntList(this.freeIds.size());
+            for (int i = 0; i < this.freeIds.size(); i++) {
+                if (this.freeIds.get(i) < size) {
+                    kept.add(this.freeIds.get(i));
+                }
+            }
+            this.freeIds = kept;
+            this.modCount++;
+        }
+        this.nodesById.trimToSize();
+    }
+
     /**
      * Method to count how many nodes have edges to themselves
      *
      * @return the number of nodes that have edges to themselves
      *
      * Runtime:
-     *      O(N * M) Where N is the number of Nodes and M is the number of neighbors to the nodes
+     *      O(N) Where N is the number of Nodes
      *      Need to iterate once through the nodes checking for if they contain a link to themselves
-     *      However each of the N calls also makes a call that's O(M)
-     *      I'm not sure if that makes this O(N^2) as worst case M = N
+     *      Each check is a constant time probe of the node's adjacency set
      */
     public int countSelfEdges() {
         int count = 0;
-        for (String nodeDesc : this.allNodes.keySet()) {
-            if (this.getNeighbors(nodeDesc).contains(nodeDesc)) {
+        for (Node node : this.nodesById) {
+            if (node.nextNodes.contains(node.id)) {
                 count++;
             }
         }
@@ -140,23 +430,17 @@ public class NodeEdgeGraph implements IGraph{
      * @return true if fromNodeLabel has an edge to every other node, otherwise false
      *
      * Runtime:
-     *      O(N) Runtime in Node Implementation where N is the number of nodes in graph
-     *      Must iterate through the list of nodes in graph
-     *      Each has to be confirmed to be in the list of neighbors of the originating node
+     *      O(1) Runtime in Node Implementation
+     *      The adjacency set holds no duplicates, so its size (less any self edge)
+     *      only equals the number of other nodes when every one of them is present
      */
     public boolean reachesAllOthers(String fromNodeLabel) {
-        LinkedList<String> descList = this.getNeighbors(fromNodeLabel);
-        HashSet<String> descSet = new HashSet<>();
-        for (String string : descList) {
-            descSet.add(string);
-        }
-        descSet.add(fromNodeLabel);
-        for (String string : this.allNodes.keySet()) {
-            if (!descSet.contains(string)) {
-                return false;
-            }
+        Node node = this.allNodes.get(fromNodeLabel);
+        int others = node.nextNodes.size();
+        if (node.nextNodes.contains(node.id)) {
+            others--;
         }
-        return true;
+        return others == this.allNodes.size() - 1;
     }
 
     /**
@@ -167,14 +451,124 @@ public class NodeEdgeGraph implements IGraph{
      */
     @Override
     public LinkedList<String> getNeighbors(String fromNode) {
-        Node nodeObject = this.allNodes.get(fromNode);
         LinkedList<String> neighbors = new LinkedList<>();
-        for (Node node : nodeObject.nextNodes) {
-            neighbors.add(node.descr);
-        }
+        this.forEachNeighbor(this.allNodes.get(fromNode).id, id -> neighbors.add(this.labelOf(id)));
         return neighbors;
     }
 
+    /**
+     * Method to get the number of node ids in the graph
+     *
+     * @return one more than the largest node id, counting the ids of removed nodes not yet reused
+     */
+    @Override
+    public int nodeCount() {
+        return this.nodesById.size();
+    }
+
+    /**
+     * Method to get the id of the node with a name
+     *
+     * @param label name of the node
+     * @return the id of the node, or -1 if there is no such node
+     */
+    @Override
+    public int idOf(String label) {
+        Node node = this.allNodes.get(label);
+        return node == null ? -1 : node.id;
+    }
+
+    /**
+     * Method to get the name of the node with an id
+     *
+     * @param id id of the node
+     * @return the name of the node, or null if it was removed
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.nodesById.get(id).descr;
+    }
+
+    /**
+     * Method to visit the ids of all outgoing connections from a node
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.nodesById.get(id).nextNodes.forEach(action);
+    }
+
+    /**
+     * Method to visit the ids and edge weights of all outgoing connections from a node
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        this.nodesById.get(id).nextNodes.forEachWeighted(action);
+    }
+
+    /**
+     * Method to visit the ids of all incoming connections to a node
+     *
+     * @param id id of node to check for incoming connections to
+     * @param action called with the id of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        this.nodesById.get(id).prevNodes.forEach(action);
+    }
+
+    /**
+     * Method to get the number of modifications made to the graph so far
+     *
+     * @return a count incremented by every node or edge added or removed and every weight set
+     */
+    @Override
+    public long modCount() {
+        return this.modCount;
+    }
+
+    /**
+     * Method to register a listener for added nodes and edges
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Method to stop notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      Expected O(1)
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        Node node1 = this.allNodes.get(descr1);
+        Node node2 = this.allNodes.get(descr2);
+        return node1 != null && node2 != null && node1.nextNodes.contains(node2.id);
+    }
+
     /**
      * Method to return the name strings of all nodes in the graph
      *
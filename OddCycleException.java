@@ -0,0 +1,40 @@
+package sol;
+
+import src.NoScheduleException;
+
+import java.util.LinkedList;
+
+/**
+ * Exception thrown when a graph cannot be split into two schedules, carrying an
+ * odd cycle of conflicts that proves it. Every node in the cycle conflicts with the
+ * next, and the last conflicts with the first
+ */
+public class OddCycleException extends NoScheduleException {
+    private static final long serialVersionUID = 1L;
+
+    LinkedList<String> cycle;
+
+    /**
+     * Constructor for the exception
+     *
+     * @param cycle the labels of the nodes around the odd cycle, in order
+     */
+    public OddCycleException(LinkedList<String> cycle) {
+        super();
+        this.cycle = cycle;
+    }
+
+    /**
+     * Method to get the odd cycle that made scheduling impossible
+     *
+     * @return the labels around the cycle, with the closing edge from the last back to the first implied
+     */
+    public LinkedList<String> getCycle() {
+        return this.cycle;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Conflicts form an odd cycle: " + this.cycle;
+    }
+}
@@ -0,0 +1,259 @@
+package sol;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Class for memory outside the Java heap, handed out in blocks carved from direct ByteBuffer
+ * chunks. Chunks start small and double in size up to a cap, so a small graph stays small and a
+ * large one is not one huge allocation. Block sizes are rounded up to a power of two, and a freed
+ * block goes on the free list of its size, linked through its own first eight bytes, so reusing
+ * memory needs nothing on the heap. An address holds the chunk number in its high half and the
+ * offset in the chunk in its low half; address 0 is never handed out and stands for no block.
+ * Chunks are only given back when the arena itself is garbage collected.
+ */
+final class OffHeapArena {
+    static final int MIN_CHUNK = 1 << 16;
+    static final int MAX_CHUNK = 1 << 26;
+    static final int MAX_BLOCK = 1 << 30;
+    private static final int MIN_BLOCK = 16;
+
+    ByteBuffer[] chunks;
+    int chunkCount;
+    int top; // first unused byte of the last chunk
+    long[] freeBlocks; // first free block of each power of two size, or 0 if there is none
+    long reserved; // bytes of direct memory held by the chunks
+
+    /**
+     * Constructor for an arena holding one small chunk
+     */
+    OffHeapArena() {
+        this.chunks = new ByteBuffer[8];
+        this.freeBlocks = new long[31];
+        this.addChunk(MIN_CHUNK);
+        // skip the first bytes so that no block starts at address 0
+        this.top = 8;
+    }
+
+    /**
+     * Gets the size of the block that holds a number of bytes
+     *
+     * @param bytes number of bytes needed
+     * @return the smallest power of two that is at least bytes and at least the minimum block
+     */
+    static int blockSize(int bytes) {
+        return Math.max(MIN_BLOCK, Integer.highestOneBit(bytes - 1) << 1);
+    }
+
+    /**
+     * Hands out a block, reusing a freed block of the same size if there is one
+     *
+     * @param bytes number of bytes needed
+     * @return address of a block of blockSize(bytes) bytes with undefined contents
+     * @throws IllegalArgumentException if bytes is larger than MAX_BLOCK
+     *
+     * Runtime:
+     *      O(1) Apart from the allocation of a new chunk when the last one is full
+     */
+    long allocate(int bytes) {
+        if (bytes > MAX_BLOCK) {
+            throw new IllegalArgumentException("Off-heap block too large: " + bytes + " bytes");
+        }
+        int size = blockSize(bytes);
+        int sizeClass = Integer.numberOfTrailingZeros(size);
+        long address = this.freeBlocks[sizeClass];
+        if (address != 0) {
+            this.freeBlocks[sizeClass] = this.getLong(address);
+            return address;
+        }
+        ByteBuffer last = this.chunks[this.chunkCount - 1];
+        if (size > last.capacity() - this.top) {
+            // hand the end of the full chunk to the free lists rather than waste it
+            for (int rest = last.capacity() - this.top; rest >= MIN_BLOCK; rest = last.capacity() - this.top) {
+                int piece = Integer.highestOneBit(rest);
+                this.free(this.address(this.chunkCount - 1, this.top), piece);
+                this.top += piece;
+            }
+            this.addChunk(Math.max(size, Math.min(MAX_CHUNK, last.capacity() * 2)));
+            this.top = 0;
+        }
+        address = this.address(this.chunkCount - 1, this.top);
+        this.top += size;
+        return address;
+    }
+
+    /**
+     * Gives a block back to be handed out again
+     *
+     * @param address address of the block
+     * @param bytes the number of bytes the block was allocated for, or any number that rounds to its size
+     */
+    void free(long address, int bytes) {
+        int sizeClass = Integer.numberOfTrailingZeros(blockSize(bytes));
+        this.putLong(address, this.freeBlocks[sizeClass]);
+        this.freeBlocks[sizeClass] = address;
+    }
+
+    /**
+     * Gets the number of bytes of direct memory the arena holds, used or not
+     *
+     * @return bytes held by all chunks
+     */
+    long reserved() {
+        return this.reserved;
+    }
+
+    /**
+     * Reads an int at an address
+     *
+     * @param address where the value starts
+     * @return the value stored there
+     */
+    int getInt(long address) {
+        return this.chunk(address).getInt((int) address);
+    }
+
+    /**
+     * Writes an int at an address
+     *
+     * @param address where the value starts
+     * @param value the value to store
+     */
+    void putInt(long address, int value) {
+        this.chunk(address).putInt((int) address, value);
+    }
+
+    /**
+     * Reads a long at an address
+     *
+     * @param address where the value starts
+     * @return the value stored there
+     */
+    long getLong(long address) {
+        return this.chunk(address).getLong((int) address);
+    }
+
+    /**
+     * Writes a long at an address
+     *
+     * @param address where the value starts
+     * @param value the value to store
+     */
+    void putLong(long address, long value) {
+        this.chunk(address).putLong((int) address, value);
+    }
+
+    /**
+     * Reads a double at an address
+     *
+     * @param address where the value starts
+     * @return the value stored there
+     */
+    double getDouble(long address) {
+        return this.chunk(address).getDouble((int) address);
+    }
+
+    /**
+     * Writes a double at an address
+     *
+     * @param address where the value starts
+     * @param value the value to store
+     */
+    void putDouble(long address, double value) {
+        this.chunk(address).putDouble((int) address, value);
+    }
+
+    /**
+     * Reads a byte at an address
+     *
+     * @param address where the value starts
+     * @return the value stored there
+     */
+    byte getByte(long address) {
+        return this.chunk(address).get((int) address);
+    }
+
+    /**
+     * Copies bytes out of the arena
+     *
+     * @param address where the bytes start
+     * @param bytes array to fill, all of which is written
+     */
+    void get(long address, byte[] bytes) {
+        this.chunk(address).get((int) address, bytes);
+    }
+
+    /**
+     * Copies bytes into the arena
+     *
+     * @param address where the bytes go
+     * @param bytes the bytes to write
+     */
+    void put(long address, byte[] bytes) {
+        this.chunk(address).put((int) address, bytes);
+    }
+
+    /**
+     * Sets bytes of the arena to zero
+     *
+     * @param address where the bytes start
+     * @param bytes number of bytes to clear, a multiple of four
+     */
+    void clear(long address, int bytes) {
+        ByteBuffer chunk = this.chunk(address);
+        int i = (int) address;
+        int end = i + bytes;
+        for (; i + 8 <= end; i += 8) {
+            chunk.putLong(i, 0);
+        }
+        for (; i < end; i += 4) {
+            chunk.putInt(i, 0);
+        }
+    }
+
+    /**
+     * Copies bytes from one place in the arena to another. The two ranges may overlap
+     *
+     * @param from address of the first byte to copy
+     * @param to address to copy it to
+     * @param bytes number of bytes to copy
+     */
+    void copy(long from, long to, int bytes) {
+        this.chunk(to).put((int) to, this.chunk(from), (int) from, bytes);
+    }
+
+    /**
+     * Helper method to add a chunk of direct memory in the platform's byte order
+     *
+     * @param capacity size of the chunk in bytes
+     */
+    private void addChunk(int capacity) {
+        if (this.chunkCount == this.chunks.length) {
+            this.chunks = Arrays.copyOf(this.chunks, this.chunkCount * 2);
+        }
+        this.chunks[this.chunkCount++] = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        this.reserved += capacity;
+    }
+
+    /**
+     * Helper method to get the chunk an address is in
+     *
+     * @param address an address in the arena
+     * @return the chunk holding it
+     */
+    private ByteBuffer chunk(long address) {
+        return this.chunks[(int) (address >>> 32)];
+    }
+
+    /**
+     * Helper method to build an address
+     *
+     * @param chunk number of the chunk
+     * @param offset position in the chunk
+     * @return the address of that position
+     */
+    private long address(int chunk, int offset) {
+        return (long) chunk << 32 | offset;
+    }
+}
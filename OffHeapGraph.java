@@ -0,0 +1,1061 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for a graph whose nodes, edges and labels live outside the Java heap, in an OffHeapArena
+ * of direct memory that grows a chunk at a time. Each node is a fixed size record pointing at
+ * its label and at two rows, one of outgoing edges with their weights and one of incoming edges.
+ * As in AdjacencySet, a row keeps its edges in the order they were added and, once it holds more
+ * than a few, an open addressing table of their positions beside it in the arena, so adding,
+ * finding and removing an edge all take expected constant time; a removal moves the row's last
+ * edge into the gap. All that stays on the heap is an open addressing index from label to id, of about 8 to 16 bytes
+ * per node, so heap size and garbage collection cost stay flat however many edges are added. A
+ * removed node's id is kept on a free list threaded through the node records until a new node
+ * reuses it.
+ */
+public class OffHeapGraph implements IGraph {
+    // each node record holds the address of its outgoing row, incoming row and label,
+    // the hash of its label and, once removed, the next id on the free list
+    private static final int RECORD_SIZE = 32;
+    private static final int OUT_POS = 0;
+    private static final int IN_POS = 8;
+    private static final int LABEL_POS = 16;
+    private static final int HASH_POS = 24;
+    private static final int NEXT_FREE_POS = 28;
+    private static final int NODE_SHIFT = 10; // node records are allocated 1024 at a time
+    private static final int NODE_MASK = (1 << NODE_SHIFT) - 1;
+
+    // each row holds its size, its capacity and the address of its position table, then its entries
+    private static final int SIZE_POS = 0;
+    private static final int CAPACITY_POS = 4;
+    private static final int TABLE_POS = 8;
+    private static final int ROW_HEADER = 16;
+    // rows with room for no more than this many entries are scanned instead of keeping a table
+    private static final int HASH_THRESHOLD = 8;
+    private static final int OUT_ENTRY = 12; // target id and edge weight
+    private static final int IN_ENTRY = 4; // source id
+
+    public String name;
+    OffHeapArena arena;
+    long[] nodeBlocks; // address of each block of node records
+    int nodeCount;
+    int liveCount; // number of ids that have a node
+    int freeHead; // most recently removed id not yet reused, or -1
+    int[] index; // slots holding node id + 1, or 0 where empty
+    long modCount;
+    ArrayList<GraphListener> listeners;
+
+    /**
+     * Constructor for an empty off-heap graph
+     *
+     * @param name name of graph
+     */
+    public OffHeapGraph(String name) {
+        this.name = name;
+        this.arena = new OffHeapArena();
+        this.nodeBlocks = new long[4];
+        this.freeHead = -1;
+        this.index = new int[16];
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * Method to add a new node with the given description
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already associated with a node in the graph
+     */
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        if (this.idOf(descr) >= 0) {
+            throw new NodeNameExistsException(descr);
+        }
+        this.addNodeUnchecked(descr);
+    }
+
+    /**
+     * Helper method to get the id of a node, adding the node if there is none with that name
+     *
+     * @param descr the text description of the node
+     * @return the id of the node
+     */
+    private int getOrAddNode(String descr) {
+        int id = this.idOf(descr);
+        return id >= 0 ? id : this.addNodeUnchecked(descr);
+    }
+
+    /**
+     * Helper method to add a node without checking whether it exists. The id of a removed node
+     * is reused if there is one
+     *
+     * @param descr the text description or label to associate with the node
+     * @return the id of the new node
+     */
+    private int addNodeUnchecked(String descr) {
+        if ((this.liveCount + 1) * 2 > this.index.length) {
+            this.resizeIndex(this.index.length * 2);
+        }
+        int id;
+        if (this.freeHead >= 0) {
+            id = this.freeHead;
+            this.freeHead = this.arena.getInt(this.record(id) + NEXT_FREE_POS);
+        } else {
+            id = this.nodeCount++;
+            int block = id >>> NODE_SHIFT;
+            if (block == this.nodeBlocks.length) {
+                this.nodeBlocks = Arrays.copyOf(this.nodeBlocks, block * 2);
+            }
+            if ((id & NODE_MASK) == 0) {
+                this.nodeBlocks[block] = this.arena.allocate(RECORD_SIZE << NODE_SHIFT);
+            }
+        }
+        byte[] bytes = descr.getBytes(StandardCharsets.UTF_8);
+        long label = this.arena.allocate(4 + bytes.length);
+        this.arena.putInt(label, bytes.length);
+        this.arena.put(label + 4, bytes);
+        long record = this.record(id);
+        this.arena.putLong(record + OUT_POS, 0);
+        this.arena.putLong(record + IN_POS, 0);
+        this.arena.putLong(record + LABEL_POS, label);
+        this.arena.putInt(record + HASH_POS, GraphFile.hash(descr));
+        this.arena.putInt(record + NEXT_FREE_POS, -1);
+        this.indexInsert(id);
+        this.liveCount++;
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeAdded(id);
+        }
+        return id;
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given descriptions,
+     * creating the nodes if needed. If the edge already exists, no changes are made
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     *
+     * Runtime:
+     *      Amortized expected O(L) Where L is the label length
+     *      The duplicate check is a probe of the source row's position table
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        int from = this.getOrAddNode(descr1);
+        int to = this.getOrAddNode(descr2);
+        if (this.link(from, to, IGraph.DEFAULT_WEIGHT, false)) {
+            this.edgeAdded(from, to);
+        }
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given descriptions.
+     * This is equivalent to adding two directed edges, one each way
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.addDirectedEdge(descr1, descr2);
+        this.addDirectedEdge(descr2, descr1);
+    }
+
+    /**
+     * Method to add a directed edge with a travel cost between the nodes associated with the
+     * given descriptions, creating the nodes if needed. If the edge already exists its cost is replaced
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edge
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        IGraph.checkWeight(weight);
+        int from = this.getOrAddNode(descr1);
+        int to = this.getOrAddNode(descr2);
+        if (this.link(from, to, weight, true)) {
+            this.edgeAdded(from, to);
+        } else {
+            this.modCount++;
+        }
+    }
+
+    /**
+     * Method to add an undirected edge with the same travel cost both ways between the nodes
+     * associated with the given descriptions, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edges
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    /**
+     * Method to add directed edges between existing nodes by id, skipping edges already present
+     * and repeats within the batch
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @throws IllegalArgumentException if the arrays differ in length or an id is not a node
+     *
+     * Runtime:
+     *      Expected O(B log B) Where B is the size of the batch
+     *      Sorting groups the batch by source and by target, so each row is grown at most once
+     *      before its edges are added
+     */
+    @Override
+    public void addEdges(int[] from, int[] to) {
+        EdgeBatch.check(from, to, null, this);
+        long[] keys = EdgeBatch.sortedKeys(from, to);
+        this.reserve(keys);
+        for (long key : keys) {
+            int source = EdgeBatch.source(key);
+            int target = EdgeBatch.target(key);
+            if (this.link(source, target, IGraph.DEFAULT_WEIGHT, false)) {
+                this.edgeAdded(source, target);
+            }
+        }
+    }
+
+    /**
+     * Method to add directed edges with travel costs between existing nodes by id, replacing the
+     * cost of edges already present. An edge repeated within the batch ends with its last cost
+     *
+     * @param from id of the source node of each edge
+     * @param to id of the target node of each edge
+     * @param weights the non-negative cost of each edge
+     * @throws IllegalArgumentException if the arrays differ in length, an id is not a node or
+     *      a weight is negative, infinite or NaN
+     */
+    @Override
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        EdgeBatch.check(from, to, weights, this);
+        this.reserve(EdgeBatch.sortedKeys(from, to));
+        for (int i = 0; i < from.length; i++) {
+            if (this.link(from[i], to[i], weights[i], true)) {
+                this.edgeAdded(from[i], to[i]);
+            }
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Helper method to grow every row a batch adds to, once, to hold all of the batch's edges
+     *
+     * @param keys the batch as sorted, distinct keys
+     */
+    private void reserve(long[] keys) {
+        int[] targets = new int[keys.length];
+        for (int start = 0, end; start < keys.length; start = end) {
+            int source = EdgeBatch.source(keys[start]);
+            end = start + 1;
+            while (end < keys.length && EdgeBatch.source(keys[end]) == source) {
+                end++;
+            }
+            this.ensureRowCapacity(source, OUT_POS, OUT_ENTRY, end - start);
+        }
+        for (int e = 0; e < keys.length; e++) {
+            targets[e] = EdgeBatch.target(keys[e]);
+        }
+        Arrays.sort(targets);
+        for (int start = 0, end; start < targets.length; start = end) {
+            end = start + 1;
+            while (end < targets.length && targets[end] == targets[start]) {
+                end++;
+            }
+            this.ensureRowCapacity(targets[start], IN_POS, IN_ENTRY, end - start);
+        }
+    }
+
+    /**
+     * Helper method to record that a new edge was added and tell the listeners
+     *
+     * @param from id of the source node of the edge
+     * @param to id of the target node of the edge
+     */
+    private void edgeAdded(int from, int to) {
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.edgeAdded(from, to);
+        }
+    }
+
+    /**
+     * Method to remove a node and every edge to or from it, giving its rows and label back to the
+     * arena. Its id is left with no label until a new node reuses it
+     *
+     * @param descr the description of the node to remove
+     * @return true if the node was removed, false if there is no such node
+     *
+     * Runtime:
+     *      Expected O(L + D) Where L is the label length and D the number of edges to or from the node
+     *      Each edge is taken out of the row at its other end with a probe of that row's table
+     */
+    @Override
+    public boolean removeNode(String descr) {
+        int id = this.idOf(descr);
+        if (id < 0) {
+            return false;
+        }
+        long record = this.record(id);
+        long out = this.arena.getLong(record + OUT_POS);
+        for (int i = 0, size = this.rowSize(out); i < size; i++) {
+            int to = this.arena.getInt(this.entry(out, i, OUT_ENTRY));
+            this.removeEntry(to, IN_POS, IN_ENTRY, id);
+            this.edgeRemoved(id, to);
+        }
+        this.freeRow(out, OUT_ENTRY);
+        this.arena.putLong(record + OUT_POS, 0);
+        // the self edge, if any, has already been taken out of the incoming row
+        long in = this.arena.getLong(record + IN_POS);
+        for (int i = 0, size = this.rowSize(in); i < size; i++) {
+            int from = this.arena.getInt(this.entry(in, i, IN_ENTRY));
+            this.removeEntry(from, OUT_POS, OUT_ENTRY, id);
+            this.edgeRemoved(from, id);
+        }
+        this.freeRow(in, IN_ENTRY);
+        this.arena.putLong(record + IN_POS, 0);
+
+        this.indexRemove(id);
+        long label = this.arena.getLong(record + LABEL_POS);
+        this.arena.free(label, 4 + this.arena.getInt(label));
+        this.arena.putLong(record + LABEL_POS, 0);
+        this.arena.putInt(record + NEXT_FREE_POS, this.freeHead);
+        this.freeHead = id;
+        this.liveCount--;
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeRemoved(id);
+        }
+        return true;
+    }
+
+    /**
+     * Method to remove a directed edge between the nodes associated with the given descriptions
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if the edge was removed, false if there is no such edge
+     *
+     * Runtime:
+     *      Expected O(L) Where L is the label length
+     */
+    @Override
+    public boolean removeEdge(String descr1, String descr2) {
+        int from = this.idOf(descr1);
+        int to = this.idOf(descr2);
+        if (from < 0 || to < 0 || !this.removeEntry(from, OUT_POS, OUT_ENTRY, to)) {
+            return false;
+        }
+        this.removeEntry(to, IN_POS, IN_ENTRY, from);
+        this.edgeRemoved(from, to);
+        return true;
+    }
+
+    /**
+     * Helper method to record that an edge was removed and tell the listeners
+     *
+     * @param from id of the source node of the edge
+     * @param to id of the target node of the edge
+     */
+    private void edgeRemoved(int from, int to) {
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.edgeRemoved(from, to);
+        }
+    }
+
+    /**
+     * Method to move every row into the smallest block that holds it, giving the rest back to the
+     * arena, and to drop the ids of removed nodes at the end of the id range
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of node ids and E the number of edges
+     */
+    @Override
+    public void compact() {
+        for (int id = 0; id < this.nodeCount; id++) {
+            long record = this.record(id);
+            this.arena.putLong(record + OUT_POS, this.shrinkRow(this.arena.getLong(record + OUT_POS), OUT_ENTRY));
+            this.arena.putLong(record + IN_POS, this.shrinkRow(this.arena.getLong(record + IN_POS), IN_ENTRY));
+        }
+        int size = this.nodeCount;
+        while (size > 0 && this.arena.getLong(this.record(size - 1) + LABEL_POS) == 0) {
+            size--;
+        }
+        if (size == this.nodeCount) {
+            return;
+        }
+        int blocks = (size + NODE_MASK) >>> NODE_SHIFT;
+        for (int block = blocks; block < (this.nodeCount + NODE_MASK) >>> NODE_SHIFT; block++) {
+            this.arena.free(this.nodeBlocks[block], RECORD_SIZE << NODE_SHIFT);
+            this.nodeBlocks[block] = 0;
+        }
+        this.nodeCount = size;
+        this.freeHead = -1;
+        for (int id = size - 1; id >= 0; id--) {
+            long record = this.record(id);
+            if (this.arena.getLong(record + LABEL_POS) == 0) {
+                this.arena.putInt(record + NEXT_FREE_POS, this.freeHead);
+                this.freeHead = id;
+            }
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     *
+     * Runtime:
+     *      Expected O(N) Where N is the number of nodes
+     */
+    @Override
+    public int countSelfEdges() {
+        int count = 0;
+        for (int id = 0; id < this.nodeCount; id++) {
+            if (this.find(this.row(id, OUT_POS), OUT_ENTRY, id) >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     *
+     * Runtime:
+     *      Expected O(L) Rows hold no duplicates, so only the row size and any self edge are needed
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int id = this.idOf(fromNodeLabel);
+        long out = this.row(id, OUT_POS);
+        int others = this.rowSize(out);
+        if (this.find(out, OUT_ENTRY, id) >= 0) {
+            others--;
+        }
+        return others == this.liveCount - 1;
+    }
+
+    /**
+     * Method to return a list of all neighboring nodes as strings to a node
+     *
+     * @param fromNode node to check for outgoing connections from
+     * @return a list of strings corresponding to the neighbors of fromNode
+     */
+    @Override
+    public LinkedList<String> getNeighbors(String fromNode) {
+        LinkedList<String> neighbors = new LinkedList<>();
+        this.forEachNeighbor(this.idOf(fromNode), id -> neighbors.add(this.labelOf(id)));
+        return neighbors;
+    }
+
+    /**
+     * Method to return the name strings of all nodes in the graph, decoded from the arena
+     *
+     * @return a hashset of all node name strings
+     */
+    @Override
+    public HashSet<String> getAllNodes() {
+        HashSet<String> allNodesSet = new HashSet<>(this.liveCount * 2);
+        for (int id = 0; id < this.nodeCount; id++) {
+            String label = this.labelOf(id);
+            if (label != null) {
+                allNodesSet.add(label);
+            }
+        }
+        return allNodesSet;
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     *
+     * Runtime:
+     *      Expected O(L) Where L is the label length
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        int from = this.idOf(descr1);
+        int to = this.idOf(descr2);
+        return from >= 0 && to >= 0 && this.find(this.row(from, OUT_POS), OUT_ENTRY, to) >= 0;
+    }
+
+    /**
+     * Method to get the number of node ids in the graph
+     *
+     * @return one more than the largest node id, counting the ids of removed nodes not yet reused
+     */
+    @Override
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Method to check whether an id belongs to a node, without decoding its label
+     *
+     * @param id id to check
+     * @return true if some node has that id, else false
+     */
+    @Override
+    public boolean hasNode(int id) {
+        return id >= 0 && id < this.nodeCount && this.arena.getLong(this.record(id) + LABEL_POS) != 0;
+    }
+
+    /**
+     * Method to get the id of the node with a name by probing the label index and comparing
+     * the stored labels without decoding them
+     *
+     * @param label name of the node
+     * @return the id of the node, or -1 if there is no such node
+     *
+     * Runtime:
+     *      Expected O(L) Where L is the label length
+     */
+    @Override
+    public int idOf(String label) {
+        int hash = GraphFile.hash(label);
+        byte[] key = null;
+        int mask = this.index.length - 1;
+        for (int slot = hash & mask; this.index[slot] != 0; slot = (slot + 1) & mask) {
+            int id = this.index[slot] - 1;
+            long record = this.record(id);
+            if (this.arena.getInt(record + HASH_POS) == hash) {
+                if (key == null) {
+                    key = label.getBytes(StandardCharsets.UTF_8);
+                }
+                if (this.labelEquals(this.arena.getLong(record + LABEL_POS), key)) {
+                    return id;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to get the name of the node with an id, decoded from the arena
+     *
+     * @param id id of the node
+     * @return the name of the node, or null if it was removed
+     */
+    @Override
+    public String labelOf(int id) {
+        long label = this.arena.getLong(this.record(id) + LABEL_POS);
+        if (label == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[this.arena.getInt(label)];
+        this.arena.get(label + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to visit the ids of all outgoing connections from a node
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        long out = this.row(id, OUT_POS);
+        for (int i = 0, size = this.rowSize(out); i < size; i++) {
+            action.accept(this.arena.getInt(this.entry(out, i, OUT_ENTRY)));
+        }
+    }
+
+    /**
+     * Method to visit the ids and edge weights of all outgoing connections from a node
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        long out = this.row(id, OUT_POS);
+        for (int i = 0, size = this.rowSize(out); i < size; i++) {
+            long entry = this.entry(out, i, OUT_ENTRY);
+            action.accept(this.arena.getInt(entry), this.arena.getDouble(entry + 4));
+        }
+    }
+
+    /**
+     * Method to visit the ids of all incoming connections to a node
+     *
+     * @param id id of node to check for incoming connections to
+     * @param action called with the id of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        long in = this.row(id, IN_POS);
+        for (int i = 0, size = this.rowSize(in); i < size; i++) {
+            action.accept(this.arena.getInt(this.entry(in, i, IN_ENTRY)));
+        }
+    }
+
+    /**
+     * Method to get the number of modifications made to the graph so far
+     *
+     * @return a count incremented by every node or edge added or removed and every weight set
+     */
+    @Override
+    public long modCount() {
+        return this.modCount;
+    }
+
+    /**
+     * Method to register a listener for added and removed nodes and edges
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Method to stop notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Method to get how much direct memory the graph holds
+     *
+     * @return bytes of off-heap memory reserved, including space freed for reuse
+     */
+    public long offHeapBytes() {
+        return this.arena.reserved();
+    }
+
+    /**
+     * Helper method to add an edge to the rows of both its ends, or set the weight of an edge
+     * that is already there
+     *
+     * @param from id of the source node
+     * @param to id of the target node
+     * @param weight the weight of the edge
+     * @param replace whether an edge already there takes the new weight
+     * @return true if the edge is new, false if it was already there
+     */
+    private boolean link(int from, int to, double weight, boolean replace) {
+        long out = this.row(from, OUT_POS);
+        int position = this.find(out, OUT_ENTRY, to);
+        if (position >= 0) {
+            if (replace) {
+                this.arena.putDouble(this.entry(out, position, OUT_ENTRY) + 4, weight);
+            }
+            return false;
+        }
+        long entry = this.insertEntry(from, OUT_POS, OUT_ENTRY, to);
+        this.arena.putDouble(entry + 4, weight);
+        this.insertEntry(to, IN_POS, IN_ENTRY, from);
+        return true;
+    }
+
+    /**
+     * Helper method to append an id to a node's row, moving the row to a block twice the size if it is full
+     *
+     * @param id id of the node that owns the row
+     * @param field position in the node record of the row's address
+     * @param entryBytes size of each entry in the row
+     * @param value the id to append, which must not be in the row
+     * @return the address of the new entry
+     *
+     * Runtime:
+     *      Amortized expected O(1)
+     */
+    private long insertEntry(int id, int field, int entryBytes, int value) {
+        long row = this.ensureRowCapacity(id, field, entryBytes, 1);
+        int size = this.rowSize(row);
+        long entry = this.entry(row, size, entryBytes);
+        this.arena.putInt(entry, value);
+        this.arena.putInt(row + SIZE_POS, size + 1);
+        long table = this.arena.getLong(row + TABLE_POS);
+        if (table != 0) {
+            this.tableInsert(table, this.tableSlots(row), this.hashAt(row, entryBytes, size), size);
+        }
+        return entry;
+    }
+
+    /**
+     * Helper method to take an id out of a node's row, moving the last entry into its place and
+     * giving the row back to the arena once it is empty
+     *
+     * @param id id of the node that owns the row
+     * @param field position in the node record of the row's address
+     * @param entryBytes size of each entry in the row
+     * @param value the id to remove
+     * @return true if the id was in the row, otherwise false
+     *
+     * Runtime:
+     *      Expected O(1)
+     */
+    private boolean removeEntry(int id, int field, int entryBytes, int value) {
+        long record = this.record(id);
+        long row = this.arena.getLong(record + field);
+        int position = this.find(row, entryBytes, value);
+        if (position < 0) {
+            return false;
+        }
+        int last = this.rowSize(row) - 1;
+        if (last == 0) {
+            this.freeRow(row, entryBytes);
+            this.arena.putLong(record + field, 0);
+            return true;
+        }
+        long table = this.arena.getLong(row + TABLE_POS);
+        int slots = this.tableSlots(row);
+        if (table != 0) {
+            this.tableRemove(row, entryBytes, table, slots, position);
+        }
+        if (position != last) {
+            this.arena.copy(this.entry(row, last, entryBytes), this.entry(row, position, entryBytes), entryBytes);
+            if (table != 0) {
+                // point the moved entry's slot at its new position
+                int mask = slots - 1;
+                int slot = this.hashAt(row, entryBytes, position) & mask;
+                while (this.arena.getInt(table + 4L * slot) != last + 1) {
+                    slot = (slot + 1) & mask;
+                }
+                this.arena.putInt(table + 4L * slot, position + 1);
+            }
+        }
+        this.arena.putInt(row + SIZE_POS, last);
+        return true;
+    }
+
+    /**
+     * Helper method to find an id in a row, by scanning a small row or probing the table of a large one
+     *
+     * @param row address of the row, or 0 for an empty row
+     * @param entryBytes size of each entry in the row
+     * @param value the id to look for
+     * @return position of the id in the row, or -1 if it is not there
+     */
+    private int find(long row, int entryBytes, int value) {
+        if (row == 0) {
+            return -1;
+        }
+        long table = this.arena.getLong(row + TABLE_POS);
+        if (table == 0) {
+            for (int i = 0, size = this.rowSize(row); i < size; i++) {
+                if (this.arena.getInt(this.entry(row, i, entryBytes)) == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = this.tableSlots(row) - 1;
+        for (int slot = hash(value) & mask, held; (held = this.arena.getInt(table + 4L * slot)) != 0;
+                slot = (slot + 1) & mask) {
+            if (this.arena.getInt(this.entry(row, held - 1, entryBytes)) == value) {
+                return held - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to make sure a node's row has room for more entries, moving it to a block
+     * at least twice the size if it does not
+     *
+     * @param id id of the node that owns the row
+     * @param field position in the node record of the row's address
+     * @param entryBytes size of each entry in the row
+     * @param extra number of entries about to be added
+     * @return the address of the row afterwards
+     */
+    private long ensureRowCapacity(int id, int field, int entryBytes, int extra) {
+        long record = this.record(id);
+        long row = this.arena.getLong(record + field);
+        int size = this.rowSize(row);
+        if (row != 0 && size + extra <= this.arena.getInt(row + CAPACITY_POS)) {
+            return row;
+        }
+        int capacity = Math.max(size + extra, row == 0 ? 1 : this.arena.getInt(row + CAPACITY_POS) * 2);
+        long grown = this.resizeRow(row, entryBytes, capacity);
+        this.arena.putLong(record + field, grown);
+        return grown;
+    }
+
+    /**
+     * Helper method to move a row's entries into a new row, giving the old one back to the arena
+     *
+     * @param row address of the row, or 0 for an empty row
+     * @param entryBytes size of each entry in the row
+     * @param capacity the least number of entries the new row must hold, at least the row's size
+     * @return address of the new row
+     */
+    private long resizeRow(long row, int entryBytes, int capacity) {
+        int bytes = OffHeapArena.blockSize(ROW_HEADER + capacity * entryBytes);
+        long resized = this.arena.allocate(bytes);
+        int size = this.rowSize(row);
+        this.arena.putInt(resized + SIZE_POS, size);
+        this.arena.putInt(resized + CAPACITY_POS, (bytes - ROW_HEADER) / entryBytes);
+        this.arena.putLong(resized + TABLE_POS, 0);
+        if (row != 0) {
+            this.arena.copy(this.entry(row, 0, entryBytes), this.entry(resized, 0, entryBytes), size * entryBytes);
+            this.freeRow(row, entryBytes);
+        }
+        int slots = this.tableSlots(resized);
+        if (slots > 0) {
+            long table = this.arena.allocate(4 * slots);
+            this.arena.clear(table, 4 * slots);
+            for (int i = 0; i < size; i++) {
+                this.tableInsert(table, slots, this.hashAt(resized, entryBytes, i), i);
+            }
+            this.arena.putLong(resized + TABLE_POS, table);
+        }
+        return resized;
+    }
+
+    /**
+     * Helper method to give a row's block and its table back to the arena
+     *
+     * @param row address of the row, or 0 for an empty row
+     * @param entryBytes size of each entry in the row
+     */
+    private void freeRow(long row, int entryBytes) {
+        if (row != 0) {
+            long table = this.arena.getLong(row + TABLE_POS);
+            if (table != 0) {
+                this.arena.free(table, 4 * this.tableSlots(row));
+            }
+            this.arena.free(row, ROW_HEADER + this.arena.getInt(row + CAPACITY_POS) * entryBytes);
+        }
+    }
+
+    /**
+     * Helper method to move a row into a smaller block if a smaller one holds it
+     *
+     * @param row address of the row, or 0 for an empty row
+     * @param entryBytes size of each entry in the row
+     * @return the address of the row afterwards
+     */
+    private long shrinkRow(long row, int entryBytes) {
+        int size = this.rowSize(row);
+        if (row == 0 || OffHeapArena.blockSize(ROW_HEADER + size * entryBytes)
+                == OffHeapArena.blockSize(ROW_HEADER + this.arena.getInt(row + CAPACITY_POS) * entryBytes)) {
+            return row;
+        }
+        return this.resizeRow(row, entryBytes, size);
+    }
+
+    /**
+     * Helper method to get the number of slots in a row's position table, which follows from its capacity
+     *
+     * @param row address of the row
+     * @return a power of two at least twice the capacity, or 0 if the row is small enough to scan
+     */
+    private int tableSlots(long row) {
+        int capacity = this.arena.getInt(row + CAPACITY_POS);
+        return capacity > HASH_THRESHOLD ? Integer.highestOneBit(capacity * 4 - 1) : 0;
+    }
+
+    /**
+     * Helper method to put a position in the first empty slot of its probe sequence
+     *
+     * @param table address of the table
+     * @param slots number of slots in the table
+     * @param hash hash of the id at the position
+     * @param position position in the row
+     */
+    private void tableInsert(long table, int slots, int hash, int position) {
+        int mask = slots - 1;
+        int slot = hash & mask;
+        while (this.arena.getInt(table + 4L * slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.arena.putInt(table + 4L * slot, position + 1);
+    }
+
+    /**
+     * Helper method to take a position out of a row's table, moving later entries of the
+     * probe sequence back so that no tombstone is needed
+     *
+     * @param row address of the row
+     * @param entryBytes size of each entry in the row
+     * @param table address of the row's table
+     * @param slots number of slots in the table
+     * @param position position in the row to take out
+     */
+    private void tableRemove(long row, int entryBytes, long table, int slots, int position) {
+        int mask = slots - 1;
+        int hole = this.hashAt(row, entryBytes, position) & mask;
+        while (this.arena.getInt(table + 4L * hole) != position + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int slot = (hole + 1) & mask, held; (held = this.arena.getInt(table + 4L * slot)) != 0;
+                slot = (slot + 1) & mask) {
+            int home = this.hashAt(row, entryBytes, held - 1) & mask;
+            // an entry can fill the hole unless its home slot lies after the hole
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                this.arena.putInt(table + 4L * hole, held);
+                hole = slot;
+            }
+        }
+        this.arena.putInt(table + 4L * hole, 0);
+    }
+
+    /**
+     * Helper method to hash the id at a position of a row
+     *
+     * @param row address of the row
+     * @param entryBytes size of each entry in the row
+     * @param position position in the row
+     * @return the hash of the id stored there
+     */
+    private int hashAt(long row, int entryBytes, int position) {
+        return hash(this.arena.getInt(this.entry(row, position, entryBytes)));
+    }
+
+    /**
+     * Helper method to spread the bits of an id so that sequential ids do not cluster
+     *
+     * @param id the id to hash
+     * @return the mixed hash
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Helper method to get the address of a node's record
+     *
+     * @param id id of the node
+     * @return address of its record in the arena
+     */
+    private long record(int id) {
+        return this.nodeBlocks[id >>> NODE_SHIFT] + (long) (id & NODE_MASK) * RECORD_SIZE;
+    }
+
+    /**
+     * Helper method to get the address of one of a node's rows
+     *
+     * @param id id of the node
+     * @param field position in the node record of the row's address
+     * @return address of the row, or 0 if the row is empty
+     */
+    private long row(int id, int field) {
+        return this.arena.getLong(this.record(id) + field);
+    }
+
+    /**
+     * Helper method to get the number of entries in a row
+     *
+     * @param row address of the row, or 0 for an empty row
+     * @return number of entries
+     */
+    private int rowSize(long row) {
+        return row == 0 ? 0 : this.arena.getInt(row + SIZE_POS);
+    }
+
+    /**
+     * Helper method to get the address of an entry in a row
+     *
+     * @param row address of the row
+     * @param position position of the entry
+     * @param entryBytes size of each entry in the row
+     * @return address of the entry
+     */
+    private long entry(long row, int position, int entryBytes) {
+        return row + ROW_HEADER + (long) position * entryBytes;
+    }
+
+    /**
+     * Helper method to compare a stored label with UTF-8 bytes without decoding it
+     *
+     * @param label address of the stored label
+     * @param key the encoded label to compare against
+     * @return true if the stored label has exactly those bytes, otherwise false
+     */
+    private boolean labelEquals(long label, byte[] key) {
+        if (this.arena.getInt(label) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (this.arena.getByte(label + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to put a node in the first empty slot along its probe sequence
+     *
+     * @param id id of the node
+     */
+    private void indexInsert(int id) {
+        int mask = this.index.length - 1;
+        int slot = this.arena.getInt(this.record(id) + HASH_POS) & mask;
+        while (this.index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.index[slot] = id + 1;
+    }
+
+    /**
+     * Helper method to take a node out of the index, moving later entries of the probe
+     * sequence back so that no tombstone is needed
+     *
+     * @param id id of the node
+     */
+    private void indexRemove(int id) {
+        int mask = this.index.length - 1;
+        int hole = this.arena.getInt(this.record(id) + HASH_POS) & mask;
+        while (this.index[hole] != id + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int slot = (hole + 1) & mask; this.index[slot] != 0; slot = (slot + 1) & mask) {
+            int home = this.arena.getInt(this.record(this.index[slot] - 1) + HASH_POS) & mask;
+            // an entry can fill the hole unless its home slot lies after the hole
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                this.index[hole] = this.index[slot];
+                hole = slot;
+            }
+        }
+        this.index[hole] = 0;
+    }
+
+    /**
+     * Helper method to rebuild the index with a new number of slots, from the hashes kept in the node records
+     *
+     * @param slots the new number of slots, a power of two
+     */
+    private void resizeIndex(int slots) {
+        this.index = new int[slots];
+        for (int id = 0; id < this.nodeCount; id++) {
+            if (this.arena.getLong(this.record(id) + LABEL_POS) != 0) {
+                this.indexInsert(id);
+            }
+        }
+    }
+}
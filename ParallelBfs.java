@@ -0,0 +1,231 @@
+package sol;
+
+import src.NoRouteException;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Class for a level-synchronous breadth-first search that expands each level on a fork-join pool.
+ * Small frontiers are expanded top-down, pushing to the neighbors of frontier nodes. Once the
+ * frontier touches a large share of the remaining edges it switches to bottom-up steps, where
+ * each unvisited node pulls from its predecessors and stops at the first one in the frontier.
+ * The search runs over a CsrGraph snapshot so every step works on flat int arrays.
+ */
+public class ParallelBfs {
+    // switch to bottom-up once the frontier's edges exceed 1/ALPHA of the unexplored edges
+    private static final int ALPHA = 14;
+    // switch back to top-down once the frontier shrinks below 1/BETA of the nodes
+    private static final int BETA = 24;
+    // number of frontier nodes or node ids handled by one task
+    private static final int CHUNK = 1024;
+
+    ForkJoinPool pool;
+
+    /**
+     * Constructor for a search engine running on the common fork-join pool
+     */
+    public ParallelBfs() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a search engine running on a given pool
+     *
+     * @param pool the pool to run level expansions on
+     */
+    public ParallelBfs(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Method to compute the hop distance and a shortest-path parent of every node reachable
+     *     from a source. Graphs that are not already a CsrGraph are frozen first
+     *
+     * @param theGraph the graph to traverse
+     * @param sourceLabel the node from which to start searching
+     * @return the distances and parents of all nodes, from which routes can be extracted
+     * @throws IllegalArgumentException if sourceLabel is not a node in theGraph
+     */
+    public Result search(IGraph theGraph, String sourceLabel) {
+        CsrGraph graph = CsrGraph.of(theGraph);
+        int source = graph.idOf(sourceLabel);
+        if (source < 0) {
+            throw new IllegalArgumentException("No node named " + sourceLabel);
+        }
+        int nodeCount = graph.nodeCount();
+        int[] distance = new int[nodeCount];
+        Arrays.fill(distance, -1);
+        // parent ids are stored plus one so that the zeroed array starts out all unvisited
+        AtomicIntegerArray parent = new AtomicIntegerArray(nodeCount);
+        parent.set(source, source + 1);
+        distance[source] = 0;
+
+        int[] frontier = {source};
+        long frontierEdges = graph.offsets[source + 1] - graph.offsets[source];
+        long unexploredEdges = graph.targets.length;
+        boolean bottomUp = false;
+        for (int level = 1; frontier.length > 0; level++) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < nodeCount / BETA) {
+                bottomUp = false;
+            }
+            unexploredEdges -= frontierEdges;
+            int[] current = frontier;
+            int depth = level;
+            if (bottomUp) {
+                frontier = this.pool.submit(() -> bottomUpStep(graph, current, parent, distance, depth)).join();
+            } else {
+                frontier = this.pool.submit(() -> topDownStep(graph, current, parent, distance, depth)).join();
+            }
+            frontierEdges = 0;
+            for (int node : frontier) {
+                frontierEdges += graph.offsets[node + 1] - graph.offsets[node];
+            }
+        }
+
+        int[] parents = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            parents[i] = parent.get(i) - 1;
+        }
+        return new Result(graph, source, distance, parents);
+    }
+
+    /**
+     * Helper method to expand a frontier by pushing to the neighbors of every frontier node.
+     * The first task to claim a node with compareAndSet becomes its parent
+     *
+     * @param graph the graph being searched
+     * @param frontier the nodes discovered in the previous level
+     * @param parent parent of each node plus one, or zero if unvisited
+     * @param distance hop distance of each node, filled in as nodes are claimed
+     * @param level the distance of the nodes being discovered
+     * @return the nodes discovered in this level
+     */
+    private static int[] topDownStep(CsrGraph graph, int[] frontier, AtomicIntegerArray parent,
+                                     int[] distance, int level) {
+        int chunks = (frontier.length + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            IntList found = new IntList(CHUNK);
+            int end = Math.min(frontier.length, (chunk + 1) * CHUNK);
+            for (int i = chunk * CHUNK; i < end; i++) {
+                int node = frontier[i];
+                for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                    int neighbor = graph.targets[e];
+                    if (parent.get(neighbor) == 0 && parent.compareAndSet(neighbor, 0, node + 1)) {
+                        distance[neighbor] = level;
+                        found.add(neighbor);
+                    }
+                }
+            }
+            return found;
+        }).flatMapToInt(found -> Arrays.stream(found.items, 0, found.size)).toArray();
+    }
+
+    /**
+     * Helper method to expand a frontier by having every unvisited node look for a predecessor
+     * in it. Each node is only written by the task that owns it, so no compareAndSet is needed
+     *
+     * @param graph the graph being searched
+     * @param frontier the nodes discovered in the previous level
+     * @param parent parent of each node plus one, or zero if unvisited
+     * @param distance hop distance of each node, filled in as nodes are found
+     * @param level the distance of the nodes being discovered
+     * @return the nodes discovered in this level
+     */
+    private static int[] bottomUpStep(CsrGraph graph, int[] frontier, AtomicIntegerArray parent,
+                                      int[] distance, int level) {
+        long[] inFrontier = new long[(graph.nodeCount() + 63) >>> 6];
+        for (int node : frontier) {
+            inFrontier[node >>> 6] |= 1L << node;
+        }
+        return IntStream.range(0, graph.nodeCount()).parallel().filter(node -> {
+            if (parent.get(node) != 0) {
+                return false;
+            }
+            for (int e = graph.reverseOffsets[node]; e < graph.reverseOffsets[node + 1]; e++) {
+                int predecessor = graph.reverseTargets[e];
+                if ((inFrontier[predecessor >>> 6] & (1L << predecessor)) != 0) {
+                    parent.set(node, predecessor + 1);
+                    distance[node] = level;
+                    return true;
+                }
+            }
+            return false;
+        }).toArray();
+    }
+
+    /**
+     * Class for the outcome of one search, holding the hop distance and parent of every node
+     */
+    public static class Result {
+        CsrGraph graph;
+        int source;
+        int[] distance;
+        int[] parent;
+
+        /**
+         * Constructor for a finished search
+         *
+         * @param graph the snapshot that was searched
+         * @param source id of the source node
+         * @param distance hop distance of each node id, or -1 if unreachable
+         * @param parent the id each node was discovered from, or -1 if unreachable
+         */
+        Result(CsrGraph graph, int source, int[] distance, int[] parent) {
+            this.graph = graph;
+            this.source = source;
+            this.distance = distance;
+            this.parent = parent;
+        }
+
+        /**
+         * Method to get the hop distance from the source to a node
+         *
+         * @param label the node to look up
+         * @return number of edges on a shortest path, or -1 if the node is unreachable or unknown
+         */
+        public int distanceTo(String label) {
+            int node = this.graph.idOf(label);
+            return node < 0 ? -1 : this.distance[node];
+        }
+
+        /**
+         * Method to get the hop distance array indexed by the snapshot's node ids
+         *
+         * @return the distance of each node id, with -1 for unreachable nodes
+         */
+        public int[] distances() {
+            return this.distance;
+        }
+
+        /**
+         * Method to get the parent array indexed by the snapshot's node ids
+         *
+         * @return the id each node was discovered from, with the source as its own parent
+         *         and -1 for unreachable nodes
+         */
+        public int[] parents() {
+            return this.parent;
+        }
+
+        /**
+         * Method to extract a shortest route from the source to a node
+         *
+         * @param label the node we want to reach
+         * @return List of nodes in order of the path
+         * @throws NoRouteException if the node is unreachable or unknown
+         */
+        public LinkedList<String> routeTo(String label) throws NoRouteException {
+            int node = this.graph.idOf(label);
+            if (node < 0 || this.parent[node] < 0) {
+                throw new NoRouteException();
+            }
+            return GraphUtils.constructRoute(this.graph, this.source, node, this.parent);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class for answering "is there a route from one node to another" without traversing the graph.
+ * The graph is condensed into its strongly connected components, which form a DAG. While there
+ * are at most MAX_BITSET_COMPONENTS components, or the limit given to the constructor, every
+ * component stores a bitset of the components it can reach, and a query is two id lookups and
+ * one bit test. The bitsets take C * C / 64 longs for C components, so above the limit every
+ * component instead gets 2-hop labels: a sorted list of hub components it reaches and one of
+ * hubs that reach it, chosen so that any two components with a route between them share a hub.
+ * A query then merges two short lists. The labels are built by a pruned search from each hub in
+ * turn, taking hubs with many edges first, which keeps them small on the sparse DAGs that have
+ * this many components.
+ * If the graph is changed behind the index's back it is rebuilt on the next query. Edges added
+ * through the index itself are folded into the existing bitsets; with labels, they are kept
+ * unless the edge gives some component a new route, in which case the next query rebuilds them.
+ * Many threads may query at once: each query reads one published version of the index and a
+ * rebuild is made by one thread at a time. Changes to the graph must not overlap queries
+ * unless the graph itself allows concurrent reads and writes.
+ */
+public class ReachabilityIndex {
+    // 16384 components take 32 MB of bitsets
+    public static final int MAX_BITSET_COMPONENTS = 1 << 14;
+    // fixes the order of hubs with equal degree, so a graph always gets the same labels
+    private static final long HUB_ORDER_SEED = 0x5EEDL;
+
+    IGraph graph;
+    int maxBitsetComponents;
+    volatile Closure closure; // replaced whole by every rebuild
+
+    /**
+     * Helper class for one version of the index, the reach sets of the components of the
+     *     graph as it was at graphVersion
+     */
+    static final class Closure {
+        volatile long graphVersion;
+        int componentCount;
+        int[] componentOf;
+        long[][] reaches; // reaches[c] has bit d set if component c can reach component d, or null above the limit
+        int[][] outHubs; // outHubs[c] holds the ranks of the hubs c reaches, ascending, while reaches is null
+        int[][] inHubs; // inHubs[c] holds the ranks of the hubs that reach c, ascending, while reaches is null
+
+        /**
+         * Checks whether one component can reach another
+         *
+         * @param fromComponent component the route would start in
+         * @param toComponent component the route would reach
+         * @return true if such a route exists, otherwise false
+         *
+         * Runtime:
+         *      O(1) with bitsets, O(H) with labels Where H is the size of the two labels
+         */
+        boolean reaches(int fromComponent, int toComponent) {
+            if (this.reaches != null) {
+                return (this.reaches[fromComponent][toComponent >>> 6] & (1L << toComponent)) != 0;
+            }
+            return shareHub(this.outHubs[fromComponent], this.inHubs[toComponent]);
+        }
+    }
+
+    /**
+     * Constructor for an index over a graph, built immediately
+     *
+     * @param graph the graph to index
+     */
+    public ReachabilityIndex(IGraph graph) {
+        this(graph, MAX_BITSET_COMPONENTS);
+    }
+
+    /**
+     * Constructor for an index over a graph, built immediately
+     *
+     * @param graph the graph to index
+     * @param maxBitsetComponents the most components for which reach bitsets are built
+     * @throws IllegalArgumentException if maxBitsetComponents is negative
+     */
+    public ReachabilityIndex(IGraph graph, int maxBitsetComponents) {
+        if (maxBitsetComponents < 0) {
+            throw new IllegalArgumentException("maxBitsetComponents must not be negative: " + maxBitsetComponents);
+        }
+        this.graph = graph;
+        this.maxBitsetComponents = maxBitsetComponents;
+        this.rebuild();
+    }
+
+    /**
+     * Method to check whether any route leads from one node to another. A node always reaches itself
+     *
+     * @param fromNodeLabel the node from which the route would start
+     * @param toNodeLabel the node the route would reach
+     * @return true if such a route exists, false if not or if either node is not in the graph
+     *
+     * Runtime:
+     *      O(1) Two label lookups and a bit test, unless the graph changed and the index is rebuilt
+     *      Above the component limit, O(H) Where H is the size of the two components' labels
+     */
+    public boolean hasRoute(String fromNodeLabel, String toNodeLabel) {
+        Closure closure = this.closure;
+        if (this.graph.modCount() != closure.graphVersion) {
+            closure = this.refresh();
+        }
+        int from = this.graph.idOf(fromNodeLabel);
+        int to = this.graph.idOf(toNodeLabel);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        return closure.reaches(closure.componentOf[from], closure.componentOf[to]);
+    }
+
+    /**
+     * Method to add a directed edge to the graph and update the index to match. When both
+     *     nodes already exist, every component that reaches descr1 gains everything descr2
+     *     reaches, which costs O(C * C / 64) instead of a full rebuild. Above the component
+     *     limit the labels are kept if descr1 already reached descr2, and otherwise rebuilt
+     *     by the next query
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    public synchronized void addDirectedEdge(String descr1, String descr2) {
+        Closure closure = this.closure;
+        boolean current = this.graph.modCount() == closure.graphVersion;
+        int from = this.graph.idOf(descr1);
+        int to = this.graph.idOf(descr2);
+        this.graph.addDirectedEdge(descr1, descr2);
+        if (!current || from < 0 || to < 0) {
+            this.rebuild();
+            return;
+        }
+        int fromComponent = closure.componentOf[from];
+        int toComponent = closure.componentOf[to];
+        if (closure.reaches != null) {
+            this.connect(closure, fromComponent, toComponent);
+        } else if (!closure.reaches(fromComponent, toComponent)) {
+            return;
+        }
+        closure.graphVersion = this.graph.modCount();
+    }
+
+    /**
+     * Method to add an undirected edge to the graph and update the index to match
+     *
+     * @param descr1 the first node of the edge
+     * @param descr2 the second node of the edge
+     */
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.addDirectedEdge(descr1, descr2);
+        this.addDirectedEdge(descr2, descr1);
+    }
+
+    /**
+     * Method to get the number of strongly connected components found at the last rebuild
+     *
+     * @return number of components
+     */
+    public int componentCount() {
+        return this.closure.componentCount;
+    }
+
+    /**
+     * Method to check whether the last rebuild found few enough components to build reach bitsets
+     *
+     * @return true if queries are bit tests, false if they compare 2-hop labels
+     */
+    public boolean hasBitsets() {
+        return this.closure.reaches != null;
+    }
+
+    /**
+     * Method to get the number of hubs in all 2-hop labels built by the last rebuild
+     *
+     * @return total size of the labels, or 0 if the index holds bitsets
+     */
+    public long labelSize() {
+        Closure closure = this.closure;
+        long size = 0;
+        if (closure.reaches == null) {
+            for (int c = 0; c < closure.componentCount; c++) {
+                size += closure.outHubs[c].length + closure.inHubs[c].length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Method to recompute the components and their reach sets from the current graph
+     *
+     * Runtime:
+     *      O(N + E * C / 64) Where N is the number of nodes, E the number of edges
+     *      and C the number of strongly connected components
+     *      Above the component limit, O(N + E + C * (C + E) * H) in the worst case Where H is
+     *      the largest label, one pruned search per hub, though pruning cuts most searches short
+     */
+    public synchronized void rebuild() {
+        Closure closure = new Closure();
+        closure.graphVersion = this.graph.modCount();
+        CsrGraph snapshot = CsrGraph.of(this.graph);
+        Components components = GraphUtils.strongComponents(snapshot);
+        closure.componentOf = components.componentOf;
+        int componentCount = components.count();
+        closure.componentCount = componentCount;
+        int[] start = components.memberStart();
+        int[] members = components.members();
+        if (componentCount > this.maxBitsetComponents) {
+            label(closure, snapshot, start, members);
+            this.closure = closure;
+            return;
+        }
+
+        // components are numbered in reverse topological order, so every
+        // component an edge leads to has already been completed
+        int words = (componentCount + 63) >>> 6;
+        closure.reaches = new long[componentCount][];
+        for (int c = 0; c < componentCount; c++) {
+            long[] reach = new long[words];
+            reach[c >>> 6] |= 1L << c;
+            for (int m = start[c]; m < start[c + 1]; m++) {
+                int node = members[m];
+                for (int e = snapshot.offsets[node]; e < snapshot.offsets[node + 1]; e++) {
+                    int target = closure.componentOf[snapshot.targets[e]];
+                    if (target != c && (reach[target >>> 6] & (1L << target)) == 0) {
+                        long[] targetReach = closure.reaches[target];
+                        for (int w = 0; w < words; w++) {
+                            reach[w] |= targetReach[w];
+                        }
+                    }
+                }
+            }
+            closure.reaches[c] = reach;
+        }
+        this.closure = closure;
+    }
+
+    /**
+     * Helper method to rebuild the index if the graph has changed since the current version,
+     *     unless another thread already has
+     *
+     * @return the current version of the index
+     */
+    private synchronized Closure refresh() {
+        if (this.graph.modCount() != this.closure.graphVersion) {
+            this.rebuild();
+        }
+        return this.closure;
+    }
+
+    /**
+     * Helper method to record a new edge between two components, giving every
+     *     component that reaches the source everything the target reaches
+     *
+     * @param closure the version of the index holding bitsets
+     * @param fromComponent component of the edge's source
+     * @param toComponent component of the edge's target
+     */
+    private void connect(Closure closure, int fromComponent, int toComponent) {
+        if (closure.reaches(fromComponent, toComponent)) {
+            return;
+        }
+        long[] targetReach = closure.reaches[toComponent];
+        for (long[] reach : closure.reaches) {
+            if ((reach[fromComponent >>> 6] & (1L << fromComponent)) != 0) {
+                for (int w = 0; w < reach.length; w++) {
+                    reach[w] |= targetReach[w];
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to build the 2-hop labels of every component. Hubs are taken in order of
+     *     rank. Each one is added to the labels of the components it reaches and that reach it,
+     *     except where an earlier hub already links the pair, and the search goes no further
+     *     past such a component, since an earlier hub links everything beyond it too
+     *
+     * @param closure the version of the index to fill in
+     * @param snapshot the graph the components were found in
+     * @param start where each component's members begin in members
+     * @param members the nodes of every component, grouped by component
+     */
+    private static void label(Closure closure, CsrGraph snapshot, int[] start, int[] members) {
+        int count = closure.componentCount;
+        int[] componentOf = closure.componentOf;
+
+        // the condensation's edges in both directions, laid out as in CsrGraph
+        int[] outStart = new int[count + 1];
+        int[] inStart = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            for (int m = start[c]; m < start[c + 1]; m++) {
+                for (int e = snapshot.offsets[members[m]]; e < snapshot.offsets[members[m] + 1]; e++) {
+                    int target = componentOf[snapshot.targets[e]];
+                    if (target != c) {
+                        outStart[c + 1]++;
+                        inStart[target + 1]++;
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            outStart[c + 1] += outStart[c];
+            inStart[c + 1] += inStart[c];
+        }
+        int[] successors = new int[outStart[count]];
+        int[] predecessors = new int[inStart[count]];
+        int[] inFill = Arrays.copyOf(inStart, count);
+        for (int c = 0, out = 0; c < count; c++) {
+            for (int m = start[c]; m < start[c + 1]; m++) {
+                for (int e = snapshot.offsets[members[m]]; e < snapshot.offsets[members[m] + 1]; e++) {
+                    int target = componentOf[snapshot.targets[e]];
+                    if (target != c) {
+                        successors[out++] = target;
+                        predecessors[inFill[target]++] = c;
+                    }
+                }
+            }
+        }
+
+        // rank hubs by how many routes pass through them, guessed from their degree,
+        // breaking ties in a shuffled order so that long chains are split evenly
+        int[] shuffled = new int[count];
+        Random random = new Random(HUB_ORDER_SEED);
+        for (int i = 0; i < count; i++) {
+            int j = random.nextInt(i + 1);
+            shuffled[i] = shuffled[j];
+            shuffled[j] = i;
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            int c = shuffled[i];
+            long degree = (long) (outStart[c + 1] - outStart[c] + 1) * (inStart[c + 1] - inStart[c] + 1);
+            keys[i] = Math.min(degree, Integer.MAX_VALUE) << 32 | i;
+        }
+        Arrays.sort(keys);
+
+        IntList[] outHubs = new IntList[count];
+        IntList[] inHubs = new IntList[count];
+        for (int c = 0; c < count; c++) {
+            outHubs[c] = new IntList(2);
+            inHubs[c] = new IntList(2);
+        }
+        int[] visited = new int[count]; // the last search to visit each component
+        int[] queue = new int[count];
+        int search = 0;
+        for (int rank = 0; rank < count; rank++) {
+            int hub = shuffled[(int) keys[count - 1 - rank]];
+            // the search only adds to other components' labels, so the hub's own stay as they are
+            search++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = hub;
+            visited[hub] = search;
+            while (head < tail) {
+                int c = queue[head++];
+                if (c != hub && shareHub(outHubs[hub], inHubs[c])) {
+                    continue;
+                }
+                inHubs[c].add(rank);
+                for (int e = outStart[c]; e < outStart[c + 1]; e++) {
+                    if (visited[successors[e]] != search) {
+                        visited[successors[e]] = search;
+                        queue[tail++] = successors[e];
+                    }
+                }
+            }
+            search++;
+            head = 0;
+            tail = 0;
+            queue[tail++] = hub;
+            visited[hub] = search;
+            while (head < tail) {
+                int c = queue[head++];
+                if (c != hub && shareHub(outHubs[c], inHubs[hub])) {
+                    continue;
+                }
+                outHubs[c].add(rank);
+                for (int e = inStart[c]; e < inStart[c + 1]; e++) {
+                    if (visited[predecessors[e]] != search) {
+                        visited[predecessors[e]] = search;
+                        queue[tail++] = predecessors[e];
+                    }
+                }
+            }
+        }
+        closure.outHubs = new int[count][];
+        closure.inHubs = new int[count][];
+        for (int c = 0; c < count; c++) {
+            closure.outHubs[c] = outHubs[c].toArray();
+            closure.inHubs[c] = inHubs[c].toArray();
+        }
+    }
+
+    /**
+     * Helper method to check whether two ascending lists of hub ranks have one in common
+     *
+     * @param out the hubs one component reaches
+     * @param in the hubs that reach another component
+     * @return true if some hub is in both, otherwise false
+     */
+    private static boolean shareHub(int[] out, int[] in) {
+        for (int i = 0, j = 0; i < out.length && j < in.length; ) {
+            if (out[i] == in[j]) {
+                return true;
+            } else if (out[i] < in[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to check whether two labels being built share a hub
+     *
+     * @param out the hubs found so far that one component reaches
+     * @param in the hubs found so far that reach another component
+     * @return true if some hub is in both, otherwise false
+     */
+    private static boolean shareHub(IntList out, IntList in) {
+        for (int i = 0, j = 0; i < out.size() && j < in.size(); ) {
+            int hub = out.get(i);
+            int other = in.get(j);
+            if (hub == other) {
+                return true;
+            } else if (hub < other) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+}
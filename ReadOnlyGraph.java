@@ -0,0 +1,160 @@
+package sol;
+
+import java.util.Collection;
+
+/**
+ * Class for graphs that can only be read, such as snapshots. Every method that would
+ * change the graph throws, and since nothing changes there is nothing to listen for.
+ */
+public abstract class ReadOnlyGraph implements IGraph {
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addNode(String descr) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr1 ignored
+     * @param descr2 ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr1 ignored
+     * @param descr2 ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr1 ignored
+     * @param descr2 ignored
+     * @param weight ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr1 ignored
+     * @param descr2 ignored
+     * @param weight ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param labels ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int[] addNodes(Collection<String> labels) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param from ignored
+     * @param to ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addEdges(int[] from, int[] to) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param from ignored
+     * @param to ignored
+     * @param weights ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addEdges(int[] from, int[] to, double[] weights) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeNode(String descr) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs cannot be modified
+     *
+     * @param descr1 ignored
+     * @param descr2 ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeEdge(String descr1, String descr2) {
+        throw this.readOnly();
+    }
+
+    /**
+     * Read-only graphs never change, so there is nothing to listen for
+     *
+     * @param listener ignored
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+    }
+
+    /**
+     * Read-only graphs never change, so there is nothing to listen for
+     *
+     * @param listener ignored
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+    }
+
+    /**
+     * Helper method to build the exception thrown by every mutator
+     *
+     * @return an exception naming the read-only class
+     */
+    UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException(this.getClass().getSimpleName() + " is read-only");
+    }
+}
@@ -0,0 +1,161 @@
+package sol;
+
+import src.NoRouteException;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Class for a bounded least-recently-used cache of GraphUtils.getRoute results for one graph.
+ * Both found routes and NoRouteException outcomes are remembered. The graph's modCount is
+ * checked on every lookup, and the whole cache is dropped as soon as the graph has changed.
+ */
+public class RouteCache {
+    // stands in for a NoRouteException outcome, compared by identity
+    private static final LinkedList<String> NO_ROUTE = new LinkedList<>();
+
+    IGraph graph;
+    int maxSize;
+    LinkedHashMap<RouteQuery, LinkedList<String>> entries;
+    long graphVersion;
+    long hits;
+    long misses;
+    long evictions;
+    long invalidations;
+
+    /**
+     * Constructor for an empty cache
+     *
+     * @param graph the graph whose routes are cached
+     * @param maxSize the most (from, to) pairs to keep before evicting the least recently used
+     */
+    public RouteCache(IGraph graph, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.graph = graph;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<RouteQuery, LinkedList<String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteQuery, LinkedList<String>> eldest) {
+                if (size() > RouteCache.this.maxSize) {
+                    RouteCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.graphVersion = graph.modCount();
+    }
+
+    /**
+     * Method to get a shortest route, answering from the cache when the same pair was
+     *     asked before and the graph has not changed since. The cache is only locked to look
+     *     the pair up and to store the result, so a slow search does not hold up other callers
+     *
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path, which the caller is free to modify
+     * @throws NoRouteException if no such path exists
+     */
+    public LinkedList<String> getRoute(String fromNodeLabel, String toNodeLabel)
+            throws NoRouteException {
+        RouteQuery query = new RouteQuery(fromNodeLabel, toNodeLabel);
+        LinkedList<String> route;
+        long version;
+        synchronized (this) {
+            if (this.graph.modCount() != this.graphVersion) {
+                this.invalidate();
+            }
+            version = this.graphVersion;
+            route = this.entries.get(query);
+            if (route != null) {
+                this.hits++;
+            } else {
+                this.misses++;
+            }
+        }
+        if (route == null) {
+            try {
+                route = GraphUtils.getRoute(this.graph, fromNodeLabel, toNodeLabel);
+            } catch (NoRouteException e) {
+                route = NO_ROUTE;
+            }
+            synchronized (this) {
+                // a route found while the graph was changing may already be out of date
+                if (this.graphVersion == version && this.graph.modCount() == version) {
+                    this.entries.put(query, route);
+                }
+            }
+        }
+        if (route == NO_ROUTE) {
+            throw new NoRouteException();
+        }
+        return new LinkedList<>(route);
+    }
+
+    /**
+     * Method to drop every cached route
+     */
+    public synchronized void invalidate() {
+        this.entries.clear();
+        this.graphVersion = this.graph.modCount();
+        this.invalidations++;
+    }
+
+    /**
+     * Method to get the number of cached pairs
+     *
+     * @return current size of the cache
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Method to get the number of lookups answered from the cache
+     *
+     * @return hit count
+     */
+    public synchronized long hitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Method to get the number of lookups that had to search the graph
+     *
+     * @return miss count
+     */
+    public synchronized long missCount() {
+        return this.misses;
+    }
+
+    /**
+     * Method to get the number of entries dropped to stay within the size bound
+     *
+     * @return eviction count
+     */
+    public synchronized long evictionCount() {
+        return this.evictions;
+    }
+
+    /**
+     * Method to get the number of times the cache was cleared because the graph changed
+     *
+     * @return invalidation count
+     */
+    public synchronized long invalidationCount() {
+        return this.invalidations;
+    }
+
+    /**
+     * Method to get the share of lookups answered from the cache
+     *
+     * @return hits divided by total lookups, or 0 if there have been none
+     */
+    public synchronized double hitRate() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+}
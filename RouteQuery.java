@@ -0,0 +1,59 @@
+package sol;
+
+import java.util.Objects;
+
+/**
+ * Class for a (from, to) pair of node labels to find a route between
+ */
+public class RouteQuery {
+    String from;
+    String to;
+
+    /**
+     * Constructor for a query
+     *
+     * @param from the node the route starts from
+     * @param to the node the route should reach
+     */
+    public RouteQuery(String from, String to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Method to get the start of the route
+     *
+     * @return label of the starting node
+     */
+    public String getFrom() {
+        return this.from;
+    }
+
+    /**
+     * Method to get the end of the route
+     *
+     * @return label of the target node
+     */
+    public String getTo() {
+        return this.to;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof RouteQuery)) {
+            return false;
+        }
+        RouteQuery query = (RouteQuery) other;
+        return this.from.equals(query.from) && this.to.equals(query.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.from, this.to);
+    }
+
+    @Override
+    public String toString() {
+        return this.from + " -> " + this.to;
+    }
+}
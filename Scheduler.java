@@ -1,6 +1,13 @@
 package sol;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import src.NoScheduleException;
 
@@ -8,6 +15,8 @@ import src.NoScheduleException;
  * Class containing methods for scheduling using graphs
  */
 public class Scheduler {
+    // number of node ids whose edges are checked by one validation task
+    private static final int VALIDATION_CHUNK = 1024;
 
     /**
      * Empty Constructor
@@ -24,27 +33,78 @@ public class Scheduler {
      * @return boolean indicating whether the proposed allocation is valid
      */
     public static boolean checkValidity(IGraph theGraph, ArrayList<HashSet<String>> proposedAlloc) {
-        HashSet<String> allNodes = theGraph.getAllNodes();
-        if (proposedAlloc.size() != 2) {
-            return false;
+        return checkValidity(theGraph, proposedAlloc, 2);
+    }
+
+    /**
+     * Method which checks if a given allocation of labs between any number of
+     *     staff adheres to the scheduling constraints of the graph. Every lab must
+     *     be in exactly one partition and no partition may hold two conflicting labs
+     *
+     * @param theGraph the graph to try to schedule
+     * @param proposedAlloc the proposed allocation of labs, one set per staff member
+     * @param staff the number of staff, which must match the number of sets
+     * @return boolean indicating whether the proposed allocation is valid
+     */
+    public static boolean checkValidity(IGraph theGraph, ArrayList<HashSet<String>> proposedAlloc, int staff) {
+        return validate(theGraph, proposedAlloc, staff).isValid();
+    }
+
+    /**
+     * Method which checks a proposed allocation on int node ids and reports the first
+     *     problem found. Partitions are labeled into a shared array with compareAndSet,
+     *     so a node claimed twice is caught as it is labeled, and then every node's
+     *     edges are checked against the labels in parallel chunks. The first violation
+     *     stops every worker, so an invalid allocation is usually rejected long before
+     *     all edges are seen
+     *
+     * @param theGraph the graph to check against, which must not change during the call
+     * @param proposedAlloc the proposed allocation of labs, one set per staff member
+     * @param staff the number of staff, which must match the number of sets
+     * @return VALID, or which problem was found together with the node or edge at fault
+     *
+     * Runtime:
+     *      O((N + E) / P) Where N is the number of nodes, E the number of edges and P the
+     *      number of workers, with no copies of the partitions or the node set
+     */
+    public static ValidationResult validate(IGraph theGraph, ArrayList<HashSet<String>> proposedAlloc, int staff) {
+        if (proposedAlloc.size() != staff) {
+            return new ValidationResult(ValidationResult.Kind.WRONG_PARTITION_COUNT, null, null);
         }
-        HashSet<String> mergedSchedule = new HashSet<>();
-        mergedSchedule.addAll(proposedAlloc.get(0));
-        mergedSchedule.addAll(proposedAlloc.get(1));
-        if (mergedSchedule.size() != proposedAlloc.get(0).size() + proposedAlloc.get(1).size()) {
-            return false;
+        int nodeCount = theGraph.nodeCount();
+        AtomicIntegerArray assigned = new AtomicIntegerArray(nodeCount); // partition + 1, or 0 if unassigned
+        AtomicReference<ValidationResult> failure = new AtomicReference<>();
+        for (int p = 0; p < staff && failure.get() == null; p++) {
+            int partition = p + 1;
+            proposedAlloc.get(p).parallelStream().anyMatch(label -> {
+                int id = theGraph.idOf(label);
+                if (id < 0) {
+                    return fail(failure, ValidationResult.Kind.UNKNOWN_NODE, label, null);
+                }
+                if (!assigned.compareAndSet(id, 0, partition)) {
+                    return fail(failure, ValidationResult.Kind.DUPLICATE_NODE, label, null);
+                }
+                return failure.get() != null;
+            });
         }
-        for (String node : allNodes) {
-            if (!proposedAlloc.get(0).contains(node) && !proposedAlloc.get(1).contains(node)) {
-                return false;
-            }
+        if (failure.get() != null) {
+            return failure.get();
         }
-        for (HashSet schedule : proposedAlloc) {
-            if (checkHasConflicts(theGraph, schedule)) {
-                return false;
-            }
+
+        OptionalInt missing = IntStream.range(0, nodeCount).parallel()
+                .filter(id -> assigned.get(id) == 0 && theGraph.hasNode(id)).findAny();
+        if (missing.isPresent()) {
+            return new ValidationResult(ValidationResult.Kind.MISSING_NODE, theGraph.labelOf(missing.getAsInt()), null);
         }
-        return true;
+
+        int[] partitionOf = new int[nodeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            partitionOf[id] = assigned.get(id);
+        }
+        int chunks = (nodeCount + VALIDATION_CHUNK - 1) / VALIDATION_CHUNK;
+        IntStream.range(0, chunks).parallel().anyMatch(chunk -> new ConflictScan(theGraph, partitionOf, failure)
+                .scan(chunk * VALIDATION_CHUNK, Math.min(nodeCount, (chunk + 1) * VALIDATION_CHUNK)));
+        return failure.get() == null ? ValidationResult.VALID : failure.get();
     }
 
     /**
@@ -56,64 +116,313 @@ public class Scheduler {
      * @param theGraph the graph to try to schedule
      * @return an ArrayList of HashSets of node labels that constitute a
      *         valid split of the graph
-     * @throws NoScheduleException if no such split exists
+     * @throws NoScheduleException if no such split exists, as an OddCycleException
+     *         holding a cycle of conflicts that proves it
+     *
+     * Runtime:
+     *      O(N + E) Where N is the number of nodes and E the number of edges
+     *      Each node is colored once and each edge is checked from both ends
      */
     public static ArrayList<HashSet<String>> findSchedule(IGraph theGraph)
             throws NoScheduleException {
+        return toSchedule(theGraph, BipartiteColoring.color(theGraph));
+    }
+
+    /**
+     * Method to compute a split of the graph nodes between a number of staff
+     *     without violating scheduling constraints. The graph is colored with DSatur,
+     *     falling back to largest-first if that happens to need fewer colors. Both are
+     *     heuristics, so a split may exist even when this throws, except for two staff,
+     *     where DSatur always finds a split if there is one
+     *
+     * @param theGraph the graph to try to schedule
+     * @param staff the number of staff to split the labs between
+     * @return an ArrayList of staff HashSets of node labels, some possibly empty,
+     *         that constitute a valid split of the graph
+     * @throws NoScheduleException if no split was found, or a lab conflicts with itself
+     *
+     * Runtime:
+     *      O((N + E) * K / 64) Where N is the number of nodes, E the number of edges
+     *      and K the number of colors needed
+     */
+    public static ArrayList<HashSet<String>> findSchedule(IGraph theGraph, int staff)
+            throws NoScheduleException {
+        for (int node = 0; node < theGraph.nodeCount(); node++) {
+            String label = theGraph.labelOf(node);
+            if (label != null && theGraph.hasEdge(label, label)) {
+                throw new NoScheduleException();
+            }
+        }
+        int[] color = GraphColoring.color(theGraph, GraphColoring.Strategy.DSATUR);
+        if (GraphColoring.colorCount(color) > staff) {
+            int[] greedy = GraphColoring.color(theGraph, GraphColoring.Strategy.LARGEST_FIRST);
+            if (GraphColoring.colorCount(greedy) > staff) {
+                throw new NoScheduleException();
+            }
+            color = greedy;
+        }
+        return toSchedule(theGraph, color, staff);
+    }
+
+    /**
+     * Method to split the graph nodes between as few staff as the chosen heuristic
+     *     manages, never failing. Labs that conflict with themselves are placed anyway
+     *
+     * @param theGraph the graph to schedule
+     * @param strategy the coloring heuristic to use
+     * @return an ArrayList with one HashSet of node labels per staff member needed
+     */
+    public static ArrayList<HashSet<String>> colorSchedule(IGraph theGraph, GraphColoring.Strategy strategy) {
+        int[] color = GraphColoring.color(theGraph, strategy);
+        return toSchedule(theGraph, color, GraphColoring.colorCount(color));
+    }
+
+    /**
+     * Method to compute the same kind of split as findSchedule, coloring independent
+     *     connected components in parallel on the common fork-join pool
+     *
+     * @param theGraph the graph to try to schedule, which must not change during the call
+     * @return an ArrayList of HashSets of node labels that constitute a
+     *         valid split of the graph
+     * @throws NoScheduleException if no such split exists, as an OddCycleException
+     */
+    public static ArrayList<HashSet<String>> findScheduleParallel(IGraph theGraph)
+            throws NoScheduleException {
+        return findScheduleParallel(theGraph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Method to compute the same kind of split as findSchedule by first finding the
+     *     weakly connected components with GraphUtils.weakComponents and then two-coloring each
+     *     component as its own fork-join task. As soon as one component turns out to have
+     *     an odd cycle every other task stops, and that cycle is thrown
+     *
+     * @param theGraph the graph to try to schedule, which must not change during the call
+     * @param pool the pool to run the component tasks on
+     * @return an ArrayList of HashSets of node labels that constitute a
+     *         valid split of the graph
+     * @throws NoScheduleException if no such split exists, as an OddCycleException
+     */
+    public static ArrayList<HashSet<String>> findScheduleParallel(IGraph theGraph, ForkJoinPool pool)
+            throws NoScheduleException {
+        Components components = GraphUtils.weakComponents(theGraph, pool);
+        int[] start = components.memberStart();
+        int[] members = components.members();
+
+        ComponentColoring task = new ComponentColoring(theGraph, start, members, 0, components.count());
+        pool.invoke(task);
+        if (task.failure.get() != null) {
+            throw task.failure.get();
+        }
+        return toSchedule(theGraph, task.color);
+    }
+
+    /**
+     * Helper class for a fork-join task that two-colors a range of components. Ranges holding
+     *     many nodes are split in half, and all tasks share the color arrays, writing only to
+     *     the nodes of their own components
+     */
+    static class ComponentColoring extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        // ranges with fewer nodes than this are colored by one task
+        private static final int SEQUENTIAL_NODES = 4096;
+
+        IGraph graph;
+        int[] start;
+        int[] members;
+        int from;
+        int to;
+        byte[] color;
+        int[] parent;
+        int[] depth;
+        AtomicBoolean stop;
+        AtomicReference<OddCycleException> failure;
+
+        /**
+         * Constructor for the root task over a range of components
+         *
+         * @param graph the graph to color
+         * @param start start of each component's members, with one extra trailing entry
+         * @param members node ids grouped by component
+         * @param from first component in the range
+         * @param to one past the last component in the range
+         */
+        ComponentColoring(IGraph graph, int[] start, int[] members, int from, int to) {
+            this.graph = graph;
+            this.start = start;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+            // indexed by node id, and removed ids are in no component, so members may be shorter
+            this.color = new byte[graph.nodeCount()];
+            this.parent = new int[graph.nodeCount()];
+            this.depth = new int[graph.nodeCount()];
+            this.stop = new AtomicBoolean();
+            this.failure = new AtomicReference<>();
+        }
+
+        /**
+         * Constructor for a subtask sharing its parent's arrays
+         *
+         * @param parentTask the task being split
+         * @param from first component in the range
+         * @param to one past the last component in the range
+         */
+        ComponentColoring(ComponentColoring parentTask, int from, int to) {
+            this.graph = parentTask.graph;
+            this.start = parentTask.start;
+            this.members = parentTask.members;
+            this.from = from;
+            this.to = to;
+            this.color = parentTask.color;
+            this.parent = parentTask.parent;
+            this.depth = parentTask.depth;
+            this.stop = parentTask.stop;
+            this.failure = parentTask.failure;
+        }
+
+        /**
+         * Colors the range directly if it is small, otherwise splits it in two
+         */
+        @Override
+        protected void compute() {
+            if (this.stop.get()) {
+                return;
+            }
+            int nodes = this.start[this.to] - this.start[this.from];
+            if (this.to - this.from > 1 && nodes > SEQUENTIAL_NODES) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new ComponentColoring(this, this.from, middle),
+                        new ComponentColoring(this, middle, this.to));
+                return;
+            }
+            BipartiteColoring pass = new BipartiteColoring(this.graph, this.color, this.parent, this.depth, nodes);
+            pass.stop = this.stop;
+            try {
+                for (int c = this.from; c < this.to && !this.stop.get(); c++) {
+                    pass.colorComponent(this.members[this.start[c]]);
+                }
+            } catch (OddCycleException e) {
+                this.failure.compareAndSet(null, e);
+                this.stop.set(true);
+            }
+        }
+    }
+
+    /**
+     * Helper method to turn a two-coloring into the two sets of labels
+     *
+     * @param theGraph the graph that was colored
+     * @param color the color of each node id
+     * @return the labels colored FIRST followed by the labels colored SECOND, leaving out removed nodes
+     */
+    static ArrayList<HashSet<String>> toSchedule(IGraph theGraph, byte[] color) {
         ArrayList<HashSet<String>> schedule = new ArrayList<>();
         schedule.add(new HashSet<>());
         schedule.add(new HashSet<>());
-        int currentSchedule = 0;
-        HashMap<String, Integer> scheduleMap = new HashMap();
-        Queue<String> toCheck = new LinkedList<>();
-        for (String node : theGraph.getAllNodes()) {
-            if (schedule.get(0).contains(node) || schedule.get(1).contains(node)) {
-                continue;
+        for (int node = 0; node < color.length; node++) {
+            String label = theGraph.labelOf(node);
+            if (label != null) {
+                schedule.get(color[node] == BipartiteColoring.FIRST ? 0 : 1).add(label);
             }
-            schedule.get(currentSchedule).add(node);
-            currentSchedule = Math.abs(currentSchedule - 1);
-            for (String firstNeighbor : theGraph.getNeighbors(node)) {
-                toCheck.add(firstNeighbor);
-                scheduleMap.put(firstNeighbor, currentSchedule);
-            }
-            while (!toCheck.isEmpty()) {
-                String neighbor = toCheck.remove();
-                if (schedule.get(0).contains(neighbor) || schedule.get(1).contains(neighbor)) {
-                    continue;
-                }
-                for (String name : theGraph.getNeighbors(neighbor)) {
-                    if (schedule.get(scheduleMap.get(neighbor)).contains(name)) {
-                        throw new NoScheduleException();
-                    }
-                }
-                schedule.get(scheduleMap.get(neighbor)).add(neighbor);
-                for (String nextNeighbor : theGraph.getNeighbors(neighbor)) {
-                    if (!schedule.get(0).contains(nextNeighbor) && !schedule.get(1).contains(nextNeighbor)) {
-                        scheduleMap.put(nextNeighbor, Math.abs(scheduleMap.get(neighbor) - 1));
-                        toCheck.add(nextNeighbor);
-                    }
-                }
+        }
+        return schedule;
+    }
+
+    /**
+     * Helper method to turn a k-coloring into one set of labels per color
+     *
+     * @param theGraph the graph that was colored
+     * @param color the color of each node id, numbered from 0
+     * @param staff the number of sets to return, at least the number of colors
+     * @return the labels of each color in order of color, leaving out removed nodes
+     */
+    static ArrayList<HashSet<String>> toSchedule(IGraph theGraph, int[] color, int staff) {
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
+        for (int i = 0; i < staff; i++) {
+            schedule.add(new HashSet<>());
+        }
+        for (int node = 0; node < color.length; node++) {
+            String label = theGraph.labelOf(node);
+            if (label != null) {
+                schedule.get(color[node]).add(label);
             }
         }
         return schedule;
     }
 
     /**
-     * Helper method for checking of any conflicts in a schedule
+     * Helper method to record the first problem found by any worker
      *
-     * @param graph graph to check conflicts of its schedule
-     * @param schedule schedule of one person for the graph
-     * @return true if no conflicts found within the schedule provided for the graph else false
+     * @param failure where the first problem is kept
+     * @param kind the kind of problem
+     * @param node the offending node, or the start of the offending edge
+     * @param otherNode the end of the offending edge, or null
+     * @return true, so workers can return it to stop their stream
      */
-    private static boolean checkHasConflicts(IGraph graph, HashSet<String> schedule) {
-        for (String node : schedule) {
-            LinkedList<String> neighbors = graph.getNeighbors(node);
-            for (String neighbor : neighbors) {
-                if (schedule.contains(neighbor)) {
+    private static boolean fail(AtomicReference<ValidationResult> failure, ValidationResult.Kind kind,
+                                String node, String otherNode) {
+        failure.compareAndSet(null, new ValidationResult(kind, node, otherNode));
+        return true;
+    }
+
+    /**
+     * Helper class for scanning the edges of a range of nodes for two ends in the same partition.
+     *     It is its own neighbor callback, so one scan allocates nothing per node
+     */
+    static class ConflictScan implements IntConsumer {
+        IGraph graph;
+        int[] partitionOf;
+        AtomicReference<ValidationResult> failure;
+        int current;
+        int conflict = -1;
+
+        /**
+         * Constructor for a scan
+         *
+         * @param graph the graph to check
+         * @param partitionOf the partition of each node id
+         * @param failure where the first problem is kept, shared by all scans
+         */
+        ConflictScan(IGraph graph, int[] partitionOf, AtomicReference<ValidationResult> failure) {
+            this.graph = graph;
+            this.partitionOf = partitionOf;
+            this.failure = failure;
+        }
+
+        /**
+         * Method to check the outgoing edges of a range of nodes, stopping early
+         *     once this or any other scan has found a problem
+         *
+         * @param from first node id in the range
+         * @param to one past the last node id in the range
+         * @return true if a problem has been found, otherwise false
+         */
+        boolean scan(int from, int to) {
+            for (int node = from; node < to; node++) {
+                if (this.failure.get() != null) {
                     return true;
                 }
+                this.current = node;
+                this.graph.forEachNeighbor(node, this);
+                if (this.conflict >= 0) {
+                    return fail(this.failure, ValidationResult.Kind.CONFLICTING_EDGE,
+                            this.graph.labelOf(node), this.graph.labelOf(this.conflict));
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Records the first neighbor in the same partition as the current node
+         *
+         * @param neighbor id of the neighbor
+         */
+        @Override
+        public void accept(int neighbor) {
+            if (this.conflict < 0 && this.partitionOf[neighbor] == this.partitionOf[this.current]) {
+                this.conflict = neighbor;
             }
         }
-        return false;
     }
 }
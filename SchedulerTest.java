@@ -4,16 +4,23 @@ import org.junit.Assert;
 import org.junit.Test;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Random;
 
 import sol.EdgeArrayGraph;
+import sol.GraphColoring;
 import sol.IGraph;
+import sol.IncrementalScheduler;
 import sol.NodeEdgeGraph;
+import sol.OddCycleException;
 import sol.Scheduler;
+import sol.ValidationResult;
 import src.NoScheduleException;
 import src.NodeNameExistsException;
 
 import static sol.Scheduler.checkValidity;
 import static sol.Scheduler.findSchedule;
+import static sol.Scheduler.findScheduleParallel;
 
 public class SchedulerTest {
     // Assumes that graph will be empty, modifies it in-place
@@ -198,6 +205,234 @@ public class SchedulerTest {
             Assert.assertTrue(true);
         }
     }
+    @Test
+    public void testFindScheduleOddCycleWitness() throws NodeNameExistsException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createGraph4(isArray);
+            graph.addUndirectedEdge("6", "7");
+            OddCycleException e = Assert.assertThrows(OddCycleException.class, () -> findSchedule(graph));
+            LinkedList<String> cycle = e.getCycle();
+            Assert.assertEquals(5, cycle.size());
+            for (int i = 0; i < cycle.size(); i++) {
+                Assert.assertTrue(graph.hasEdge(cycle.get(i), cycle.get((i + 1) % cycle.size())));
+            }
+
+            IGraph selfLoop = createGraph3(isArray);
+            selfLoop.addDirectedEdge("5", "5");
+            e = Assert.assertThrows(OddCycleException.class, () -> findSchedule(selfLoop));
+            Assert.assertEquals(1, e.getCycle().size());
+
+            // a one-way conflict still counts against both labs
+            IGraph oneWay = createGraph2(isArray);
+            oneWay.addDirectedEdge("4", "1");
+            Assert.assertThrows(OddCycleException.class, () -> findSchedule(oneWay));
+        }
+    }
+
+    @Test
+    public void testFindScheduleParallelManyComponents() throws NoScheduleException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            // 2000 independent even cycles of four labs each
+            IGraph graph = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            for (int c = 0; c < 2000; c++) {
+                for (int i = 0; i < 4; i++) {
+                    graph.addUndirectedEdge(c + "-" + i, c + "-" + ((i + 1) % 4));
+                }
+            }
+            ArrayList<HashSet<String>> schedule = findScheduleParallel(graph);
+            Assert.assertTrue(checkValidity(graph, schedule));
+            Assert.assertEquals(4000, schedule.get(0).size());
+
+            graph.addUndirectedEdge("1500-0", "1500-2");
+            OddCycleException e = Assert.assertThrows(OddCycleException.class, () -> findScheduleParallel(graph));
+            Assert.assertEquals(3, e.getCycle().size());
+        }
+    }
+
+    @Test
+    public void testIncrementalSchedulerTracksConflicts() throws NodeNameExistsException, NoScheduleException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createGraph3(isArray);
+            IncrementalScheduler scheduler = new IncrementalScheduler(graph);
+            Assert.assertTrue(checkValidity(graph, scheduler.getSchedule()));
+
+            scheduler.addConflict("5", "1");
+            graph.addUndirectedEdge("6", "3");
+            Assert.assertTrue(checkValidity(graph, scheduler.getSchedule()));
+            Assert.assertTrue(scheduler.sideOf("1") != scheduler.sideOf("2"));
+            Assert.assertTrue(scheduler.sideOf("6") != scheduler.sideOf("3"));
+
+            // 1 and 3 both conflict with 2, so they are forced together
+            Assert.assertThrows(NoScheduleException.class, () -> scheduler.addConflict("1", "3"));
+            Assert.assertFalse(graph.hasEdge("1", "3"));
+            Assert.assertTrue(scheduler.isSchedulable());
+
+            graph.addUndirectedEdge("1", "3");
+            Assert.assertFalse(scheduler.isSchedulable());
+            Assert.assertThrows(OddCycleException.class, scheduler::getSchedule);
+        }
+    }
+
+    @Test
+    public void testSchedulesFollowRemovals() throws NodeNameExistsException, NoScheduleException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createGraph3(isArray);
+            IncrementalScheduler scheduler = new IncrementalScheduler(graph);
+            graph.addUndirectedEdge("1", "3");
+            Assert.assertFalse(scheduler.isSchedulable());
+
+            // dropping one conflict of the odd cycle makes a split possible again
+            graph.removeEdge("1", "3");
+            graph.removeEdge("3", "1");
+            Assert.assertTrue(scheduler.isSchedulable());
+            Assert.assertTrue(checkValidity(graph, scheduler.getSchedule()));
+
+            graph.removeNode("2");
+            ArrayList<HashSet<String>> schedule = findSchedule(graph);
+            Assert.assertFalse(schedule.get(0).contains(null) || schedule.get(1).contains(null));
+            Assert.assertFalse(schedule.get(0).contains("2") || schedule.get(1).contains("2"));
+            Assert.assertTrue(checkValidity(graph, schedule));
+            Assert.assertTrue(checkValidity(graph, findSchedule(graph, 2)));
+            Assert.assertTrue(checkValidity(graph, scheduler.getSchedule()));
+
+            // the freed id goes to the next lab, which the scheduler must not confuse with lab 2
+            graph.addUndirectedEdge("new", "1");
+            Assert.assertTrue(checkValidity(graph, scheduler.getSchedule()));
+            Assert.assertTrue(scheduler.sideOf("new") != scheduler.sideOf("1"));
+        }
+    }
+
+    @Test
+    public void testIncrementalSchedulerMatchesFindSchedule() {
+        Random random = new Random(21);
+        for (int trial = 0; trial < 20; trial++) {
+            IGraph graph = trial % 2 == 0 ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            IncrementalScheduler scheduler = new IncrementalScheduler(graph);
+            for (int i = 0; i < 30; i++) {
+                graph.addUndirectedEdge(Integer.toString(random.nextInt(40)), Integer.toString(random.nextInt(40)));
+                boolean expected = true;
+                try {
+                    findSchedule(graph);
+                } catch (NoScheduleException e) {
+                    expected = false;
+                }
+                Assert.assertEquals(expected, scheduler.isSchedulable());
+            }
+        }
+    }
+
+    @Test
+    public void testFindScheduleWithStaff() throws NodeNameExistsException, NoScheduleException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            // the triangle needs three staff
+            IGraph triangle = createGraph1(isArray);
+            Assert.assertThrows(NoScheduleException.class, () -> findSchedule(triangle, 2));
+            ArrayList<HashSet<String>> schedule = findSchedule(triangle, 3);
+            Assert.assertEquals(3, schedule.size());
+            Assert.assertTrue(checkValidity(triangle, schedule, 3));
+            Assert.assertFalse(checkValidity(triangle, schedule, 4));
+
+            // DSatur is exact on two-colorable graphs
+            IGraph evenCycle = createGraph2(isArray);
+            Assert.assertTrue(checkValidity(evenCycle, findSchedule(evenCycle, 2)));
+
+            schedule = findSchedule(triangle, 5);
+            Assert.assertEquals(5, schedule.size());
+            Assert.assertTrue(checkValidity(triangle, schedule, 5));
+
+            schedule.get(3).add("1");
+            Assert.assertFalse(checkValidity(triangle, schedule, 5));
+
+            triangle.addDirectedEdge("2", "2");
+            Assert.assertThrows(NoScheduleException.class, () -> findSchedule(triangle, 5));
+        }
+    }
+
+    @Test
+    public void testColorScheduleOnRandomGraphs() {
+        Random random = new Random(15);
+        for (int trial = 0; trial < 10; trial++) {
+            IGraph graph = trial % 2 == 0 ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            for (int i = 0; i < 600; i++) {
+                String from = Integer.toString(random.nextInt(200));
+                String to = Integer.toString(random.nextInt(200));
+                if (!from.equals(to)) {
+                    graph.addDirectedEdge(from, to);
+                }
+            }
+            for (GraphColoring.Strategy strategy : GraphColoring.Strategy.values()) {
+                ArrayList<HashSet<String>> schedule = Scheduler.colorSchedule(graph, strategy);
+                Assert.assertTrue(checkValidity(graph, schedule, schedule.size()));
+            }
+        }
+    }
+
+    @Test
+    public void testValidateReportsFirstProblem() throws NodeNameExistsException, NoScheduleException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = createGraph2(isArray);
+            ArrayList<HashSet<String>> schedule = findSchedule(graph);
+            Assert.assertEquals(ValidationResult.Kind.VALID, Scheduler.validate(graph, schedule, 2).getKind());
+            Assert.assertEquals(ValidationResult.Kind.WRONG_PARTITION_COUNT,
+                    Scheduler.validate(graph, schedule, 3).getKind());
+
+            String moved = schedule.get(0).iterator().next();
+            schedule.get(1).add(moved);
+            ValidationResult result = Scheduler.validate(graph, schedule, 2);
+            Assert.assertEquals(ValidationResult.Kind.DUPLICATE_NODE, result.getKind());
+            Assert.assertEquals(moved, result.getNode());
+
+            schedule.get(0).remove(moved);
+            result = Scheduler.validate(graph, schedule, 2);
+            Assert.assertEquals(ValidationResult.Kind.CONFLICTING_EDGE, result.getKind());
+            Assert.assertTrue(graph.hasEdge(result.getNode(), result.getOtherNode()));
+            Assert.assertTrue(schedule.get(1).contains(result.getNode()));
+            Assert.assertTrue(schedule.get(1).contains(result.getOtherNode()));
+
+            schedule.get(1).remove(moved);
+            result = Scheduler.validate(graph, schedule, 2);
+            Assert.assertEquals(ValidationResult.Kind.MISSING_NODE, result.getKind());
+            Assert.assertEquals(moved, result.getNode());
+
+            schedule.get(0).add("no such lab");
+            Assert.assertEquals(ValidationResult.Kind.UNKNOWN_NODE, Scheduler.validate(graph, schedule, 2).getKind());
+        }
+    }
+
+    @Test
+    public void testParallelScheduleAfterRemoval() throws NoScheduleException {
+        for (boolean isArray : new boolean[] {true, false}) {
+            IGraph graph = isArray ? new EdgeArrayGraph("") : new NodeEdgeGraph("");
+            graph.addUndirectedEdge("a", "b");
+            graph.addUndirectedEdge("b", "c");
+            graph.addUndirectedEdge("c", "d");
+            graph.removeNode("a");
+
+            // the removed id leaves fewer members than node ids, and the highest id must still be colored
+            ArrayList<HashSet<String>> schedule = findScheduleParallel(graph);
+            Assert.assertEquals(3, schedule.get(0).size() + schedule.get(1).size());
+            Assert.assertTrue(schedule.get(0).contains("d") || schedule.get(1).contains("d"));
+            Assert.assertFalse(schedule.get(0).contains("a") || schedule.get(1).contains("a"));
+            Assert.assertTrue(checkValidity(graph, schedule));
+        }
+    }
+
+    @Test
+    public void testValidateLargeAllocation() throws NoScheduleException {
+        IGraph graph = new EdgeArrayGraph("");
+        for (int i = 0; i < 5000; i++) {
+            graph.addUndirectedEdge(Integer.toString(i), Integer.toString((i + 1) % 5000));
+        }
+        ArrayList<HashSet<String>> schedule = findScheduleParallel(graph);
+        Assert.assertTrue(Scheduler.validate(graph, schedule, 2).isValid());
+
+        schedule.get(0).remove("2500");
+        schedule.get(1).add("2500");
+        ValidationResult result = Scheduler.validate(graph, schedule, 2);
+        Assert.assertEquals(ValidationResult.Kind.CONFLICTING_EDGE, result.getKind());
+        Assert.assertTrue(result.getNode().equals("2500") || result.getOtherNode().equals("2500"));
+    }
+
     private IGraph createGraph1(boolean isArray) throws NodeNameExistsException{
         IGraph graph;
         if (isArray) graph = new EdgeArrayGraph("");
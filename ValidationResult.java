@@ -0,0 +1,101 @@
+package sol;
+
+/**
+ * Class for the outcome of validating a proposed allocation, naming the first
+ * problem found if the allocation is not valid
+ */
+public class ValidationResult {
+
+    /**
+     * The kinds of problem an allocation can have
+     */
+    public enum Kind {
+        /**
+         * The allocation is valid
+         */
+        VALID,
+        /**
+         * The allocation does not have one partition per staff member
+         */
+        WRONG_PARTITION_COUNT,
+        /**
+         * A partition holds a label that is not a node of the graph
+         */
+        UNKNOWN_NODE,
+        /**
+         * A node is in no partition
+         */
+        MISSING_NODE,
+        /**
+         * A node is in more than one partition
+         */
+        DUPLICATE_NODE,
+        /**
+         * Both ends of an edge are in the same partition
+         */
+        CONFLICTING_EDGE
+    }
+
+    static final ValidationResult VALID = new ValidationResult(Kind.VALID, null, null);
+
+    Kind kind;
+    String node;
+    String otherNode;
+
+    /**
+     * Constructor for a result
+     *
+     * @param kind what was found
+     * @param node the offending node, or the start of the offending edge
+     * @param otherNode the end of the offending edge, or null if the problem is a single node
+     */
+    ValidationResult(Kind kind, String node, String otherNode) {
+        this.kind = kind;
+        this.node = node;
+        this.otherNode = otherNode;
+    }
+
+    /**
+     * Method to check whether the allocation was valid
+     *
+     * @return true if no problem was found, otherwise false
+     */
+    public boolean isValid() {
+        return this.kind == Kind.VALID;
+    }
+
+    /**
+     * Method to get what was wrong with the allocation
+     *
+     * @return the kind of problem, or VALID
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Method to get the node the problem is about
+     *
+     * @return label of the offending node or of the start of the offending edge, or null
+     */
+    public String getNode() {
+        return this.node;
+    }
+
+    /**
+     * Method to get the other end of a conflicting edge
+     *
+     * @return label of the end of the offending edge, or null
+     */
+    public String getOtherNode() {
+        return this.otherNode;
+    }
+
+    @Override
+    public String toString() {
+        if (this.otherNode != null) {
+            return this.kind + ": " + this.node + " -> " + this.otherNode;
+        }
+        return this.node == null ? this.kind.toString() : this.kind + ": " + this.node;
+    }
+}
@@ -0,0 +1,839 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Class for a graph whose changes are grouped into versions, so readers can work on one fixed
+ * version while a writer builds the next. The writer changes the graph through the usual IGraph
+ * methods and publishes everything changed so far with commit(). Readers pin a version with
+ * snapshot() and get an immutable Snapshot that never shows part of a later commit.
+ * Node entries live in a persistent 32-way trie indexed by id. Changing a node copies its entry
+ * and the trie nodes on its path the first time it is touched in a version, and later changes
+ * in the same version edit those copies in place, so a commit costs O(changed nodes) and shares
+ * everything else with the version before. Neighbor arrays are shared too: they are only ever
+ * appended to, and an older version simply stops reading at its own size.
+ * There is one writer thread at a time; any number of threads may read snapshots.
+ */
+public class VersionedGraph implements IGraph {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    public String name;
+    ConcurrentHashMap<String, Integer> labelToId; // shared by every version, which ignore ids they do not have
+    Trie root;
+    int shift; // BITS times the number of levels above the leaves
+    int nodeCount;
+    Object edit; // marks the entries and trie nodes the current version may change in place
+    long modCount;
+    ArrayList<GraphListener> listeners;
+    volatile Snapshot committed;
+    Snapshot view; // the working version as seen by the writer's own reads
+
+    /**
+     * Helper class for one node of the trie, holding either child tries or node entries
+     */
+    static final class Trie {
+        final Object edit;
+        final Object[] slots;
+
+        Trie(Object edit, Object[] slots) {
+            this.edit = edit;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * Helper class for the label and neighbor rows of one node in some version
+     */
+    static final class Entry {
+        final String label;
+        final int id;
+        final Object edit;
+        Row nextNodes; // ids of the nodes that this node can get to
+        Row prevNodes; // ids of the nodes that can get to this node
+
+        Entry(String label, int id, Object edit, Row nextNodes, Row prevNodes) {
+            this.label = label;
+            this.id = id;
+            this.edit = edit;
+            this.nextNodes = nextNodes;
+            this.prevNodes = prevNodes;
+        }
+    }
+
+    /**
+     * Helper class for the neighbor ids of one node in some version. Ids are kept in insertion
+     *     order with an open-addressing table of positions beside them, as in AdjacencySet. The
+     *     arrays may be shared with the rows of older versions: new ids only ever go past every
+     *     older row's size and into empty table slots, and a weight already visible to an older
+     *     version is never overwritten in place
+     */
+    static final class Row {
+        // below this size a linear scan is as fast as hashing, so no table is kept
+        private static final int HASH_THRESHOLD = 8;
+
+        final Object edit;
+        int[] items;
+        double[] weights; // null while every weight is the default
+        Object weightsEdit; // the version that allocated weights, which alone may overwrite them
+        int[] table; // holds the position in items + 1 so that 0 can mean an empty slot
+        int size;
+        final int inherited; // positions below this were in the row before this version, so older ones may read them
+
+        Row(Object edit, int[] items, double[] weights, Object weightsEdit, int[] table, int size) {
+            this.edit = edit;
+            this.items = items;
+            this.weights = weights;
+            this.weightsEdit = weightsEdit;
+            this.table = table;
+            this.size = size;
+            this.inherited = size;
+        }
+
+        /**
+         * Method to get a row the given version may change, copying this one if it belongs to another
+         *
+         * @param edit the version making the change
+         * @return this row or a copy sharing its arrays
+         */
+        Row editable(Object edit) {
+            return this.edit == edit ? this
+                    : new Row(edit, this.items, this.weights, this.weightsEdit, this.table, this.size);
+        }
+
+        /**
+         * Method to find the position of an id
+         *
+         * @param id the id to look for
+         * @return the position of id, or -1 if it is not in the row
+         */
+        int indexOf(int id) {
+            if (this.table == null) {
+                for (int i = 0; i < this.size; i++) {
+                    if (this.items[i] == id) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int mask = this.table.length - 1;
+            for (int slot = hash(id) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+                int index = this.table[slot] - 1;
+                // positions past this row's size were added by later versions
+                if (index < this.size && this.items[index] == id) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Method to add an id with an edge weight to an editable row, or to replace
+         *     the weight if the id is already present and replace is set
+         *
+         * @param id the id to add
+         * @param weight the weight of the edge to id
+         * @param replace whether an existing weight should be replaced
+         * @return true if the id was added, false if it was already present
+         */
+        boolean put(int id, double weight, boolean replace) {
+            int index = this.indexOf(id);
+            if (index >= 0) {
+                if (replace) {
+                    this.setWeight(index, weight);
+                }
+                return false;
+            }
+            if (this.size == this.items.length) {
+                this.items = Arrays.copyOf(this.items, this.items.length * 2);
+                if (this.weights != null) {
+                    this.weights = Arrays.copyOf(this.weights, this.items.length);
+                    this.weightsEdit = this.edit;
+                }
+            }
+            this.items[this.size] = id;
+            if (this.weights != null) {
+                this.weights[this.size] = IGraph.DEFAULT_WEIGHT;
+            }
+            this.size++;
+            this.setWeight(this.size - 1, weight);
+            if (this.table != null && this.size * 2 <= this.table.length) {
+                insertIntoTable(this.table, this.items, this.size - 1);
+            } else if (this.size > HASH_THRESHOLD) {
+                this.table = new int[Integer.highestOneBit(this.size * 4 - 1)];
+                for (int i = 0; i < this.size; i++) {
+                    insertIntoTable(this.table, this.items, i);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Method to call an action with every id
+         *
+         * @param action called once per id
+         */
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < this.size; i++) {
+                action.accept(this.items[i]);
+            }
+        }
+
+        /**
+         * Method to call an action with every id and its edge weight
+         *
+         * @param action called once per id
+         */
+        void forEachWeighted(WeightedEdgeConsumer action) {
+            for (int i = 0; i < this.size; i++) {
+                action.accept(this.items[i], this.weights == null ? IGraph.DEFAULT_WEIGHT : this.weights[i]);
+            }
+        }
+
+        /**
+         * Helper method to set the weight at a position, copying the weights first if an
+         *     older version may be reading them
+         *
+         * @param index position of the edge
+         * @param weight the new weight
+         */
+        private void setWeight(int index, double weight) {
+            if (this.weights == null) {
+                if (weight == IGraph.DEFAULT_WEIGHT) {
+                    return;
+                }
+                this.weights = new double[this.items.length];
+                Arrays.fill(this.weights, IGraph.DEFAULT_WEIGHT);
+                this.weightsEdit = this.edit;
+            } else if (this.weightsEdit != this.edit && index < this.inherited) {
+                this.weights = Arrays.copyOf(this.weights, this.items.length);
+                this.weightsEdit = this.edit;
+            }
+            this.weights[index] = weight;
+        }
+
+        /**
+         * Helper method to place a position in the first free slot of its id's probe sequence
+         *
+         * @param table the table to place it in
+         * @param items the ids the table indexes
+         * @param index position in items of the id to place
+         */
+        private static void insertIntoTable(int[] table, int[] items, int index) {
+            int mask = table.length - 1;
+            int slot = hash(items[index]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = index + 1;
+        }
+
+        /**
+         * Helper method to spread the bits of an id so that sequential ids do not cluster
+         *
+         * @param id the id to hash
+         * @return the mixed hash
+         */
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Class for one committed version of a VersionedGraph. It shares its trie with the
+     * versions around it but never changes, so it can be read from any thread while the
+     * writer carries on
+     */
+    public static class Snapshot extends ReadOnlyGraph {
+        ConcurrentHashMap<String, Integer> labelToId;
+        Trie root;
+        int shift;
+        int nodeCount;
+        long modCount;
+
+        /**
+         * Constructor for a view of one version
+         *
+         * @param labelToId labels of every version, of which only ids below nodeCount belong to this one
+         * @param root root of the version's trie
+         * @param shift BITS times the number of levels above the leaves
+         * @param nodeCount number of nodes in the version
+         * @param modCount modification count of the writer when the version was made
+         */
+        Snapshot(ConcurrentHashMap<String, Integer> labelToId, Trie root, int shift, int nodeCount, long modCount) {
+            this.labelToId = labelToId;
+            this.root = root;
+            this.shift = shift;
+            this.nodeCount = nodeCount;
+            this.modCount = modCount;
+        }
+
+        /**
+         * Method to count how many nodes have edges to themselves
+         *
+         * @return the number of nodes that have edges to themselves
+         *
+         * Runtime:
+         *      O(N) Where N is the number of Nodes
+         */
+        @Override
+        public int countSelfEdges() {
+            int count = 0;
+            for (int id = 0; id < this.nodeCount; id++) {
+                if (this.entry(id).nextNodes.indexOf(id) >= 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+         * Assumes that fromNodeLabel is a valid node label in the graph.
+         *
+         * @param fromNodeLabel the node to check
+         * @return true if fromNodeLabel has an edge to every other node, otherwise false
+         *
+         * Runtime:
+         *      O(log32 N) Rows hold no duplicates, so only the row size and any self edge are needed
+         */
+        @Override
+        public boolean reachesAllOthers(String fromNodeLabel) {
+            Entry entry = this.entry(this.idOf(fromNodeLabel));
+            int others = entry.nextNodes.size;
+            if (entry.nextNodes.indexOf(entry.id) >= 0) {
+                others--;
+            }
+            return others == this.nodeCount - 1;
+        }
+
+        /**
+         * Method to return a list of all neighboring nodes as strings to a node
+         *
+         * @param fromNode node to check for outgoing connections from
+         * @return a list of strings corresponding to the neighbors of fromNode
+         */
+        @Override
+        public LinkedList<String> getNeighbors(String fromNode) {
+            LinkedList<String> neighbors = new LinkedList<>();
+            this.entry(this.idOf(fromNode)).nextNodes.forEach(id -> neighbors.add(this.labelOf(id)));
+            return neighbors;
+        }
+
+        /**
+         * Method to return the name strings of all nodes in the version
+         *
+         * @return a hashset of all node name strings
+         */
+        @Override
+        public HashSet<String> getAllNodes() {
+            HashSet<String> allNodesSet = new HashSet<>(this.nodeCount * 2);
+            for (int id = 0; id < this.nodeCount; id++) {
+                allNodesSet.add(this.labelOf(id));
+            }
+            return allNodesSet;
+        }
+
+        /**
+         * Method to check whether there is an edge from one node to another
+         *
+         * @param descr1 the source node of the edge
+         * @param descr2 the target node of the edge
+         * @return true if both nodes exist and the edge is present, otherwise false
+         *
+         * Runtime:
+         *      Expected O(log32 N)
+         */
+        @Override
+        public boolean hasEdge(String descr1, String descr2) {
+            int id1 = this.idOf(descr1);
+            int id2 = this.idOf(descr2);
+            return id1 >= 0 && id2 >= 0 && this.entry(id1).nextNodes.indexOf(id2) >= 0;
+        }
+
+        /**
+         * Method to get the number of nodes in the version
+         *
+         * @return number of nodes, which is also one more than the largest node id
+         */
+        @Override
+        public int nodeCount() {
+            return this.nodeCount;
+        }
+
+        /**
+         * Method to get the id of the node with a name
+         *
+         * @param label name of the node
+         * @return the id of the node, or -1 if there is no such node in this version
+         */
+        @Override
+        public int idOf(String label) {
+            Integer id = this.labelToId.get(label);
+            return id == null || id >= this.nodeCount ? -1 : id;
+        }
+
+        /**
+         * Method to get the name of the node with an id
+         *
+         * @param id id of the node
+         * @return the name of the node
+         */
+        @Override
+        public String labelOf(int id) {
+            return this.entry(id).label;
+        }
+
+        /**
+         * Method to visit the ids of all outgoing connections from a node
+         *
+         * @param id id of node to check for outgoing connections from
+         * @param action called with the id of each neighbor
+         */
+        @Override
+        public void forEachNeighbor(int id, IntConsumer action) {
+            this.entry(id).nextNodes.forEach(action);
+        }
+
+        /**
+         * Method to visit the ids and edge weights of all outgoing connections from a node
+         *
+         * @param id id of node to check for outgoing connections from
+         * @param action called with the id of each neighbor and the weight of the edge to it
+         */
+        @Override
+        public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+            this.entry(id).nextNodes.forEachWeighted(action);
+        }
+
+        /**
+         * Method to visit the ids of all incoming connections to a node
+         *
+         * @param id id of node to check for incoming connections to
+         * @param action called with the id of each predecessor
+         */
+        @Override
+        public void forEachPredecessor(int id, IntConsumer action) {
+            this.entry(id).prevNodes.forEach(action);
+        }
+
+        /**
+         * Versions never change
+         *
+         * @return the writer's modification count when this version was made
+         */
+        @Override
+        public long modCount() {
+            return this.modCount;
+        }
+
+        /**
+         * Helper method to find the entry of a node by walking down the trie
+         *
+         * @param id id of the node
+         * @return the node's entry in this version
+         */
+        Entry entry(int id) {
+            Trie node = this.root;
+            for (int level = this.shift; level > 0; level -= BITS) {
+                node = (Trie) node.slots[(id >>> level) & MASK];
+            }
+            return (Entry) node.slots[id & MASK];
+        }
+    }
+
+    /**
+     * Constructor for an empty versioned graph, whose first committed version is empty too
+     *
+     * @param name name of graph
+     */
+    public VersionedGraph(String name) {
+        this.name = name;
+        this.labelToId = new ConcurrentHashMap<>();
+        this.edit = new Object();
+        this.root = new Trie(this.edit, new Object[WIDTH]);
+        this.shift = 0;
+        this.nodeCount = 0;
+        this.listeners = new ArrayList<>();
+        this.commit();
+    }
+
+    /**
+     * Method to publish every change made since the last commit as a new version
+     *
+     * @return the new version
+     *
+     * Runtime:
+     *      O(1) The copying was already done as nodes were changed
+     */
+    public Snapshot commit() {
+        Snapshot version = new Snapshot(this.labelToId, this.root, this.shift, this.nodeCount, this.modCount);
+        this.edit = new Object();
+        this.committed = version;
+        return version;
+    }
+
+    /**
+     * Method to pin the latest committed version. Safe to call from any thread
+     *
+     * @return the version published by the most recent commit
+     */
+    public Snapshot snapshot() {
+        return this.committed;
+    }
+
+    /**
+     * Method to add a new node with the given description
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already
+     * associated with a node in the graph
+     */
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        if (this.labelToId.containsKey(descr)) {
+            throw new NodeNameExistsException(descr);
+        }
+        this.addNodeUnchecked(descr);
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given
+     * descriptions, creating the nodes if needed. If the edge already exists,
+     * no changes are made
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     *
+     * Runtime:
+     *      Amortized expected O(log32 N), plus copying the two entries and their
+     *      trie paths if this is their first change in the version
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2) {
+        this.addEdge(descr1, descr2, IGraph.DEFAULT_WEIGHT, false);
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given
+     * descriptions, as two directed edges, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.addDirectedEdge(descr1, descr2);
+        this.addDirectedEdge(descr2, descr1);
+    }
+
+    /**
+     * Method to add a directed edge with a travel cost between the nodes associated
+     * with the given descriptions, creating the nodes if needed.
+     * If the edge already exists its cost is replaced
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edge
+     */
+    @Override
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        IGraph.checkWeight(weight);
+        this.addEdge(descr1, descr2, weight, true);
+    }
+
+    /**
+     * Method to add an undirected edge with the same travel cost both ways between
+     * the nodes associated with the given descriptions, creating the nodes if needed
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the non-negative cost of the edges
+     */
+    @Override
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves, including uncommitted changes
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    @Override
+    public int countSelfEdges() {
+        return this.view().countSelfEdges();
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node, including uncommitted changes
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        return this.view().reachesAllOthers(fromNodeLabel);
+    }
+
+    /**
+     * Method to return a list of all neighboring nodes as strings to a node, including uncommitted changes
+     *
+     * @param fromNode node to check for outgoing connections from
+     * @return a list of strings corresponding to the neighbors of fromNode
+     */
+    @Override
+    public LinkedList<String> getNeighbors(String fromNode) {
+        return this.view().getNeighbors(fromNode);
+    }
+
+    /**
+     * Method to return the name strings of all nodes, including uncommitted ones
+     *
+     * @return a hashset of all node name strings
+     */
+    @Override
+    public HashSet<String> getAllNodes() {
+        return this.view().getAllNodes();
+    }
+
+    /**
+     * Method to check whether there is an edge from one node to another, including uncommitted changes
+     *
+     * @param descr1 the source node of the edge
+     * @param descr2 the target node of the edge
+     * @return true if both nodes exist and the edge is present, otherwise false
+     */
+    @Override
+    public boolean hasEdge(String descr1, String descr2) {
+        return this.view().hasEdge(descr1, descr2);
+    }
+
+    /**
+     * Method to get the number of nodes, including uncommitted ones
+     *
+     * @return number of nodes, which is also one more than the largest node id
+     */
+    @Override
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Method to get the id of the node with a name
+     *
+     * @param label name of the node
+     * @return the id of the node, or -1 if there is no such node
+     */
+    @Override
+    public int idOf(String label) {
+        Integer id = this.labelToId.get(label);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Method to get the name of the node with an id
+     *
+     * @param id id of the node
+     * @return the name of the node
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.view().labelOf(id);
+    }
+
+    /**
+     * Method to visit the ids of all outgoing connections from a node, including uncommitted changes
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor
+     */
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.view().forEachNeighbor(id, action);
+    }
+
+    /**
+     * Method to visit the ids and edge weights of all outgoing connections from a node,
+     *     including uncommitted changes
+     *
+     * @param id id of node to check for outgoing connections from
+     * @param action called with the id of each neighbor and the weight of the edge to it
+     */
+    @Override
+    public void forEachWeightedNeighbor(int id, WeightedEdgeConsumer action) {
+        this.view().forEachWeightedNeighbor(id, action);
+    }
+
+    /**
+     * Method to visit the ids of all incoming connections to a node, including uncommitted changes
+     *
+     * @param id id of node to check for incoming connections to
+     * @param action called with the id of each predecessor
+     */
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        this.view().forEachPredecessor(id, action);
+    }
+
+    /**
+     * Method to get the number of modifications made to the graph so far, committed or not
+     *
+     * @return a count incremented by every node added, edge added and weight set
+     */
+    @Override
+    public long modCount() {
+        return this.modCount;
+    }
+
+    /**
+     * Method to register a listener for added nodes and edges. Listeners hear about
+     *     changes as they are made, not when they are committed
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addListener(GraphListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Method to stop notifying a listener
+     *
+     * @param listener the listener to remove
+     */
+    @Override
+    public void removeListener(GraphListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Helper method to add or reweight an edge in the working version
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the cost of the edge
+     * @param replace whether the cost of an existing edge should be replaced
+     */
+    private void addEdge(String descr1, String descr2, double weight, boolean replace) {
+        int from = this.idOf(descr1);
+        if (from < 0) from = this.addNodeUnchecked(descr1);
+        int to = this.idOf(descr2);
+        if (to < 0) to = this.addNodeUnchecked(descr2);
+        Entry fromEntry = this.editableEntry(from);
+        Row nextNodes = fromEntry.nextNodes.editable(this.edit);
+        fromEntry.nextNodes = nextNodes;
+        if (nextNodes.put(to, weight, replace)) {
+            Entry toEntry = this.editableEntry(to);
+            toEntry.prevNodes = toEntry.prevNodes.editable(this.edit);
+            toEntry.prevNodes.put(from, IGraph.DEFAULT_WEIGHT, false);
+            this.modCount++;
+            for (GraphListener listener : this.listeners) {
+                listener.edgeAdded(from, to);
+            }
+        } else if (replace) {
+            this.modCount++;
+        }
+    }
+
+    /**
+     * Helper method to add a node without checking whether it exists
+     *
+     * @param descr the text description or label to associate with the node
+     * @return the id of the new node
+     */
+    private int addNodeUnchecked(String descr) {
+        int id = this.nodeCount;
+        if (id == WIDTH << this.shift) {
+            Object[] slots = new Object[WIDTH];
+            slots[0] = this.root;
+            this.root = new Trie(this.edit, slots);
+            this.shift += BITS;
+        }
+        Row empty = new Row(this.edit, new int[2], null, null, null, 0);
+        this.setEntry(id, new Entry(descr, id, this.edit, empty, new Row(this.edit, new int[2], null, null, null, 0)));
+        this.nodeCount++;
+        this.labelToId.put(descr, id);
+        this.modCount++;
+        for (GraphListener listener : this.listeners) {
+            listener.nodeAdded(id);
+        }
+        return id;
+    }
+
+    /**
+     * Helper method to get an entry the working version may change, copying it and
+     *     the trie nodes above it if they still belong to a committed version
+     *
+     * @param id id of the node
+     * @return the node's entry in the working version
+     */
+    private Entry editableEntry(int id) {
+        Trie leaf = this.editablePath(id);
+        Entry entry = (Entry) leaf.slots[id & MASK];
+        if (entry.edit != this.edit) {
+            entry = new Entry(entry.label, entry.id, this.edit, entry.nextNodes, entry.prevNodes);
+            leaf.slots[id & MASK] = entry;
+        }
+        return entry;
+    }
+
+    /**
+     * Helper method to store a new entry in the working version
+     *
+     * @param id id of the node
+     * @param entry the entry to store
+     */
+    private void setEntry(int id, Entry entry) {
+        this.editablePath(id).slots[id & MASK] = entry;
+    }
+
+    /**
+     * Helper method to copy the trie nodes on the path to an id that belong to a committed
+     *     version, creating any that are missing
+     *
+     * @param id id of the node
+     * @return the editable leaf holding the id's slot
+     */
+    private Trie editablePath(int id) {
+        if (this.root.edit != this.edit) {
+            this.root = new Trie(this.edit, this.root.slots.clone());
+        }
+        Trie node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS) {
+            int slot = (id >>> level) & MASK;
+            Trie child = (Trie) node.slots[slot];
+            if (child == null) {
+                child = new Trie(this.edit, new Object[WIDTH]);
+                node.slots[slot] = child;
+            } else if (child.edit != this.edit) {
+                child = new Trie(this.edit, child.slots.clone());
+                node.slots[slot] = child;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Helper method to get a read view of the working version for the writer's own reads
+     *
+     * @return a Snapshot over the working trie, which must not be handed to other threads
+     */
+    private Snapshot view() {
+        if (this.view == null || this.view.modCount != this.modCount || this.view.root != this.root) {
+            this.view = new Snapshot(this.labelToId, this.root, this.shift, this.nodeCount, this.modCount);
+        }
+        return this.view;
+    }
+}
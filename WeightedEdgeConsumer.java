@@ -0,0 +1,16 @@
+package sol;
+
+/**
+ * Interface for callbacks that receive the target id and weight of an edge
+ */
+@FunctionalInterface
+public interface WeightedEdgeConsumer {
+
+    /**
+     * Receives one edge
+     *
+     * @param target id of the node the edge leads to
+     * @param weight cost of travelling along the edge
+     */
+    void accept(int target, double weight);
+}